@@ -0,0 +1,98 @@
+package liquibase.ext.iq.change;
+
+import liquibase.change.AddColumnConfig;
+import liquibase.change.Change;
+import liquibase.change.ChangeMetaData;
+import liquibase.change.DatabaseChange;
+import liquibase.change.DatabaseChangeProperty;
+import liquibase.change.core.CreateIndexChange;
+import liquibase.database.Database;
+import liquibase.ext.iq.configuration.IQConfiguration;
+import liquibase.ext.iq.database.IQDatabase;
+import liquibase.ext.iq.statement.IQCreateIndexStatement;
+import liquibase.ext.iq.statement.IQParallelCreateIndexStatement;
+import liquibase.statement.SqlStatement;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * createIndex for SAP IQ with an optional IQ index type. With <code>liquibase.iq.parallelIndexBuilds</code> above 1,
+ * a run of consecutive createIndex changes on the same table within one changeset is built in groups of up to that
+ * many indexes, each group in one <code>BEGIN PARALLEL IQ</code> block. Every change still generates its own
+ * CREATE INDEX (see {@link IQParallelCreateIndexStatement}).
+ */
+@DatabaseChange(name = "createIndex", description = "Creates an index on an existing column or set of columns.",
+        priority = ChangeMetaData.PRIORITY_DATABASE, appliesTo = "index")
+public class IQCreateIndexChange extends CreateIndexChange {
+
+    private String indexType;
+
+    @DatabaseChangeProperty(description = "SAP IQ index type: HG, LF, HNG, WD, TEXT, DATE, TIME, DTTM or CMP")
+    public String getIndexType() {
+        return indexType;
+    }
+
+    public void setIndexType(String indexType) {
+        this.indexType = indexType;
+    }
+
+    @Override
+    public SqlStatement[] generateStatements(Database database) {
+        if (!(database instanceof IQDatabase)) {
+            return super.generateStatements(database);
+        }
+
+        int parallelism = IQConfiguration.getInstance().getParallelIndexBuilds();
+        List<IQCreateIndexChange> run = getParallelRun(parallelism);
+        if (run.size() < 2) {
+            return new SqlStatement[] { createStatement() };
+        }
+        int position = 0;
+        while (position < run.size() && run.get(position) != this) {
+            position++;
+        }
+        int groupStart = position - position % parallelism;
+        int groupEnd = Math.min(groupStart + parallelism, run.size()) - 1;
+        if (groupStart == groupEnd) {
+            return new SqlStatement[] { createStatement() };
+        }
+        return new SqlStatement[] { new IQParallelCreateIndexStatement(createStatement(), position == groupEnd) };
+    }
+
+    protected IQCreateIndexStatement createStatement() {
+        IQCreateIndexStatement statement = new IQCreateIndexStatement(getIndexName(), getCatalogName(), getSchemaName(),
+                getTableName(), isUnique(), getAssociatedWith(), getColumns().toArray(new AddColumnConfig[0]));
+        statement.setTablespace(getTablespace());
+        statement.setClustered(getClustered());
+        return statement.setIndexType(getIndexType());
+    }
+
+    /**
+     * The consecutive createIndex changes of this changeset on the same table as this one, including this one.
+     */
+    protected List<IQCreateIndexChange> getParallelRun(int parallelism) {
+        List<IQCreateIndexChange> run = new ArrayList<>();
+        if (parallelism < 2 || getChangeSet() == null) {
+            run.add(this);
+            return run;
+        }
+        for (Change change : getChangeSet().getChanges()) {
+            if (change instanceof IQCreateIndexChange && ((IQCreateIndexChange) change).isSameTable(this)) {
+                run.add((IQCreateIndexChange) change);
+            } else if (run.contains(this)) {
+                break;
+            } else {
+                run.clear();
+            }
+        }
+        return run;
+    }
+
+    private boolean isSameTable(IQCreateIndexChange other) {
+        return Objects.equals(getCatalogName(), other.getCatalogName())
+                && Objects.equals(getSchemaName(), other.getSchemaName())
+                && getTableName() != null && getTableName().equalsIgnoreCase(other.getTableName());
+    }
+}
@@ -0,0 +1,258 @@
+package liquibase.ext.iq.change;
+
+import liquibase.Scope;
+import liquibase.change.ChangeMetaData;
+import liquibase.change.DatabaseChange;
+import liquibase.change.core.LoadDataChange;
+import liquibase.change.core.LoadDataColumnConfig;
+import liquibase.database.Database;
+import liquibase.datatype.DataTypeFactory;
+import liquibase.exception.LiquibaseException;
+import liquibase.exception.UnexpectedLiquibaseException;
+import liquibase.ext.iq.configuration.IQConfiguration;
+import liquibase.ext.iq.database.IQDatabase;
+import liquibase.ext.iq.datatype.IQTemporalParser;
+import liquibase.ext.iq.statement.IQBatchInsertStatement;
+import liquibase.ext.iq.statement.IQLoadDataColumn;
+import liquibase.ext.iq.statement.IQLoadTableStatement;
+import liquibase.statement.SqlStatement;
+import liquibase.util.csv.CSVReader;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * loadData for SAP IQ. Depending on {@link IQConfiguration#getLoadDataMode()} the CSV file is loaded with a single
+ * <code>LOAD TABLE</code> statement instead of one INSERT per row. For any other database, or in DEFAULT mode, the
+ * statements of liquibase-core are used unchanged. In BATCH mode, or when LOAD TABLE cannot read client files, the rows
+ * are bound to one prepared INSERT and sent in JDBC batches.
+ */
+@DatabaseChange(name = "loadData",
+        description = "Loads data from a CSV file into an existing table. On SAP IQ this can be done with LOAD TABLE.",
+        priority = ChangeMetaData.PRIORITY_DATABASE, appliesTo = "table")
+public class IQLoadDataChange extends LoadDataChange {
+
+    @Override
+    public SqlStatement[] generateStatements(Database database) {
+        if (!(database instanceof IQDatabase)) {
+            return super.generateStatements(database);
+        }
+
+        IQConfiguration configuration = IQConfiguration.getInstance();
+        switch (configuration.getLoadDataMode()) {
+            case LOAD_TABLE:
+                if (configuration.getLoadTableServerFile() || ((IQDatabase) database).isClientFileLoadAllowed()) {
+                    return new SqlStatement[] { generateLoadTableStatement(database, configuration) };
+                }
+                Scope.getCurrentScope().getLog(getClass()).info("allow_read_client_file is off, loading "
+                        + getFile() + " with batched inserts instead of LOAD TABLE");
+                return new SqlStatement[] { generateBatchInsertStatement(database, configuration) };
+            case BATCH:
+                return new SqlStatement[] { generateBatchInsertStatement(database, configuration) };
+            default:
+                return super.generateStatements(database);
+        }
+    }
+
+    protected IQLoadTableStatement generateLoadTableStatement(Database database, IQConfiguration configuration) {
+        boolean clientFile = !configuration.getLoadTableServerFile();
+        IQLoadTableStatement statement = new IQLoadTableStatement(getCatalogName(), getSchemaName(), getTableName(),
+                clientFile ? getClientFilePath() : getFile(), clientFile)
+                .setFieldDelimiter(getSeparator() == null ? "," : getSeparator())
+                .setQuoteChar(getQuotchar() == null ? "\"" : getQuotchar())
+                .setRowDelimiter(configuration.getLoadTableRowDelimiter())
+                .setNullMarker(configuration.getLoadTableNullMarker())
+                .setDateFormat(configuration.getLoadTableDateFormat());
+        for (IQLoadDataColumn column : getLoadColumns(database)) {
+            statement.addColumn(column);
+        }
+        return statement;
+    }
+
+    protected IQBatchInsertStatement generateBatchInsertStatement(Database database, IQConfiguration configuration) {
+        final List<IQLoadDataColumn> columns = getLoadColumns(database);
+        return new IQBatchInsertStatement(database, getCatalogName(), getSchemaName(), getTableName(), columns,
+                () -> new CsvRowCursor(openCSVReader(), columns))
+                .setBatchSize(configuration.getBatchSize());
+    }
+
+    /**
+     * Reads the CSV header and returns one column per field, in file order. Fields configured as "skip" become fillers.
+     */
+    protected List<IQLoadDataColumn> getLoadColumns(Database database) {
+        List<IQLoadDataColumn> columns = new ArrayList<>();
+        try (CSVReader reader = openCSVReader()) {
+            if (reader == null) {
+                throw new UnexpectedLiquibaseException("Unable to read file " + getFile());
+            }
+            String[] headers = reader.readNext();
+            if (headers == null) {
+                throw new UnexpectedLiquibaseException("Data file " + getFile() + " was empty");
+            }
+            for (int i = 0; i < headers.length; i++) {
+                String header = headers[i].trim();
+                LoadDataColumnConfig columnConfig = getColumnConfig(i, header);
+                if (columnConfig != null && "skip".equalsIgnoreCase(columnConfig.getType())) {
+                    columns.add(IQLoadDataColumn.filler());
+                    continue;
+                }
+                String columnName = (columnConfig != null && columnConfig.getName() != null) ? columnConfig.getName() : header;
+                columns.add(new IQLoadDataColumn(columnName, getLoadType(columnConfig, database)));
+            }
+        } catch (IOException e) {
+            throw new UnexpectedLiquibaseException(e);
+        }
+        return columns;
+    }
+
+    /**
+     * {@link #getCSVReader()} with Liquibase errors rethrown unchecked, as {@link LoadDataChange} does.
+     */
+    protected CSVReader openCSVReader() throws IOException {
+        try {
+            return getCSVReader();
+        } catch (LiquibaseException e) {
+            throw new UnexpectedLiquibaseException(e);
+        }
+    }
+
+    /**
+     * Maps the type of a column config onto a {@link LoadDataChange.LOAD_DATA_TYPE}, going through the IQ datatype
+     * classes for anything that is not already a load type name.
+     */
+    protected LOAD_DATA_TYPE getLoadType(LoadDataColumnConfig columnConfig, Database database) {
+        if (columnConfig == null || columnConfig.getType() == null) {
+            return null;
+        }
+        try {
+            return LOAD_DATA_TYPE.valueOf(columnConfig.getType().toUpperCase(Locale.US));
+        } catch (IllegalArgumentException e) {
+            return DataTypeFactory.getInstance().fromDescription(columnConfig.getType(), database).getLoadTypeName();
+        }
+    }
+
+    /**
+     * LOAD TABLE ... USING CLIENT FILE needs a real path. Files packaged in a jar are copied to a temporary file.
+     */
+    protected String getClientFilePath() {
+        File file = new File(getFile());
+        if (file.isFile()) {
+            return file.getAbsolutePath();
+        }
+
+        String relativeTo = null;
+        if (Boolean.TRUE.equals(isRelativeToChangelogFile())) {
+            relativeTo = getChangeSet().getChangeLog().getPhysicalFilePath();
+        }
+        try (InputStream stream = Scope.getCurrentScope().getResourceAccessor().openStream(relativeTo, getFile())) {
+            if (stream == null) {
+                throw new UnexpectedLiquibaseException("Data file " + getFile() + " was not found");
+            }
+            Path tempFile = Files.createTempFile("liquibase-iq-", ".csv");
+            tempFile.toFile().deleteOnExit();
+            Files.copy(stream, tempFile, StandardCopyOption.REPLACE_EXISTING);
+            return tempFile.toAbsolutePath().toString();
+        } catch (IOException e) {
+            throw new UnexpectedLiquibaseException(e);
+        }
+    }
+
+    /**
+     * Streams CSV rows as typed values, skipping the header line and filler fields.
+     */
+    private static class CsvRowCursor implements IQBatchInsertStatement.RowCursor {
+        private final CSVReader reader;
+        private final List<IQLoadDataColumn> columns;
+        private final int valueCount;
+
+        CsvRowCursor(CSVReader reader, List<IQLoadDataColumn> columns) throws IOException {
+            if (reader == null) {
+                throw new IOException("Unable to open loadData file");
+            }
+            this.reader = reader;
+            this.columns = columns;
+            int count = 0;
+            for (IQLoadDataColumn column : columns) {
+                if (!column.isFiller()) {
+                    count++;
+                }
+            }
+            this.valueCount = count;
+            reader.readNext();
+        }
+
+        @Override
+        public Object[] next() throws IOException {
+            String[] line = reader.readNext();
+            while (line != null && line.length == 1 && line[0].trim().isEmpty()) {
+                line = reader.readNext();
+            }
+            if (line == null) {
+                return null;
+            }
+            Object[] row = new Object[valueCount];
+            int valueIndex = 0;
+            for (int i = 0; i < columns.size(); i++) {
+                IQLoadDataColumn column = columns.get(i);
+                if (column.isFiller()) {
+                    continue;
+                }
+                row[valueIndex++] = toValue(i < line.length ? line[i] : null, column.getLoadType());
+            }
+            return row;
+        }
+
+        @Override
+        public void close() throws IOException {
+            reader.close();
+        }
+
+        private static Object toValue(String value, LOAD_DATA_TYPE loadType) {
+            if (value == null || "NULL".equalsIgnoreCase(value)) {
+                return null;
+            }
+            if (loadType == null) {
+                return value;
+            }
+            switch (loadType) {
+                case NUMERIC:
+                    if (value.trim().isEmpty()) {
+                        return null;
+                    }
+                    try {
+                        return new BigDecimal(value.trim());
+                    } catch (NumberFormatException e) {
+                        return value;
+                    }
+                case BOOLEAN:
+                    String trimmed = value.trim();
+                    if (trimmed.isEmpty()) {
+                        return null;
+                    } else if ("true".equalsIgnoreCase(trimmed) || "1".equals(trimmed) || "t".equalsIgnoreCase(trimmed)
+                            || "y".equalsIgnoreCase(trimmed) || "yes".equalsIgnoreCase(trimmed)) {
+                        return Boolean.TRUE;
+                    } else if ("false".equalsIgnoreCase(trimmed) || "0".equals(trimmed) || "f".equalsIgnoreCase(trimmed)
+                            || "n".equalsIgnoreCase(trimmed) || "no".equalsIgnoreCase(trimmed)) {
+                        return Boolean.FALSE;
+                    }
+                    return value;
+                case DATE:
+                    if (value.trim().isEmpty()) {
+                        return null;
+                    }
+                    java.util.Date date = IQTemporalParser.parseDateOrTimestamp(value);
+                    return date == null ? value : date;
+                default:
+                    return value;
+            }
+        }
+    }
+}
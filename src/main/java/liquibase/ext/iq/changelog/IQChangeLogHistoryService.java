@@ -0,0 +1,304 @@
+package liquibase.ext.iq.changelog;
+
+import liquibase.ContextExpression;
+import liquibase.Labels;
+import liquibase.Scope;
+import liquibase.change.CheckSum;
+import liquibase.change.ColumnConfig;
+import liquibase.changelog.ChangeSet;
+import liquibase.changelog.RanChangeSet;
+import liquibase.changelog.StandardChangeLogHistoryService;
+import liquibase.database.Database;
+import liquibase.database.jvm.JdbcConnection;
+import liquibase.exception.DatabaseException;
+import liquibase.exception.LiquibaseException;
+import liquibase.executor.Executor;
+import liquibase.executor.ExecutorService;
+import liquibase.executor.jvm.JdbcExecutor;
+import liquibase.ext.iq.configuration.IQConfiguration;
+import liquibase.ext.iq.database.IQDatabase;
+import liquibase.ext.iq.database.IQTransactionListener;
+import liquibase.ext.iq.statement.IQMarkChangeSetRanStatement;
+import liquibase.statement.core.SelectFromDatabaseChangeLogStatement;
+import liquibase.statement.core.TagDatabaseStatement;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Changelog history for SAP IQ. DATABASECHANGELOG is created in the store chosen with
+ * <code>liquibase.iq.changeLogTableStore</code> (see
+ * {@link liquibase.ext.iq.sqlgenerator.IQCreateDatabaseChangeLogTableGenerator}) and changesets are recorded with
+ * {@link IQMarkChangeSetRanStatement}, a parameterized statement, instead of a literal INSERT.
+ * <p>
+ * The ran changesets are read with one streamed query over the columns they need and kept in a
+ * {@link RanChangeSetIndex}, so looking up a changeset does not scan the whole history and the file names and authors
+ * repeated over thousands of rows are held once. The index is updated after the IQ statements without reading the
+ * table again.
+ * <p>
+ * With <code>liquibase.iq.deferHistoryWrites</code> the rows are not written and committed one by one: they are kept
+ * until {@link IQDatabase#commit()} and then sent as one JDBC batch per statement shape within the committed
+ * transaction. A rollback discards them together with the changes they record. Tagging, checksum updates and other
+ * statements reading or changing the table commit them first.
+ */
+public class IQChangeLogHistoryService extends StandardChangeLogHistoryService implements IQTransactionListener {
+
+    /**
+     * Rows fetched per round trip when reading DATABASECHANGELOG.
+     */
+    public static final int FETCH_SIZE = 10000;
+
+    private RanChangeSetIndex ranChangeSets;
+    private final List<IQMarkChangeSetRanStatement> pendingStatements = new ArrayList<>();
+
+    @Override
+    public int getPriority() {
+        return PRIORITY_DATABASE;
+    }
+
+    @Override
+    public boolean supports(Database database) {
+        return database instanceof IQDatabase;
+    }
+
+    @Override
+    public List<RanChangeSet> getRanChangeSets() throws DatabaseException {
+        return getRanChangeSetIndex().list();
+    }
+
+    @Override
+    public RanChangeSet getRanChangeSet(ChangeSet changeSet) throws DatabaseException {
+        return getRanChangeSetIndex().find(changeSet);
+    }
+
+    protected RanChangeSetIndex getRanChangeSetIndex() throws DatabaseException {
+        if (ranChangeSets == null) {
+            RanChangeSetIndex index = new RanChangeSetIndex();
+            flushPendingWrites();
+            if (getDatabase().getConnection() instanceof JdbcConnection) {
+                if (hasDatabaseChangeLogTable()) {
+                    readRanChangeSets(index);
+                }
+            } else {
+                for (RanChangeSet ranChangeSet : super.getRanChangeSets()) {
+                    index.add(ranChangeSet);
+                }
+            }
+            ranChangeSets = index;
+        }
+        return ranChangeSets;
+    }
+
+    /**
+     * Streams DATABASECHANGELOG with a large fetch size, reading only the columns a {@link RanChangeSet} holds.
+     */
+    private void readRanChangeSets(RanChangeSetIndex index) throws DatabaseException {
+        Database database = getDatabase();
+        String sql = "SELECT FILENAME, ID, AUTHOR, MD5SUM, DATEEXECUTED, ORDEREXECUTED, TAG, EXECTYPE, DESCRIPTION, "
+                + "COMMENTS, CONTEXTS, LABELS, DEPLOYMENT_ID FROM "
+                + database.escapeTableName(database.getLiquibaseCatalogName(), database.getLiquibaseSchemaName(),
+                database.getDatabaseChangeLogTableName())
+                + " ORDER BY DATEEXECUTED ASC, ORDEREXECUTED ASC";
+        try (Statement statement = ((JdbcConnection) database.getConnection()).createStatement()) {
+            statement.setFetchSize(FETCH_SIZE);
+            try (ResultSet resultSet = statement.executeQuery(sql)) {
+                while (resultSet.next()) {
+                    String md5sum = resultSet.getString("MD5SUM");
+                    Timestamp dateExecuted = resultSet.getTimestamp("DATEEXECUTED");
+                    String execType = resultSet.getString("EXECTYPE");
+                    String contexts = resultSet.getString("CONTEXTS");
+                    String labels = resultSet.getString("LABELS");
+                    RanChangeSet ranChangeSet = new RanChangeSet(
+                            index.share(resultSet.getString("FILENAME")),
+                            resultSet.getString("ID"),
+                            index.share(resultSet.getString("AUTHOR")),
+                            md5sum == null ? null : CheckSum.parse(md5sum),
+                            dateExecuted == null ? null : new Date(dateExecuted.getTime()),
+                            resultSet.getString("TAG"),
+                            execType == null ? ChangeSet.ExecType.EXECUTED : ChangeSet.ExecType.valueOf(execType),
+                            resultSet.getString("DESCRIPTION"),
+                            resultSet.getString("COMMENTS"),
+                            contexts == null ? null : new ContextExpression(index.share(contexts)),
+                            labels == null ? null : new Labels(index.share(labels)),
+                            resultSet.getString("DEPLOYMENT_ID"));
+                    ranChangeSet.setOrderExecuted(resultSet.getInt("ORDEREXECUTED"));
+                    index.add(ranChangeSet);
+                }
+            }
+        } catch (SQLException e) {
+            throw new DatabaseException("Error reading " + database.getDatabaseChangeLogTableName() + ": "
+                    + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public void setExecType(ChangeSet changeSet, ChangeSet.ExecType execType) throws DatabaseException {
+        Database database = getDatabase();
+        IQMarkChangeSetRanStatement statement = new IQMarkChangeSetRanStatement(changeSet, execType, database, this);
+        if (isDeferringHistoryWrites()) {
+            if (statement.isRecorded()) {
+                // takes ORDEREXECUTED now, in execution order
+                statement.getSql();
+                pendingStatements.add(statement);
+                ((IQDatabase) database).setTransactionListener(this);
+            }
+        } else {
+            getExecutor().execute(statement);
+            database.commit();
+        }
+        if (ranChangeSets != null) {
+            ranChangeSets.add(new RanChangeSet(changeSet, execType, null, null));
+        }
+    }
+
+    @Override
+    public List<Map<String, ?>> queryDatabaseChangeLogTable(Database database) throws DatabaseException {
+        flushPendingWrites();
+        return super.queryDatabaseChangeLogTable(database);
+    }
+
+    @Override
+    protected void replaceChecksum(ChangeSet changeSet) throws DatabaseException {
+        flushPendingWrites();
+        super.replaceChecksum(changeSet);
+    }
+
+    @Override
+    public void clearAllCheckSums() throws LiquibaseException {
+        flushPendingWrites();
+        super.clearAllCheckSums();
+    }
+
+    @Override
+    public boolean tagExists(String tag) throws DatabaseException {
+        flushPendingWrites();
+        return super.tagExists(tag);
+    }
+
+    @Override
+    public void removeFromHistory(ChangeSet changeSet) throws DatabaseException {
+        flushPendingWrites();
+        super.removeFromHistory(changeSet);
+        if (ranChangeSets != null) {
+            ranChangeSets.remove(changeSet);
+        }
+    }
+
+    @Override
+    public void tag(String tagString) throws DatabaseException {
+        flushPendingWrites();
+        Database database = getDatabase();
+        Executor executor = getExecutor();
+        int totalRows = executor.queryForInt(new SelectFromDatabaseChangeLogStatement(
+                new ColumnConfig().setName("COUNT(*)", true)));
+        if (totalRows == 0) {
+            ChangeSet emptyChangeSet = new ChangeSet(String.valueOf(new Date().getTime()), "liquibase", false, false,
+                    "liquibase-internal", null, null, database.getObjectQuotingStrategy(), null);
+            setExecType(emptyChangeSet, ChangeSet.ExecType.EXECUTED);
+            flushPendingWrites();
+        }
+        executor.execute(new TagDatabaseStatement(tagString));
+        database.commit();
+        if (ranChangeSets != null && ranChangeSets.last() != null) {
+            ranChangeSets.last().setTag(tagString);
+        }
+    }
+
+    @Override
+    public void reset() {
+        super.reset();
+        ranChangeSets = null;
+    }
+
+    /**
+     * True if history rows are kept until the transaction is committed, which group commits imply. Only applies when statements are executed
+     * on a JDBC connection; when SQL is written out, each row is written as liquibase-core does.
+     */
+    protected boolean isDeferringHistoryWrites() {
+        IQConfiguration configuration = IQConfiguration.getInstance();
+        return (configuration.getDeferHistoryWrites() || configuration.getGroupCommitSize() > 0)
+                && getDatabase().getConnection() instanceof JdbcConnection
+                && getExecutor() instanceof JdbcExecutor;
+    }
+
+    /**
+     * Commits the deferred history rows, together with the transaction they belong to, before DATABASECHANGELOG is
+     * read or changed by a statement that would otherwise miss them, such as the UPDATE of a tag.
+     */
+    protected void flushPendingWrites() throws DatabaseException {
+        if (!pendingStatements.isEmpty()) {
+            ((IQDatabase) getDatabase()).commitPendingWork();
+        }
+    }
+
+    @Override
+    public void beforeCommit(IQDatabase database) throws DatabaseException {
+        if (pendingStatements.isEmpty()) {
+            return;
+        }
+        List<IQMarkChangeSetRanStatement> statements = new ArrayList<>(pendingStatements);
+        pendingStatements.clear();
+
+        Map<String, List<IQMarkChangeSetRanStatement>> statementsBySql = new LinkedHashMap<>();
+        for (IQMarkChangeSetRanStatement statement : statements) {
+            List<IQMarkChangeSetRanStatement> batch = statementsBySql.get(statement.getSql());
+            if (batch == null) {
+                batch = new ArrayList<>();
+                statementsBySql.put(statement.getSql(), batch);
+            }
+            batch.add(statement);
+        }
+
+        JdbcConnection connection = (JdbcConnection) database.getConnection();
+        try {
+            for (Map.Entry<String, List<IQMarkChangeSetRanStatement>> entry : statementsBySql.entrySet()) {
+                try (PreparedStatement stmt = connection.prepareStatement(entry.getKey())) {
+                    for (IQMarkChangeSetRanStatement statement : entry.getValue()) {
+                        statement.setParameters(stmt);
+                        stmt.addBatch();
+                    }
+                    stmt.executeBatch();
+                }
+            }
+        } catch (SQLException e) {
+            forget(statements);
+            throw new DatabaseException("Error writing " + statements.size() + " changesets to "
+                    + database.getDatabaseChangeLogTableName() + ": " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public void afterRollback(IQDatabase database) {
+        List<IQMarkChangeSetRanStatement> statements = new ArrayList<>(pendingStatements);
+        pendingStatements.clear();
+        forget(statements);
+    }
+
+    @Override
+    public int getPendingCount() {
+        return pendingStatements.size();
+    }
+
+    /**
+     * Removes changesets whose history rows were not written from the ran changesets.
+     */
+    private void forget(List<IQMarkChangeSetRanStatement> statements) {
+        if (ranChangeSets != null) {
+            for (IQMarkChangeSetRanStatement statement : statements) {
+                ranChangeSets.remove(statement.getChangeSet());
+            }
+        }
+    }
+
+    protected Executor getExecutor() {
+        return Scope.getCurrentScope().getSingleton(ExecutorService.class).getExecutor("jdbc", getDatabase());
+    }
+}
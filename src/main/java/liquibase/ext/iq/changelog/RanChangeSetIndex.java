@@ -0,0 +1,123 @@
+package liquibase.ext.iq.changelog;
+
+import liquibase.changelog.ChangeSet;
+import liquibase.changelog.DatabaseChangeLog;
+import liquibase.changelog.RanChangeSet;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The ran changesets of a DATABASECHANGELOG table, in execution order, with a hash index on filename, id and author.
+ * Repeated values such as file names and authors are stored once.
+ */
+class RanChangeSetIndex {
+
+    private final List<RanChangeSet> ranChangeSets = new ArrayList<>();
+    private final Map<String, RanChangeSet> byKey = new HashMap<>();
+    private final Map<String, String> strings = new HashMap<>();
+
+    /**
+     * Returns a shared instance of the value, so equal values read from many rows are kept once. Only meant for
+     * columns with few distinct values, such as file names, authors, contexts and labels; sharing mostly unique
+     * values would just grow the table.
+     */
+    String share(String value) {
+        if (value == null) {
+            return null;
+        }
+        String shared = strings.putIfAbsent(value, value);
+        return shared == null ? value : shared;
+    }
+
+    /**
+     * Appends an entry. If an earlier entry has the same key, lookups keep returning the earlier one, like the list
+     * scan in liquibase-core.
+     */
+    void add(RanChangeSet ranChangeSet) {
+        ranChangeSets.add(ranChangeSet);
+        byKey.putIfAbsent(key(ranChangeSet), ranChangeSet);
+    }
+
+    void remove(ChangeSet changeSet) {
+        RanChangeSet ranChangeSet = find(changeSet);
+        if (ranChangeSet != null) {
+            ranChangeSets.remove(ranChangeSet);
+            String key = key(ranChangeSet);
+            byKey.remove(key);
+            for (RanChangeSet other : ranChangeSets) {
+                if (key.equals(key(other))) {
+                    byKey.put(key, other);
+                    break;
+                }
+            }
+        }
+    }
+
+    /**
+     * The entry for the changeset, or null. A miss is final: {@link #key} folds exactly what
+     * {@link RanChangeSet#isSameAs(ChangeSet)} ignores, so no other entry can match.
+     */
+    RanChangeSet find(ChangeSet changeSet) {
+        RanChangeSet ranChangeSet = byKey.get(key(changeSet.getFilePath(), changeSet.getId(), changeSet.getAuthor()));
+        if (ranChangeSet == null || !ranChangeSet.isSameAs(changeSet)) {
+            // a hit can only differ for supplementary characters, which String.equalsIgnoreCase compares per char on Java 8
+            return null;
+        }
+        return ranChangeSet;
+    }
+
+    List<RanChangeSet> list() {
+        return Collections.unmodifiableList(ranChangeSets);
+    }
+
+    int size() {
+        return ranChangeSets.size();
+    }
+
+    RanChangeSet last() {
+        return ranChangeSets.isEmpty() ? null : ranChangeSets.get(ranChangeSets.size() - 1);
+    }
+
+    private static String key(RanChangeSet ranChangeSet) {
+        return key(ranChangeSet.getChangeLog(), ranChangeSet.getId(), ranChangeSet.getAuthor());
+    }
+
+    /**
+     * The path normalized like {@link DatabaseChangeLog#normalizePath(String)}, id and author, with every code point
+     * case folded the way {@link String#equalsIgnoreCase(String)} compares them. Each value is length prefixed, so
+     * no character inside a value can make two different triples share a key.
+     */
+    private static String key(String filePath, String id, String author) {
+        StringBuilder key = new StringBuilder();
+        appendField(key, filePath == null ? "" : DatabaseChangeLog.normalizePath(filePath));
+        appendField(key, id);
+        appendField(key, author);
+        return key.toString();
+    }
+
+    private static void appendField(StringBuilder key, String value) {
+        String folded = fold(value);
+        if (folded == null) {
+            key.append('-');
+        } else {
+            key.append(folded.length()).append('\0').append(folded);
+        }
+    }
+
+    private static String fold(String value) {
+        if (value == null) {
+            return null;
+        }
+        StringBuilder folded = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); ) {
+            int codePoint = value.codePointAt(i);
+            folded.appendCodePoint(Character.toLowerCase(Character.toUpperCase(codePoint)));
+            i += Character.charCount(codePoint);
+        }
+        return folded.toString();
+    }
+}
@@ -0,0 +1,269 @@
+package liquibase.ext.iq.configuration;
+
+import liquibase.configuration.AbstractConfigurationContainer;
+import liquibase.configuration.LiquibaseConfiguration;
+
+/**
+ * Settings specific to the SAP IQ extension. Values are read from system properties prefixed with
+ * <code>liquibase.iq.</code>, e.g. <code>-Dliquibase.iq.loadDataMode=LOAD_TABLE</code>.
+ */
+public class IQConfiguration extends AbstractConfigurationContainer {
+
+    public static final String LOAD_DATA_MODE = "loadDataMode";
+    public static final String LOAD_TABLE_SERVER_FILE = "loadTableServerFile";
+    public static final String LOAD_TABLE_NULL_MARKER = "loadTableNullMarker";
+    public static final String LOAD_TABLE_DATE_FORMAT = "loadTableDateFormat";
+    public static final String LOAD_TABLE_ROW_DELIMITER = "loadTableRowDelimiter";
+    public static final String BATCH_SIZE = "batchSize";
+    public static final String ADDITIONAL_CONNECTION_PASSWORD = "additionalConnectionPassword";
+    public static final String PARALLEL_INDEX_BUILDS = "parallelIndexBuilds";
+    public static final String SNAPSHOT_CONNECTIONS = "snapshotConnections";
+    public static final String SNAPSHOT_SCHEMAS = "snapshotSchemas";
+    public static final String CHANGELOG_TABLE_STORE = "changeLogTableStore";
+    public static final String LOCK_LEASE_SECONDS = "lockLeaseSeconds";
+    public static final String LOCK_BACKOFF_MILLIS = "lockBackoffMillis";
+    public static final String LOCK_SCOPE = "lockScope";
+    public static final String LOCK_KEY = "lockKey";
+    public static final String DEFER_HISTORY_WRITES = "deferHistoryWrites";
+    public static final String GROUP_COMMIT_SIZE = "groupCommitSize";
+    public static final String SNAPSHOT_CACHE_DIRECTORY = "snapshotCacheDirectory";
+    public static final String SNAPSHOT_CACHE_MAX_ROWS = "snapshotCacheMaxRows";
+    public static final String SNAPSHOT_INCLUDE_OBJECTS = "snapshotIncludeObjects";
+    public static final String SNAPSHOT_EXCLUDE_OBJECTS = "snapshotExcludeObjects";
+    public static final String CONNECTION_PREFETCH = "connectionPrefetch";
+
+    /**
+     * How a loadData change is executed against SAP IQ.
+     */
+    public enum LoadDataMode {
+        /** One INSERT per CSV row, as generated by liquibase-core. */
+        DEFAULT,
+        /** A single LOAD TABLE statement reading the CSV file, falling back to BATCH if client files are not allowed. */
+        LOAD_TABLE,
+        /** One prepared INSERT reused for all rows and sent with JDBC batches. */
+        BATCH
+    }
+
+    /**
+     * Where a new DATABASECHANGELOG table is stored.
+     */
+    public enum ChangeLogTableStore {
+        /** The IQ column store, as for any other table. */
+        COLUMN,
+        /** The catalog store (IN SYSTEM), which handles single-row inserts without creating table versions. */
+        CATALOG,
+        /** The column store with the row-level versioned store enabled for the table. */
+        RLV
+    }
+
+    /**
+     * What a changelog lock taken by the IQ lock service covers.
+     */
+    public enum LockScope {
+        /** One lock for all changelogs sharing the DATABASECHANGELOGLOCK table, as in liquibase-core. */
+        GLOBAL,
+        /** One lock per default schema, or per <code>liquibase.iq.lockKey</code> if set. */
+        SCHEMA
+    }
+
+    public IQConfiguration() {
+        super("liquibase.iq");
+
+        getContainer().addProperty(LOAD_DATA_MODE, String.class)
+                .setDescription("How loadData is executed on SAP IQ: DEFAULT, LOAD_TABLE or BATCH")
+                .setDefaultValue(LoadDataMode.DEFAULT.name());
+
+        getContainer().addProperty(LOAD_TABLE_SERVER_FILE, Boolean.class)
+                .setDescription("If true, LOAD TABLE reads the CSV path on the IQ server instead of USING CLIENT FILE")
+                .setDefaultValue(false);
+
+        getContainer().addProperty(LOAD_TABLE_NULL_MARKER, String.class)
+                .setDescription("Field value LOAD TABLE treats as NULL")
+                .setDefaultValue("NULL");
+
+        getContainer().addProperty(LOAD_TABLE_DATE_FORMAT, String.class)
+                .setDescription("IQ input format used for date columns in LOAD TABLE, e.g. YYYY-MM-DD HH:NN:SS")
+                .setDefaultValue(null);
+
+        getContainer().addProperty(LOAD_TABLE_ROW_DELIMITER, String.class)
+                .setDescription("Row delimiter of loadData CSV files as written in the LOAD TABLE statement")
+                .setDefaultValue("\\x0a");
+
+        getContainer().addProperty(BATCH_SIZE, Integer.class)
+                .setDescription("Number of rows sent per JDBC batch by BATCH loadData")
+                .setDefaultValue(1000);
+
+        getContainer().addProperty(ADDITIONAL_CONNECTION_PASSWORD, String.class)
+                .setDescription("Password used when the extension opens additional connections with the user of the main connection")
+                .setDefaultValue(null);
+
+        getContainer().addProperty(PARALLEL_INDEX_BUILDS, Integer.class)
+                .setDescription("Maximum number of consecutive createIndex changes of one changeset on one table built together in a BEGIN PARALLEL IQ block; 1 disables parallel builds")
+                .setDefaultValue(1);
+
+        getContainer().addProperty(SNAPSHOT_CONNECTIONS, Integer.class)
+                .setDescription("Number of additional connections used to read the catalog of snapshotted schemas in parallel; 0 reads it on the main connection")
+                .setDefaultValue(0);
+
+        getContainer().addProperty(SNAPSHOT_SCHEMAS, String.class)
+                .setDescription("Comma separated schemas whose catalog is read in parallel as soon as a snapshot starts; by default each schema is read when it is snapshotted")
+                .setDefaultValue(null);
+
+        getContainer().addProperty(CHANGELOG_TABLE_STORE, String.class)
+                .setDescription("Where a new DATABASECHANGELOG table is created: COLUMN, CATALOG or RLV")
+                .setDefaultValue(ChangeLogTableStore.CATALOG.name());
+
+        getContainer().addProperty(LOCK_LEASE_SECONDS, Integer.class)
+                .setDescription("Seconds after the last renewal at which a changelog lock held by another process is taken over; 0 keeps locks until released")
+                .setDefaultValue(300);
+
+        getContainer().addProperty(LOCK_BACKOFF_MILLIS, Integer.class)
+                .setDescription("First wait before retrying a changelog lock held by another process; doubled on each attempt up to liquibase.changeLogLockPollRate")
+                .setDefaultValue(250);
+
+        getContainer().addProperty(LOCK_SCOPE, String.class)
+                .setDescription("GLOBAL locks all changelogs with one DATABASECHANGELOGLOCK row; SCHEMA locks one row per default schema or lock key, so changelogs of different schemas can run at the same time. All processes sharing the lock table must use the same scope")
+                .setDefaultValue(LockScope.GLOBAL.name());
+
+        getContainer().addProperty(LOCK_KEY, String.class)
+                .setDescription("Name locked instead of the default schema when lockScope is SCHEMA")
+                .setDefaultValue(null);
+
+        getContainer().addProperty(DEFER_HISTORY_WRITES, Boolean.class)
+                .setDescription("If true, DATABASECHANGELOG rows are written in one batch when the transaction is committed instead of one insert and commit per changeset")
+                .setDefaultValue(false);
+
+        getContainer().addProperty(GROUP_COMMIT_SIZE, Integer.class)
+                .setDescription("Maximum number of consecutive changesets made only of INSERT, UPDATE and DELETE statements that are committed together; 0 commits every changeset")
+                .setDefaultValue(0);
+
+        getContainer().addProperty(SNAPSHOT_CACHE_DIRECTORY, String.class)
+                .setDescription("Directory keeping catalog rows of snapshotted schemas between runs, so later snapshots only read tables changed since; not set disables the cache")
+                .setDefaultValue(null);
+
+        getContainer().addProperty(SNAPSHOT_CACHE_MAX_ROWS, Integer.class)
+                .setDescription("Maximum number of catalog rows kept in memory during a snapshot; least recently used query results are dropped and read again when needed. 0 keeps all rows")
+                .setDefaultValue(0);
+
+        getContainer().addProperty(SNAPSHOT_INCLUDE_OBJECTS, String.class)
+                .setDescription("Objects to snapshot, in the syntax of --includeObjects; table, sequence and schema items are applied to the catalog queries")
+                .setDefaultValue(null);
+
+        getContainer().addProperty(SNAPSHOT_EXCLUDE_OBJECTS, String.class)
+                .setDescription("Objects not to snapshot, in the syntax of --excludeObjects; table, sequence and schema items are applied to the catalog queries")
+                .setDefaultValue(null);
+
+        getContainer().addProperty(CONNECTION_PREFETCH, Boolean.class)
+                .setDescription("Whether the tables, columns and indexes of the default and Liquibase schemas are read on an additional connection as soon as a connection is set, while the changelog is parsed")
+                .setDefaultValue(false);
+    }
+
+    public static IQConfiguration getInstance() {
+        return LiquibaseConfiguration.getInstance().getConfiguration(IQConfiguration.class);
+    }
+
+    public LoadDataMode getLoadDataMode() {
+        String mode = getContainer().getValue(LOAD_DATA_MODE, String.class);
+        if (mode == null) {
+            return LoadDataMode.DEFAULT;
+        }
+        return LoadDataMode.valueOf(mode.trim().toUpperCase());
+    }
+
+    public IQConfiguration setLoadDataMode(LoadDataMode mode) {
+        getContainer().setValue(LOAD_DATA_MODE, mode.name());
+        return this;
+    }
+
+    public boolean getLoadTableServerFile() {
+        return getContainer().getValue(LOAD_TABLE_SERVER_FILE, Boolean.class);
+    }
+
+    public String getLoadTableNullMarker() {
+        return getContainer().getValue(LOAD_TABLE_NULL_MARKER, String.class);
+    }
+
+    public String getLoadTableDateFormat() {
+        return getContainer().getValue(LOAD_TABLE_DATE_FORMAT, String.class);
+    }
+
+    public String getLoadTableRowDelimiter() {
+        return getContainer().getValue(LOAD_TABLE_ROW_DELIMITER, String.class);
+    }
+
+    public int getBatchSize() {
+        return getContainer().getValue(BATCH_SIZE, Integer.class);
+    }
+
+    public String getAdditionalConnectionPassword() {
+        return getContainer().getValue(ADDITIONAL_CONNECTION_PASSWORD, String.class);
+    }
+
+    public int getParallelIndexBuilds() {
+        return getContainer().getValue(PARALLEL_INDEX_BUILDS, Integer.class);
+    }
+
+    public int getSnapshotConnections() {
+        return getContainer().getValue(SNAPSHOT_CONNECTIONS, Integer.class);
+    }
+
+    public String getSnapshotSchemas() {
+        return getContainer().getValue(SNAPSHOT_SCHEMAS, String.class);
+    }
+
+    public ChangeLogTableStore getChangeLogTableStore() {
+        String store = getContainer().getValue(CHANGELOG_TABLE_STORE, String.class);
+        if (store == null || store.trim().isEmpty()) {
+            return ChangeLogTableStore.CATALOG;
+        }
+        return ChangeLogTableStore.valueOf(store.trim().toUpperCase());
+    }
+
+    public int getLockLeaseSeconds() {
+        return getContainer().getValue(LOCK_LEASE_SECONDS, Integer.class);
+    }
+
+    public int getLockBackoffMillis() {
+        return getContainer().getValue(LOCK_BACKOFF_MILLIS, Integer.class);
+    }
+
+    public LockScope getLockScope() {
+        String scope = getContainer().getValue(LOCK_SCOPE, String.class);
+        if (scope == null) {
+            return LockScope.GLOBAL;
+        }
+        return LockScope.valueOf(scope.trim().toUpperCase());
+    }
+
+    public String getLockKey() {
+        return getContainer().getValue(LOCK_KEY, String.class);
+    }
+
+    public boolean getDeferHistoryWrites() {
+        return getContainer().getValue(DEFER_HISTORY_WRITES, Boolean.class);
+    }
+
+    public int getGroupCommitSize() {
+        return getContainer().getValue(GROUP_COMMIT_SIZE, Integer.class);
+    }
+
+    public String getSnapshotCacheDirectory() {
+        return getContainer().getValue(SNAPSHOT_CACHE_DIRECTORY, String.class);
+    }
+
+    public int getSnapshotCacheMaxRows() {
+        return getContainer().getValue(SNAPSHOT_CACHE_MAX_ROWS, Integer.class);
+    }
+
+    public String getSnapshotIncludeObjects() {
+        return getContainer().getValue(SNAPSHOT_INCLUDE_OBJECTS, String.class);
+    }
+
+    public String getSnapshotExcludeObjects() {
+        return getContainer().getValue(SNAPSHOT_EXCLUDE_OBJECTS, String.class);
+    }
+
+    public boolean getConnectionPrefetch() {
+        return getContainer().getValue(CONNECTION_PREFETCH, Boolean.class);
+    }
+}
@@ -0,0 +1,72 @@
+package liquibase.ext.iq.database;
+
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+
+/**
+ * Immutable set of names that ignores case on lookup. Backed by an open addressing table that hashes the upper-cased
+ * characters in place, so {@link #contains(Object)} neither allocates nor copies the name.
+ */
+final class CaseInsensitiveNameSet extends AbstractSet<String> {
+
+    private final String[] names;
+    private final String[] table;
+    private final int mask;
+
+    CaseInsensitiveNameSet(Collection<String> names) {
+        int capacity = Integer.highestOneBit(Math.max(names.size(), 1) * 4 - 1) << 1;
+        this.table = new String[capacity];
+        this.mask = capacity - 1;
+
+        String[] distinct = new String[names.size()];
+        int size = 0;
+        for (String name : names) {
+            int slot = hash(name) & mask;
+            while (table[slot] != null && !table[slot].equalsIgnoreCase(name)) {
+                slot = (slot + 1) & mask;
+            }
+            if (table[slot] == null) {
+                table[slot] = name;
+                distinct[size++] = name;
+            }
+        }
+        this.names = Arrays.copyOf(distinct, size);
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        if (!(o instanceof String)) {
+            return false;
+        }
+        String name = (String) o;
+        int slot = hash(name) & mask;
+        String candidate;
+        while ((candidate = table[slot]) != null) {
+            if (candidate.equalsIgnoreCase(name)) {
+                return true;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return false;
+    }
+
+    @Override
+    public Iterator<String> iterator() {
+        return Arrays.asList(names).iterator();
+    }
+
+    @Override
+    public int size() {
+        return names.length;
+    }
+
+    private static int hash(String name) {
+        int hash = 0;
+        for (int i = 0; i < name.length(); i++) {
+            hash = 31 * hash + Character.toUpperCase(name.charAt(i));
+        }
+        return hash ^ (hash >>> 16);
+    }
+}
@@ -0,0 +1,299 @@
+package liquibase.ext.iq.database;
+
+import liquibase.database.Database;
+import liquibase.database.jvm.JdbcConnection;
+import liquibase.exception.DatabaseException;
+import liquibase.sqlgenerator.SqlGeneratorFactory;
+import liquibase.statement.SqlStatement;
+import liquibase.structure.DatabaseObject;
+import liquibase.structure.core.Column;
+import liquibase.structure.core.ForeignKey;
+import liquibase.structure.core.Index;
+import liquibase.structure.core.Relation;
+import liquibase.structure.core.Schema;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Answers the existence checks of preconditions with parameterized queries on the SYS catalog views instead of a
+ * snapshot. Everything a check needs about a table is read in one round trip and kept by {@link IQDatabase} until
+ * the connection changes or a statement executed through {@link IQDatabase#execute} touches the table. Statements
+ * whose affected objects are unknown, such as raw SQL other than INSERT, UPDATE and DELETE, clear all entries.
+ * <p>
+ * Tables and indexes are matched as the IQ snapshot generators see them: base tables only, and all indexes except
+ * the default FP indexes. Names are passed as given and compared case-insensitively, as IQ identifiers are, so
+ * the checks do not depend on the <code>CASE</code> option of the database.
+ */
+public final class IQCatalogLookup {
+
+    private static final String TABLE_QUERY = "SELECT 'T' AS KIND, t.table_name AS NAME, "
+            + "CAST(NULL AS VARCHAR(128)) AS COLUMN_NAME, 0 AS SEQ "
+            + "FROM SYS.SYSTAB t JOIN SYS.SYSUSER u ON u.user_id = t.creator "
+            + "WHERE t.table_type_str = 'BASE' AND UPPER(u.user_name) = UPPER(?) AND UPPER(t.table_name) = UPPER(?) "
+            + "UNION ALL "
+            + "SELECT 'C', c.column_name, NULL, c.column_id "
+            + "FROM SYS.SYSTABCOL c JOIN SYS.SYSTAB t ON t.table_id = c.table_id "
+            + "JOIN SYS.SYSUSER u ON u.user_id = t.creator "
+            + "WHERE UPPER(u.user_name) = UPPER(?) AND UPPER(t.table_name) = UPPER(?) "
+            + "UNION ALL "
+            + "SELECT 'I', i.index_name, c.column_name, ic.sequence "
+            + "FROM SYS.SYSIDX i "
+            + "JOIN SYS.SYSIQIDX q ON q.table_id = i.table_id AND q.index_id = i.index_id "
+            + "JOIN SYS.SYSTAB t ON t.table_id = i.table_id "
+            + "JOIN SYS.SYSUSER u ON u.user_id = t.creator "
+            + "JOIN SYS.SYSIDXCOL ic ON ic.table_id = i.table_id AND ic.index_id = i.index_id "
+            + "JOIN SYS.SYSTABCOL c ON c.table_id = ic.table_id AND c.column_id = ic.column_id "
+            + "WHERE q.index_type <> 'FP' AND UPPER(u.user_name) = UPPER(?) AND UPPER(t.table_name) = UPPER(?) "
+            + "UNION ALL "
+            // SYSIDX.index_category 2 = foreign key
+            + "SELECT 'F', i.index_name, NULL, 0 "
+            + "FROM SYS.SYSIDX i JOIN SYS.SYSTAB t ON t.table_id = i.table_id "
+            + "JOIN SYS.SYSUSER u ON u.user_id = t.creator "
+            + "WHERE i.index_category = 2 AND UPPER(u.user_name) = UPPER(?) AND UPPER(t.table_name) = UPPER(?) "
+            + "ORDER BY 1, 2, 4";
+
+    private static final String INDEX_QUERY = "SELECT COUNT(*) FROM SYS.SYSIDX i "
+            + "JOIN SYS.SYSIQIDX q ON q.table_id = i.table_id AND q.index_id = i.index_id "
+            + "JOIN SYS.SYSTAB t ON t.table_id = i.table_id "
+            + "JOIN SYS.SYSUSER u ON u.user_id = t.creator "
+            + "WHERE q.index_type <> 'FP' AND UPPER(u.user_name) = UPPER(?) AND UPPER(i.index_name) = UPPER(?)";
+
+    private static final String FOREIGN_KEY_QUERY = "SELECT COUNT(*) FROM SYS.SYSIDX i "
+            + "JOIN SYS.SYSTAB t ON t.table_id = i.table_id "
+            + "JOIN SYS.SYSUSER u ON u.user_id = t.creator "
+            + "WHERE i.index_category = 2 AND UPPER(u.user_name) = UPPER(?) AND UPPER(i.index_name) = UPPER(?)";
+
+    private final IQDatabase database;
+    private final Map<String, SchemaEntry> schemas = new HashMap<>();
+
+    IQCatalogLookup(IQDatabase database) {
+        this.database = database;
+    }
+
+    /**
+     * The lookup of the database, or null if it is not an IQ database with a JDBC connection.
+     */
+    public static IQCatalogLookup forDatabase(Database database) {
+        if (!(database instanceof IQDatabase) || !(database.getConnection() instanceof JdbcConnection)) {
+            return null;
+        }
+        return ((IQDatabase) database).getCatalogLookup();
+    }
+
+    public boolean tableExists(String schemaName, String tableName) throws DatabaseException {
+        return getTable(schemaName, tableName).exists;
+    }
+
+    public boolean columnExists(String schemaName, String tableName, String columnName) throws DatabaseException {
+        TableEntry table = getTable(schemaName, tableName);
+        return table.exists && table.columns.contains(columnName);
+    }
+
+    /**
+     * Whether the index exists. Without index name, whether an index of the table has exactly the given columns;
+     * without table name, whether an index of that name exists in the schema.
+     */
+    public boolean indexExists(String schemaName, String tableName, String indexName, List<String> columnNames)
+            throws DatabaseException {
+        if (tableName == null) {
+            return indexName != null && countByName(schemaName, indexName, INDEX_QUERY, false) > 0;
+        }
+        TableEntry table = getTable(schemaName, tableName);
+        if (!table.exists) {
+            return false;
+        }
+        for (Map.Entry<String, List<String>> index : table.indexes.entrySet()) {
+            if (indexName != null ? index.getKey().equalsIgnoreCase(indexName)
+                    : columnNames != null && sameColumns(index.getValue(), columnNames)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Whether the foreign key exists, on the given table if there is one.
+     */
+    public boolean foreignKeyExists(String schemaName, String tableName, String foreignKeyName)
+            throws DatabaseException {
+        if (tableName == null) {
+            return countByName(schemaName, foreignKeyName, FOREIGN_KEY_QUERY, true) > 0;
+        }
+        TableEntry table = getTable(schemaName, tableName);
+        return table.exists && table.foreignKeys.contains(foreignKeyName);
+    }
+
+    /**
+     * Drops the entries of the objects the statement changes, or all entries if they are not known.
+     */
+    public synchronized void invalidate(SqlStatement statement) {
+        if (schemas.isEmpty()) {
+            return;
+        }
+        Set<DatabaseObject> affected;
+        try {
+            affected = SqlGeneratorFactory.getInstance().getAffectedDatabaseObjects(statement, database);
+        } catch (RuntimeException e) {
+            affected = null;
+        }
+        if (affected == null || affected.isEmpty()) {
+            clear();
+            return;
+        }
+        for (DatabaseObject object : affected) {
+            Relation relation = null;
+            if (object instanceof Relation) {
+                relation = (Relation) object;
+            } else if (object instanceof Column) {
+                relation = ((Column) object).getRelation();
+            } else if (object instanceof Index) {
+                relation = ((Index) object).getRelation();
+            } else if (object instanceof ForeignKey) {
+                relation = ((ForeignKey) object).getForeignKeyTable();
+            }
+            if (relation == null || relation.getName() == null) {
+                clear();
+                return;
+            }
+            Schema relationSchema = relation.getSchema();
+            String schemaName = relationSchema == null ? null : relationSchema.getName();
+            SchemaEntry schema = schemas.get(key(getSchemaName(schemaName)));
+            if (schema != null) {
+                schema.tables.remove(key(relation.getName()));
+                schema.indexNames.clear();
+                schema.foreignKeyNames.clear();
+            }
+        }
+    }
+
+    public synchronized void clear() {
+        schemas.clear();
+    }
+
+    private synchronized TableEntry getTable(String schemaName, String tableName) throws DatabaseException {
+        String schema = getSchemaName(schemaName);
+        SchemaEntry entry = getSchema(schema);
+        TableEntry cached = entry.tables.get(key(tableName));
+        if (cached == null) {
+            cached = readTable(schema, tableName);
+            entry.tables.put(key(tableName), cached);
+        }
+        return cached;
+    }
+
+    private synchronized int countByName(String schemaName, String name, String sql, boolean foreignKey)
+            throws DatabaseException {
+        String schema = getSchemaName(schemaName);
+        SchemaEntry entry = getSchema(schema);
+        Map<String, Integer> names = foreignKey ? entry.foreignKeyNames : entry.indexNames;
+        Integer count = names.get(key(name));
+        if (count == null) {
+            try (PreparedStatement statement = getConnection().prepareStatement(sql)) {
+                statement.setString(1, schema);
+                statement.setString(2, name);
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    count = resultSet.next() ? resultSet.getInt(1) : 0;
+                }
+            } catch (SQLException e) {
+                throw new DatabaseException("Error looking up " + name + " in schema " + schema + ": "
+                        + e.getMessage(), e);
+            }
+            names.put(key(name), count);
+        }
+        return count;
+    }
+
+    private TableEntry readTable(String schemaName, String tableName) throws DatabaseException {
+        boolean exists = false;
+        List<String> columns = new ArrayList<>();
+        Map<String, List<String>> indexes = new LinkedHashMap<>();
+        List<String> foreignKeys = new ArrayList<>();
+        try (PreparedStatement statement = getConnection().prepareStatement(TABLE_QUERY)) {
+            for (int i = 1; i <= 8; i += 2) {
+                statement.setString(i, schemaName);
+                statement.setString(i + 1, tableName);
+            }
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    String name = resultSet.getString("NAME");
+                    switch (resultSet.getString("KIND")) {
+                        case "T":
+                            exists = true;
+                            break;
+                        case "C":
+                            columns.add(name);
+                            break;
+                        case "I":
+                            indexes.computeIfAbsent(name, key -> new ArrayList<>())
+                                    .add(resultSet.getString("COLUMN_NAME"));
+                            break;
+                        default:
+                            foreignKeys.add(name);
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            throw new DatabaseException("Error looking up table " + tableName + " in schema " + schemaName + ": "
+                    + e.getMessage(), e);
+        }
+        return new TableEntry(exists, new CaseInsensitiveNameSet(columns), indexes,
+                new CaseInsensitiveNameSet(foreignKeys));
+    }
+
+    private SchemaEntry getSchema(String schemaName) {
+        return schemas.computeIfAbsent(key(schemaName), key -> new SchemaEntry());
+    }
+
+    private String getSchemaName(String schemaName) {
+        return schemaName == null ? database.getDefaultSchemaName() : schemaName;
+    }
+
+    private JdbcConnection getConnection() {
+        return (JdbcConnection) database.getConnection();
+    }
+
+    private static boolean sameColumns(List<String> indexColumns, List<String> columnNames) {
+        if (indexColumns.size() != columnNames.size()) {
+            return false;
+        }
+        for (int i = 0; i < indexColumns.size(); i++) {
+            if (!indexColumns.get(i).equalsIgnoreCase(columnNames.get(i).trim())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String key(String name) {
+        return name == null ? "" : name.toUpperCase(Locale.US);
+    }
+
+    private static final class SchemaEntry {
+        final Map<String, TableEntry> tables = new HashMap<>();
+        final Map<String, Integer> indexNames = new HashMap<>();
+        final Map<String, Integer> foreignKeyNames = new HashMap<>();
+    }
+
+    private static final class TableEntry {
+        final boolean exists;
+        final Set<String> columns;
+        final Map<String, List<String>> indexes;
+        final Set<String> foreignKeys;
+
+        TableEntry(boolean exists, Set<String> columns, Map<String, List<String>> indexes, Set<String> foreignKeys) {
+            this.exists = exists;
+            this.columns = columns;
+            this.indexes = indexes;
+            this.foreignKeys = foreignKeys;
+        }
+    }
+}
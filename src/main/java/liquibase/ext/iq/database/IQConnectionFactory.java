@@ -0,0 +1,58 @@
+package liquibase.ext.iq.database;
+
+import liquibase.database.DatabaseConnection;
+import liquibase.database.jvm.JdbcConnection;
+import liquibase.ext.iq.configuration.IQConfiguration;
+
+import java.sql.Connection;
+import java.sql.Driver;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.Properties;
+
+/**
+ * Opens additional JDBC connections to the server an {@link IQDatabase} is connected to, for work that runs next to
+ * the main Liquibase connection (parallel snapshots, prefetching, the lock heartbeat).
+ * <p>
+ * The default implementation reuses the URL and user of the main connection. As the password of the main connection
+ * cannot be read back from JDBC, it is taken from <code>liquibase.iq.additionalConnectionPassword</code> unless the
+ * URL carries it. Applications that manage their own connections can plug in a subclass with
+ * {@link IQDatabase#setConnectionFactory(IQConnectionFactory)}.
+ */
+public class IQConnectionFactory {
+
+    /**
+     * Returns a new connection, or null if the database has no JDBC connection to copy settings from.
+     */
+    public Connection openConnection(IQDatabase database) throws SQLException {
+        DatabaseConnection databaseConnection = database.getConnection();
+        if (!(databaseConnection instanceof JdbcConnection)) {
+            return null;
+        }
+        JdbcConnection jdbcConnection = (JdbcConnection) databaseConnection;
+        String url = jdbcConnection.getURL();
+
+        Properties info = new Properties();
+        String user = jdbcConnection.getConnectionUserName();
+        if (user != null) {
+            info.setProperty("user", user);
+        }
+        String password = IQConfiguration.getInstance().getAdditionalConnectionPassword();
+        if (password != null) {
+            info.setProperty("password", password);
+        }
+
+        String driverClass = database.getDefaultDriver(url);
+        if (driverClass == null) {
+            return DriverManager.getConnection(url, info);
+        }
+        Connection underlying = jdbcConnection.getUnderlyingConnection();
+        try {
+            Driver driver = (Driver) Class.forName(driverClass, true,
+                    underlying.getClass().getClassLoader()).getDeclaredConstructor().newInstance();
+            return driver.connect(url, info);
+        } catch (ReflectiveOperationException e) {
+            throw new SQLException("Cannot load JDBC driver for " + url, e);
+        }
+    }
+}
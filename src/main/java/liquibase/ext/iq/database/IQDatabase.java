@@ -2,37 +2,96 @@ package liquibase.ext.iq.database;
 
 import liquibase.CatalogAndSchema;
 import liquibase.Scope;
+import liquibase.changelog.ChangeLogHistoryServiceFactory;
 import liquibase.database.AbstractJdbcDatabase;
 import liquibase.database.ObjectQuotingStrategy;
 import liquibase.statement.DatabaseFunction;
 import liquibase.database.DatabaseConnection;
 import liquibase.database.jvm.JdbcConnection;
 import liquibase.exception.DatabaseException;
+import liquibase.exception.LiquibaseException;
+import liquibase.exception.LockException;
+import liquibase.executor.Executor;
+import liquibase.executor.ExecutorService;
+import liquibase.executor.jvm.JdbcExecutor;
+import liquibase.ext.iq.configuration.IQConfiguration;
+import liquibase.ext.iq.precondition.IQPreconditions;
+import liquibase.ext.iq.snapshot.IQSnapshotPrefetcher;
+import liquibase.ext.iq.statement.IQParallelCreateIndexStatement;
+import liquibase.lockservice.LockServiceFactory;
 import liquibase.logging.LogFactory;
 import liquibase.logging.Logger;
+import liquibase.snapshot.IQResultSetCache;
+import liquibase.sql.Sql;
+import liquibase.sql.visitor.SqlVisitor;
+import liquibase.sqlgenerator.SqlGeneratorFactory;
+import liquibase.statement.ExecutablePreparedStatement;
+import liquibase.statement.SqlStatement;
+import liquibase.statement.core.ClearDatabaseChangeLogTableStatement;
+import liquibase.statement.core.DeleteStatement;
+import liquibase.statement.core.InsertSetStatement;
+import liquibase.statement.core.InitializeDatabaseChangeLogLockTableStatement;
+import liquibase.statement.core.InsertStatement;
+import liquibase.statement.core.MarkChangeSetRanStatement;
+import liquibase.statement.core.RawSqlStatement;
+import liquibase.statement.core.RemoveChangeSetRanStatusStatement;
+import liquibase.statement.core.TagDatabaseStatement;
+import liquibase.statement.core.UpdateChangeSetChecksumStatement;
+import liquibase.statement.core.UpdateStatement;
 import liquibase.structure.DatabaseObject;
+import liquibase.util.StringUtil;
 
 import java.math.BigInteger;
-import java.sql.ResultSet;
+import java.sql.Connection;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.EnumMap;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class IQDatabase extends AbstractJdbcDatabase {
 
     public static final String PRODUCT_NAME = "SAP IQ";
-    private Set<String> systemTables = new HashSet<>();
-    private Set<String> systemViews = new HashSet<>();
+
+    /*
+     * Built once per class loader: DatabaseFactory instantiates every database implementation while looking for the
+     * one matching a connection, and reserved-word checks run for every identifier that is escaped.
+     */
+    private static final Set<String> RESERVED_WORDS = new CaseInsensitiveNameSet(getDefaultReservedWords());
+    private static final Set<String> SYSTEM_TABLES = new CaseInsensitiveNameSet(getDefaultSystemTables());
+    private static final Set<String> SYSTEM_VIEWS = new CaseInsensitiveNameSet(getDefaultSystemViews());
+
+    /**
+     * Maximum number of names kept per object type and quoting strategy in the identifier caches. A full cache is
+     * cleared rather than evicted entry by entry; a changelog rarely uses more distinct names than this.
+     */
+    private static final int IDENTIFIER_CACHE_SIZE = 4096;
+
+    private IQConnectionFactory connectionFactory = new IQConnectionFactory();
+    private final Map<ObjectQuotingStrategy, Map<Class<?>, Map<String, String>>> escapedNames =
+            new EnumMap<>(ObjectQuotingStrategy.class);
+    private final Map<String, String> upperCaseNames = new ConcurrentHashMap<>();
+    private volatile IQSessionInfo sessionInfo;
+    private final IQCatalogLookup catalogLookup = new IQCatalogLookup(this);
+    private IQResultSetCache connectionCache;
+    private IQTransactionListener transactionListener;
+    private boolean groupOpen;
+    private boolean transactionGroupable = true;
+    private final List<String> parallelIndexSql = new ArrayList<>();
+    private volatile String changeLogLockLost;
 
     public IQDatabase() {
         setCurrentDateTimeFunction("CURRENT_TIMESTAMP");
         setObjectQuotingStrategy(ObjectQuotingStrategy.QUOTE_ONLY_RESERVED_WORDS);
 
         super.unquotedObjectsAreUppercased = false;
-        super.addReservedWords(getDefaultReservedWords());
 
-        this.systemViews = getDefaultSystemViews();
-        this.systemTables = getDefaultSystemTables();
+        for (ObjectQuotingStrategy strategy : ObjectQuotingStrategy.values()) {
+            escapedNames.put(strategy, new ConcurrentHashMap<>());
+        }
     }
 
     @Override
@@ -52,12 +111,38 @@ public class IQDatabase extends AbstractJdbcDatabase {
 
     @Override
     public Set<String> getSystemTables() {
-        return systemTables;
+        return SYSTEM_TABLES;
     }
 
     @Override
     public Set<String> getSystemViews() {
-        return systemViews;
+        return SYSTEM_VIEWS;
+    }
+
+    @Override
+    public boolean isReservedWord(String string) {
+        return RESERVED_WORDS.contains(string);
+    }
+
+    /**
+     * Escaping depends only on the name, the object type, the quoting strategy and the reserved words, which are
+     * shared by all instances, so results are cached per database instance. This spares the reserved-word lookup,
+     * the pattern match and the string copies core does for every reference to the same table or column in a large
+     * changelog.
+     */
+    @Override
+    public String escapeObjectName(String objectName, Class<? extends DatabaseObject> objectType) {
+        Map<Class<?>, Map<String, String>> namesByType = escapedNames.get(getObjectQuotingStrategy());
+        if (objectName == null || objectType == null || namesByType == null) {
+            return super.escapeObjectName(objectName, objectType);
+        }
+        Map<String, String> names = namesByType.computeIfAbsent(objectType, type -> new ConcurrentHashMap<>());
+        String escaped = names.get(objectName);
+        if (escaped == null) {
+            escaped = super.escapeObjectName(objectName, objectType);
+            cache(names, objectName, escaped);
+        }
+        return escaped;
     }
 
     @Override
@@ -72,7 +157,7 @@ public class IQDatabase extends AbstractJdbcDatabase {
 
     @Override
     public boolean supportsDropTableCascadeConstraints() {
-        return true;
+        return false;
     }
 
     @Override
@@ -90,22 +175,22 @@ public class IQDatabase extends AbstractJdbcDatabase {
 
     @Override
     public String getDefaultCatalogName() {
-        return super.getDefaultCatalogName() == null ? null : super.getDefaultCatalogName().toUpperCase();
+        return toUpperCase(super.getDefaultCatalogName());
     }
 
     @Override
     public String getDefaultSchemaName() {
-        return super.getDefaultSchemaName() == null ? null : super.getDefaultSchemaName().toUpperCase();
+        return toUpperCase(super.getDefaultSchemaName());
     }
 
     @Override
     public String getJdbcCatalogName(final CatalogAndSchema schema) {
-        return super.getJdbcCatalogName(schema) == null ? null : super.getJdbcCatalogName(schema).toUpperCase();
+        return toUpperCase(super.getJdbcCatalogName(schema));
     }
 
     @Override
     public String getJdbcSchemaName(final CatalogAndSchema schema) {
-        return super.getJdbcSchemaName(schema) == null ? null : super.getJdbcSchemaName(schema).toUpperCase();
+        return toUpperCase(super.getJdbcSchemaName(schema));
     }
 
     @Override
@@ -125,12 +210,12 @@ public class IQDatabase extends AbstractJdbcDatabase {
 
     @Override
     public String getDatabaseChangeLogTableName() {
-        return super.getDatabaseChangeLogTableName().toUpperCase();
+        return toUpperCase(super.getDatabaseChangeLogTableName());
     }
 
     @Override
     public String getDatabaseChangeLogLockTableName() {
-        return super.getDatabaseChangeLogLockTableName().toUpperCase();
+        return toUpperCase(super.getDatabaseChangeLogLockTableName());
     }
 
     @Override
@@ -176,28 +261,392 @@ public class IQDatabase extends AbstractJdbcDatabase {
     }
 
     @Override
-    protected String getConnectionSchemaName() {
+    public void setConnection(DatabaseConnection conn) {
+        sessionInfo = null;
+        parallelIndexSql.clear();
+        catalogLookup.clear();
+        discardConnectionCache();
+        super.setConnection(conn);
+        if (conn instanceof JdbcConnection) {
+            IQPreconditions.register();
+            getSessionInfo();
+            if (IQConfiguration.getInstance().getConnectionPrefetch()) {
+                IQResultSetCache cache = IQSnapshotPrefetcher.prefetchConnection(this);
+                synchronized (this) {
+                    connectionCache = cache;
+                }
+            }
+        }
+    }
+
+    @Override
+    public void setDefaultSchemaName(String schemaName) {
+        super.setDefaultSchemaName(schemaName);
+        invalidateSessionInfo();
+    }
+
+    @Override
+    public void execute(SqlStatement[] statements, List<SqlVisitor> sqlVisitors) throws LiquibaseException {
+        String lockLost = changeLogLockLost;
+        if (lockLost != null) {
+            throw new LockException(lockLost);
+        }
+        boolean parallelIndex = statements.length == 1 && statements[0] instanceof IQParallelCreateIndexStatement
+                && getJdbcExecutor() != null;
+        if (!parallelIndex) {
+            executeParallelIndexes();
+        }
+        boolean groupable = IQConfiguration.getInstance().getGroupCommitSize() > 0;
+        for (SqlStatement statement : statements) {
+            groupable &= isGroupable(statement);
+        }
+        if (!groupable) {
+            commitPendingWork();
+            transactionGroupable = false;
+        }
+        try {
+            if (parallelIndex) {
+                addParallelIndex((IQParallelCreateIndexStatement) statements[0], sqlVisitors);
+            } else {
+                super.execute(statements, sqlVisitors);
+            }
+            groupOpen |= groupable;
+        } finally {
+            for (SqlStatement statement : statements) {
+                if (statement instanceof RawSqlStatement && changesSession(((RawSqlStatement) statement).getSql())) {
+                    invalidateSessionInfo();
+                }
+            }
+        }
+    }
+
+    /**
+     * Drops the cached catalog lookups and prefetched catalog rows the statement may have made stale. Statements
+     * that only write rows keep them. Called by the IQ executor for every statement it runs, whether it comes from
+     * {@link #execute} or from the lock and history services, so nothing is invalidated for SQL that is only logged.
+     */
+    public void invalidateCatalog(SqlStatement statement) {
+        if (!writesRowsOnly(statement)) {
+            catalogLookup.invalidate(statement);
+            discardConnectionCache();
+        }
+    }
+
+    /**
+     * Holds back the CREATE INDEX of a parallel index build until the last statement of its run arrives, then builds
+     * all of them in one <code>BEGIN PARALLEL IQ</code> block on this connection.
+     */
+    private void addParallelIndex(IQParallelCreateIndexStatement statement, List<SqlVisitor> sqlVisitors)
+            throws LiquibaseException {
+        for (Sql sql : SqlGeneratorFactory.getInstance().generateSql(statement, this)) {
+            String text = sql.toSql();
+            if (sqlVisitors != null) {
+                for (SqlVisitor visitor : sqlVisitors) {
+                    text = visitor.modifySql(text, this);
+                }
+            }
+            parallelIndexSql.add(text);
+        }
+        if (statement.isLastOfRun()) {
+            executeParallelIndexes();
+        }
+    }
+
+    /**
+     * Executes the CREATE INDEX statements held back for a parallel index build, if any.
+     */
+    private void executeParallelIndexes() throws DatabaseException {
+        if (parallelIndexSql.isEmpty()) {
+            return;
+        }
+        StringBuilder block = new StringBuilder();
+        if (parallelIndexSql.size() > 1) {
+            block.append("BEGIN PARALLEL IQ\n");
+        }
+        for (String sql : parallelIndexSql) {
+            block.append(sql).append(parallelIndexSql.size() > 1 ? ";\n" : "");
+        }
+        if (parallelIndexSql.size() > 1) {
+            block.append("END PARALLEL IQ");
+        }
+        parallelIndexSql.clear();
+        getJdbcExecutor().execute(new RawSqlStatement(block.toString()));
+    }
+
+    private JdbcExecutor getJdbcExecutor() {
+        Executor executor = Scope.getCurrentScope().getSingleton(ExecutorService.class).getExecutor("jdbc", this);
+        return executor instanceof JdbcExecutor ? (JdbcExecutor) executor : null;
+    }
+
+    /**
+     * Drops the objects of the schema from one catalog query with batched DROP statements (see
+     * {@link IQSchemaDropper}) instead of a snapshot and one round trip per object. Falls back to liquibase-core
+     * when SQL is not executed on a JDBC connection.
+     */
+    @Override
+    public void dropDatabaseObjects(CatalogAndSchema schemaToDrop) throws LiquibaseException {
+        Executor executor = Scope.getCurrentScope().getSingleton(ExecutorService.class).getExecutor("jdbc", this);
+        if (!(getConnection() instanceof JdbcConnection) || !(executor instanceof JdbcExecutor)) {
+            super.dropDatabaseObjects(schemaToDrop);
+            return;
+        }
+
+        ObjectQuotingStrategy currentStrategy = getObjectQuotingStrategy();
+        setObjectQuotingStrategy(ObjectQuotingStrategy.QUOTE_ALL_OBJECTS);
+        try {
+            CatalogAndSchema schema = schemaToDrop.customize(this);
+            IQSchemaDropper.dropAll(this, schema.getSchemaName() == null ? getDefaultSchemaName()
+                    : schema.getSchemaName());
+            ChangeLogHistoryServiceFactory.getInstance().getChangeLogService(this).destroy();
+            LockServiceFactory.getInstance().getLockService(this).destroy();
+        } finally {
+            catalogLookup.clear();
+            discardConnectionCache();
+            setObjectQuotingStrategy(currentStrategy);
+            commit();
+        }
+    }
+
+    /**
+     * Commits the transaction. With <code>liquibase.iq.groupCommitSize</code>, a transaction that only ran INSERT,
+     * UPDATE and DELETE statements stays open until the given number of changesets is recorded in it, a statement
+     * that cannot be grouped is executed or {@link #commitPendingWork()} is called.
+     */
+    @Override
+    public void commit() throws DatabaseException {
+        executeParallelIndexes();
+        int groupCommitSize = IQConfiguration.getInstance().getGroupCommitSize();
+        if (groupCommitSize > 0 && groupOpen && transactionGroupable && getPendingCount() < groupCommitSize) {
+            return;
+        }
+        commitTransaction();
+    }
+
+    /**
+     * Commits a transaction kept open for a group commit or holding deferred work; does nothing otherwise.
+     */
+    public void commitPendingWork() throws DatabaseException {
+        if (groupOpen || getPendingCount() > 0) {
+            commitTransaction();
+        }
+    }
+
+    /**
+     * Commits an open group before switching to auto-commit, which makes the driver commit it implicitly without
+     * the deferred history rows.
+     */
+    @Override
+    public void setAutoCommit(boolean b) throws DatabaseException {
+        if (b) {
+            commitPendingWork();
+        }
+        super.setAutoCommit(b);
+    }
+
+    private void commitTransaction() throws DatabaseException {
+        if (transactionListener != null) {
+            transactionListener.beforeCommit(this);
+        }
+        super.commit();
+        groupOpen = false;
+        transactionGroupable = true;
+    }
+
+    @Override
+    public void rollback() throws DatabaseException {
+        if (groupOpen && getPendingCount() > 0) {
+            Scope.getCurrentScope().getLog(getClass()).warning("Rolling back " + getPendingCount()
+                    + " grouped changesets together with the failed one; they run again on the next update");
+        }
+        parallelIndexSql.clear();
+        try {
+            super.rollback();
+        } finally {
+            groupOpen = false;
+            transactionGroupable = true;
+            if (transactionListener != null) {
+                transactionListener.afterRollback(this);
+            }
+        }
+    }
+
+    /**
+     * Called by the IQ lock service with the reason the changelog lock lease was lost, and with null once the lock is
+     * released or acquired again. While a reason is set, {@link #execute} fails instead of changing the database next
+     * to the process that took the lock over.
+     */
+    public void setChangeLogLockLost(String reason) {
+        this.changeLogLockLost = reason;
+    }
+
+    /**
+     * Registers work that is written with the next commit and discarded on rollback. Replaces an earlier listener.
+     */
+    public void setTransactionListener(IQTransactionListener transactionListener) {
+        this.transactionListener = transactionListener;
+    }
+
+    /**
+     * True if work is waiting for the next commit.
+     */
+    public boolean hasPendingWork() {
+        return groupOpen || getPendingCount() > 0;
+    }
+
+    private int getPendingCount() {
+        return transactionListener == null ? 0 : transactionListener.getPendingCount();
+    }
+
+    /**
+     * Statements that run inside a transaction without an implicit commit and can be grouped with those of other
+     * changesets.
+     */
+    private static boolean isGroupable(SqlStatement statement) {
+        if (statement instanceof InsertStatement || statement instanceof InsertSetStatement
+                || statement instanceof UpdateStatement || statement instanceof DeleteStatement) {
+            return true;
+        }
+        if (statement instanceof RawSqlStatement) {
+            String sql = StringUtil.trimToEmpty(((RawSqlStatement) statement).getSql());
+            return sql.regionMatches(true, 0, "INSERT ", 0, 7) || sql.regionMatches(true, 0, "UPDATE ", 0, 7)
+                    || sql.regionMatches(true, 0, "DELETE ", 0, 7);
+        }
+        return false;
+    }
+
+    private static boolean writesRowsOnly(SqlStatement statement) {
+        return isGroupable(statement) || statement instanceof ExecutablePreparedStatement
+                || statement instanceof MarkChangeSetRanStatement
+                || statement instanceof RemoveChangeSetRanStatusStatement
+                || statement instanceof UpdateChangeSetChecksumStatement
+                || statement instanceof TagDatabaseStatement
+                || statement instanceof ClearDatabaseChangeLogTableStatement
+                || statement instanceof InitializeDatabaseChangeLogLockTableStatement;
+    }
+
+    /**
+     * The session settings of the current connection, read once per connection. Returns null for offline
+     * connections or if they cannot be read.
+     */
+    public IQSessionInfo getSessionInfo() {
+        IQSessionInfo info = sessionInfo;
         DatabaseConnection connection = getConnection();
-        if (connection == null) {
-            return null;
+        if (info == null && connection instanceof JdbcConnection) {
+            try {
+                info = IQSessionInfo.read((JdbcConnection) connection);
+                sessionInfo = info;
+            } catch (Exception e) {
+                Scope.getCurrentScope().getLog(getClass()).info("Error reading session information", e);
+            }
+        }
+        return info;
+    }
+
+    /**
+     * The cached catalog lookups answering existence preconditions on this connection.
+     */
+    public IQCatalogLookup getCatalogLookup() {
+        return catalogLookup;
+    }
+
+    /**
+     * The catalog rows prefetched when the connection was set (see <code>liquibase.iq.connectionPrefetch</code>),
+     * or null if there are none. Each snapshot takes the results of the queries it runs; the others stay for later
+     * snapshots until a statement changing the catalog discards them, so they are never used after a change.
+     */
+    public synchronized IQResultSetCache getConnectionCache() {
+        return connectionCache;
+    }
+
+    private void discardConnectionCache() {
+        IQResultSetCache cache;
+        synchronized (this) {
+            cache = connectionCache;
+            connectionCache = null;
+        }
+        if (cache != null) {
+            cache.discardPrefetches();
         }
+    }
+
+    /**
+     * Makes the next {@link #getSessionInfo()} read the session settings again.
+     */
+    public void invalidateSessionInfo() {
+        sessionInfo = null;
+    }
+
+    private static boolean changesSession(String sql) {
+        String trimmed = sql == null ? "" : sql.trim();
+        return trimmed.regionMatches(true, 0, "SET ", 0, 4) || trimmed.regionMatches(true, 0, "SETUSER", 0, 7);
+    }
+
+    @Override
+    protected String getConnectionSchemaName() {
+        IQSessionInfo info = getSessionInfo();
+        return info == null ? null : info.getCurrentSchema();
+    }
+
+    /**
+     * Whether LOAD TABLE ... USING CLIENT FILE may be used on this connection, i.e. the allow_read_client_file
+     * option is on. Returns false when it cannot be determined, e.g. for offline connections.
+     */
+    public boolean isClientFileLoadAllowed() {
+        IQSessionInfo info = getSessionInfo();
+        return info != null && "On".equalsIgnoreCase(info.getOption("allow_read_client_file"));
+    }
+
+    public IQConnectionFactory getConnectionFactory() {
+        return connectionFactory;
+    }
+
+    public void setConnectionFactory(IQConnectionFactory connectionFactory) {
+        this.connectionFactory = connectionFactory;
+    }
+
+    /**
+     * Opens a new connection to the same server for work that runs next to the main connection. The caller closes it.
+     * Returns null if no connection can be opened, after a warning: every caller is a feature that was turned on.
+     */
+    public Connection openAdditionalConnection() {
         try {
-            ResultSet resultSet = ((JdbcConnection) connection).createStatement().executeQuery("SELECT CURRENT_SCHEMA()");
-            resultSet.next();
-            String schema = resultSet.getString(1);
-            return schema;
+            return connectionFactory.openConnection(this);
         } catch (Exception e) {
-            Scope.getCurrentScope().getLog(getClass()).info("Error getting default schema", e);
+            Scope.getCurrentScope().getLog(getClass()).warning("Cannot open an additional connection; set "
+                    + "liquibase.iq.additionalConnectionPassword unless the URL carries the password: "
+                    + e.getMessage(), e);
         }
         return null;
     }
 
+    /**
+     * Upper-cases catalog, schema and changelog table names, reusing earlier results for the same name.
+     */
+    private String toUpperCase(String name) {
+        if (name == null) {
+            return null;
+        }
+        String upperCase = upperCaseNames.get(name);
+        if (upperCase == null) {
+            upperCase = name.toUpperCase();
+            cache(upperCaseNames, name, upperCase);
+        }
+        return upperCase;
+    }
+
+    private static void cache(Map<String, String> names, String name, String value) {
+        if (names.size() >= IDENTIFIER_CACHE_SIZE) {
+            names.clear();
+        }
+        names.put(name, value);
+    }
+
     @Override
     public boolean supportsSchemas() {
         return true;
     }
 
-    private Set<String> getDefaultReservedWords() {
+    private static Set<String> getDefaultReservedWords() {
         /*
          * List taken from
          * https://help.sap.com/viewer/a898e08b84f21015969fa437e89860c8/16.1.4.2/en-US/
@@ -450,7 +899,7 @@ public class IQDatabase extends AbstractJdbcDatabase {
         return reservedWords;
     }
 
-    private Set<String> getDefaultSystemTables() {
+    private static Set<String> getDefaultSystemTables() {
         /*
          * List taken from
          * https://help.sap.com/viewer/a898e08b84f21015969fa437e89860c8/16.1.4.2/en-US/
@@ -550,7 +999,7 @@ public class IQDatabase extends AbstractJdbcDatabase {
         return defaultSystemTables;
     }
 
-    private Set<String> getDefaultSystemViews() {
+    private static Set<String> getDefaultSystemViews() {
         /*
          * List taken from
          * https://help.sap.com/viewer/a898e08b84f21015969fa437e89860c8/16.1.4.2/en-US/
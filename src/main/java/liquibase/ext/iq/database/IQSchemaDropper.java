@@ -0,0 +1,148 @@
+package liquibase.ext.iq.database;
+
+import liquibase.Scope;
+import liquibase.database.jvm.JdbcConnection;
+import liquibase.exception.DatabaseException;
+import liquibase.ext.iq.configuration.IQConfiguration;
+import liquibase.sql.Sql;
+import liquibase.sqlgenerator.SqlGeneratorFactory;
+import liquibase.statement.SqlStatement;
+import liquibase.statement.core.DropProcedureStatement;
+import liquibase.statement.core.DropSequenceStatement;
+import liquibase.statement.core.DropTableStatement;
+import liquibase.statement.core.DropViewStatement;
+import liquibase.structure.core.ForeignKey;
+import liquibase.structure.core.StoredProcedure;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Drops all objects of a schema without a snapshot. The objects are read with one catalog query and dropped in the
+ * order views, procedures and functions, foreign keys, tables, sequences. Views are dropped newest first, so views
+ * built on other views go before them. IQ has no DROP TABLE ... CASCADE CONSTRAINTS, so the foreign keys of the
+ * schema's tables, and those of other schemas referencing them, are dropped from SYS.SYSFKEY before the tables. The
+ * statements are sent in JDBC batches of <code>liquibase.iq.batchSize</code>.
+ * <p>
+ * The DATABASECHANGELOG and DATABASECHANGELOGLOCK tables are left to the history and lock services, which drop them
+ * afterwards as liquibase-core does.
+ */
+final class IQSchemaDropper {
+
+    private static final String OBJECTS_QUERY = "SELECT OBJECT_TYPE, OWNER, TABLE_NAME, OBJECT_NAME FROM ("
+            + "SELECT 1 AS DROP_ORDER, CASE t.table_type_str WHEN 'MAT VIEW' THEN 'MAT VIEW' ELSE 'VIEW' END AS OBJECT_TYPE, "
+            + "u.user_name AS OWNER, NULL AS TABLE_NAME, t.table_name AS OBJECT_NAME, t.object_id AS OBJECT_ID "
+            + "FROM SYS.SYSTAB t JOIN SYS.SYSUSER u ON u.user_id = t.creator "
+            + "WHERE t.table_type_str IN ('VIEW', 'MAT VIEW') AND u.user_name = ? "
+            + "UNION ALL "
+            + "SELECT 2, CASE WHEN EXISTS (SELECT 1 FROM SYS.SYSPROCPARM pp WHERE pp.proc_id = p.proc_id "
+            + "AND pp.parm_type = 4) THEN 'FUNCTION' ELSE 'PROCEDURE' END, u.user_name, NULL, p.proc_name, p.object_id "
+            + "FROM SYS.SYSPROCEDURE p JOIN SYS.SYSUSER u ON u.user_id = p.creator "
+            + "WHERE u.user_name = ? "
+            + "UNION ALL "
+            + "SELECT 3, 'FOREIGN KEY', fu.user_name, ft.table_name, i.index_name, i.object_id "
+            + "FROM SYS.SYSFKEY fk "
+            + "JOIN SYS.SYSIDX i ON i.table_id = fk.foreign_table_id AND i.index_id = fk.foreign_index_id "
+            + "JOIN SYS.SYSTAB ft ON ft.table_id = fk.foreign_table_id JOIN SYS.SYSUSER fu ON fu.user_id = ft.creator "
+            + "JOIN SYS.SYSTAB pt ON pt.table_id = fk.primary_table_id JOIN SYS.SYSUSER pu ON pu.user_id = pt.creator "
+            + "WHERE fu.user_name = ? OR pu.user_name = ? "
+            + "UNION ALL "
+            + "SELECT 4, 'TABLE', u.user_name, NULL, t.table_name, t.object_id "
+            + "FROM SYS.SYSTAB t JOIN SYS.SYSUSER u ON u.user_id = t.creator "
+            + "WHERE t.table_type_str IN ('BASE', 'GBL TEMP') AND u.user_name = ? "
+            + "UNION ALL "
+            + "SELECT 5, 'SEQUENCE', u.user_name, NULL, s.sequence_name, s.object_id "
+            + "FROM SYS.SYSSEQUENCE s JOIN SYS.SYSUSER u ON u.user_id = s.owner "
+            + "WHERE u.user_name = ?"
+            + ") o ORDER BY DROP_ORDER, OBJECT_ID DESC";
+
+    private static final int SCHEMA_PARAMETERS = 6;
+
+    private IQSchemaDropper() {
+    }
+
+    /**
+     * Drops the objects of the schema and returns their number.
+     */
+    static int dropAll(IQDatabase database, String schemaName) throws DatabaseException {
+        JdbcConnection connection = (JdbcConnection) database.getConnection();
+        List<String> sql = new ArrayList<>();
+        try (PreparedStatement query = connection.prepareStatement(OBJECTS_QUERY)) {
+            for (int i = 1; i <= SCHEMA_PARAMETERS; i++) {
+                query.setString(i, schemaName);
+            }
+            try (ResultSet resultSet = query.executeQuery()) {
+                while (resultSet.next()) {
+                    String type = resultSet.getString("OBJECT_TYPE");
+                    String name = resultSet.getString("OBJECT_NAME");
+                    if ("FOREIGN KEY".equals(type)) {
+                        sql.add("ALTER TABLE " + database.escapeTableName(null, resultSet.getString("OWNER"),
+                                resultSet.getString("TABLE_NAME")) + " DROP FOREIGN KEY "
+                                + database.escapeObjectName(name, ForeignKey.class));
+                    } else if (!isLiquibaseTable(database, schemaName, name)) {
+                        addDropSql(sql, database, schemaName, type, name);
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            throw new DatabaseException("Error reading objects of schema " + schemaName + ": " + e.getMessage(), e);
+        }
+
+        int batchSize = Math.max(IQConfiguration.getInstance().getBatchSize(), 1);
+        try (Statement statement = connection.createStatement()) {
+            for (int i = 0; i < sql.size(); i++) {
+                statement.addBatch(sql.get(i));
+                if ((i + 1) % batchSize == 0 || i == sql.size() - 1) {
+                    statement.executeBatch();
+                }
+            }
+        } catch (SQLException e) {
+            throw new DatabaseException("Error dropping objects of schema " + schemaName + ": " + e.getMessage(), e);
+        }
+        Scope.getCurrentScope().getLog(IQSchemaDropper.class).info("Dropped " + sql.size() + " objects of schema "
+                + schemaName);
+        return sql.size();
+    }
+
+    private static void addDropSql(List<String> sql, IQDatabase database, String schemaName, String type,
+                                   String name) {
+        switch (type) {
+            case "VIEW":
+                addDropSql(sql, database, new DropViewStatement(null, schemaName, name));
+                break;
+            case "MAT VIEW":
+                sql.add("DROP MATERIALIZED VIEW " + database.escapeTableName(null, schemaName, name));
+                break;
+            case "PROCEDURE":
+                addDropSql(sql, database, new DropProcedureStatement(null, schemaName, name));
+                break;
+            case "FUNCTION":
+                sql.add("DROP FUNCTION " + database.escapeObjectName(null, schemaName, name, StoredProcedure.class));
+                break;
+            case "TABLE":
+                addDropSql(sql, database, new DropTableStatement(null, schemaName, name, false));
+                break;
+            default:
+                addDropSql(sql, database, new DropSequenceStatement(null, schemaName, name));
+        }
+    }
+
+    private static void addDropSql(List<String> sql, IQDatabase database, SqlStatement statement) {
+        for (Sql generated : SqlGeneratorFactory.getInstance().generateSql(statement, database)) {
+            sql.add(generated.toSql());
+        }
+    }
+
+    private static boolean isLiquibaseTable(IQDatabase database, String schemaName, String name) {
+        String liquibaseSchema = database.getLiquibaseSchemaName();
+        if (liquibaseSchema != null && !liquibaseSchema.equalsIgnoreCase(schemaName)) {
+            return false;
+        }
+        return name.equalsIgnoreCase(database.getDatabaseChangeLogTableName())
+                || name.equalsIgnoreCase(database.getDatabaseChangeLogLockTableName());
+    }
+}
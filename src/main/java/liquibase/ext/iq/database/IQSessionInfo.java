@@ -0,0 +1,109 @@
+package liquibase.ext.iq.database;
+
+import liquibase.Scope;
+import liquibase.database.jvm.JdbcConnection;
+import liquibase.exception.DatabaseException;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Session settings of an IQ connection, read in one round trip and kept by {@link IQDatabase} until the connection
+ * changes, the default schema is changed or a SET statement is executed.
+ */
+public class IQSessionInfo {
+
+    /**
+     * Connection options read with the session info.
+     */
+    public static final String[] OPTIONS = {
+            "allow_read_client_file", "quoted_identifier", "chained", "isolation_level", "blocking", "timestamp_format"
+    };
+
+    private final String currentSchema;
+    private final String currentUser;
+    private final String serverVersion;
+    private final String multiplexRole;
+    private final Map<String, String> options;
+
+    public IQSessionInfo(String currentSchema, String currentUser, String serverVersion, String multiplexRole,
+                         Map<String, String> options) {
+        this.currentSchema = currentSchema;
+        this.currentUser = currentUser;
+        this.serverVersion = serverVersion;
+        this.multiplexRole = multiplexRole;
+        this.options = Collections.unmodifiableMap(new LinkedHashMap<>(options));
+    }
+
+    public static IQSessionInfo read(JdbcConnection connection) throws DatabaseException {
+        StringBuilder sql = new StringBuilder("SELECT CURRENT_SCHEMA(), CURRENT USER, PROPERTY('ProductVersion'), ")
+                .append("DB_PROPERTY('MultiplexRole')");
+        for (String option : OPTIONS) {
+            sql.append(", CONNECTION_PROPERTY('").append(option).append("')");
+        }
+
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(sql.toString())) {
+            if (!resultSet.next()) {
+                throw new DatabaseException("No session information returned");
+            }
+            Map<String, String> options = new LinkedHashMap<>();
+            for (int i = 0; i < OPTIONS.length; i++) {
+                options.put(OPTIONS[i], resultSet.getString(5 + i));
+            }
+            return new IQSessionInfo(resultSet.getString(1), resultSet.getString(2), resultSet.getString(3),
+                    resultSet.getString(4), options);
+        } catch (SQLException e) {
+            Scope.getCurrentScope().getLog(IQSessionInfo.class)
+                    .info("Error reading session information, reading the current schema only", e);
+            return readCurrentSchema(connection);
+        }
+    }
+
+    /**
+     * Fallback for servers or users that cannot run the combined query, e.g. because a property function is not
+     * available: only the current schema is known, everything else is null.
+     */
+    private static IQSessionInfo readCurrentSchema(JdbcConnection connection) throws DatabaseException {
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SELECT CURRENT_SCHEMA()")) {
+            if (!resultSet.next()) {
+                throw new DatabaseException("No current schema returned");
+            }
+            return new IQSessionInfo(resultSet.getString(1), null, null, null, Collections.<String, String>emptyMap());
+        } catch (SQLException e) {
+            throw new DatabaseException(e);
+        }
+    }
+
+    public String getCurrentSchema() {
+        return currentSchema;
+    }
+
+    public String getCurrentUser() {
+        return currentUser;
+    }
+
+    public String getServerVersion() {
+        return serverVersion;
+    }
+
+    /**
+     * The multiplex role of the server (coordinator, writer or reader), null for simplex servers.
+     */
+    public String getMultiplexRole() {
+        return multiplexRole;
+    }
+
+    public String getOption(String name) {
+        return options.get(name);
+    }
+
+    public Map<String, String> getOptions() {
+        return options;
+    }
+}
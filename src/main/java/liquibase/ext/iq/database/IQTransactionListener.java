@@ -0,0 +1,24 @@
+package liquibase.ext.iq.database;
+
+import liquibase.exception.DatabaseException;
+
+/**
+ * Work kept on the client until the transaction of an {@link IQDatabase} ends, such as deferred history rows.
+ */
+public interface IQTransactionListener {
+
+    /**
+     * Called before the transaction is committed, so that pending work is written within it.
+     */
+    void beforeCommit(IQDatabase database) throws DatabaseException;
+
+    /**
+     * Called after the transaction was rolled back, so that pending work is discarded with it.
+     */
+    void afterRollback(IQDatabase database);
+
+    /**
+     * The number of items, such as history rows, waiting for the next commit.
+     */
+    int getPendingCount();
+}
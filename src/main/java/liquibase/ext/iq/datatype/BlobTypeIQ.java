@@ -31,6 +31,14 @@ public class BlobTypeIQ extends BlobType {
         return new DatabaseDataType("LONG BINARY");
     }
 
+    @Override
+    protected String otherToSql(Object value, Database database) {
+        if (value instanceof byte[]) {
+            return IQLiteralWriter.toLiteral(value);
+        }
+        return super.otherToSql(value, database);
+    }
+
     @Override
     public LoadDataChange.LOAD_DATA_TYPE getLoadTypeName() {
         return LoadDataChange.LOAD_DATA_TYPE.BLOB;
@@ -11,12 +11,8 @@ import liquibase.datatype.DatabaseDataType;
 import liquibase.datatype.LiquibaseDataType;
 import liquibase.statement.DatabaseFunction;
 
-import java.text.DateFormat;
-import java.text.ParseException;
-import java.text.SimpleDateFormat;
-import java.util.Locale;
 
-@DataTypeInfo(name="date", aliases = {"java.sql.Types.DATE", "java.sql.Date"}, minParameters = 0, maxParameters = 0, priority = LiquibaseDataType.PRIORITY_DEFAULT)
+@DataTypeInfo(name="date", aliases = {"java.sql.Types.DATE", "java.sql.Date"}, minParameters = 0, maxParameters = 0, priority = LiquibaseDataType.PRIORITY_DATABASE)
 public class DateTypeIQ extends DateType {
 
     @Override
@@ -26,7 +22,7 @@ public class DateTypeIQ extends DateType {
 
     @Override
     public String objectToSql(Object value, Database database) {
-        if ((value == null) || "null".equals(value.toString().toLowerCase(Locale.US))) {
+        if ((value == null) || "null".equalsIgnoreCase(value.toString())) {
             return null;
         } else if (value instanceof DatabaseFunction) {
             return database.generateDatabaseFunctionValue((DatabaseFunction) value);
@@ -35,46 +31,26 @@ public class DateTypeIQ extends DateType {
         } else if (value instanceof java.sql.Timestamp) {
             return database.getDateLiteral(((java.sql.Timestamp) value));
         } else if (value instanceof java.sql.Date) {
-            return database.getDateLiteral(((java.sql.Date) value));
+            return IQLiteralWriter.toLiteral(value);
         } else if (value instanceof java.sql.Time) {
             return database.getDateLiteral(((java.sql.Time) value));
         } else if (value instanceof java.util.Date) {
             return database.getDateLiteral(((java.util.Date) value));
         } else {
-            return "'"+((String) value).replaceAll("'","''")+"'";
+            return IQLiteralWriter.quote(value.toString());
         }
     }
 
 
     @Override
     public Object sqlToObject(String value, Database database) {
-        if (zeroTime(value)) {
+        if (IQTemporalParser.isZeroTime(value)) {
             return value;
         }
-        try {
-            DateFormat dateFormat = getDateFormat(database);
-
-            if ((database instanceof OracleDatabase) && value.matches("to_date\\('\\d+\\-\\d+\\-\\d+', " +
-                "'YYYY\\-MM\\-DD'\\)")) {
-                dateFormat = new SimpleDateFormat("yyyy-MM-dd");
-                value = value.replaceFirst(".*?'", "").replaceFirst("',.*","");
-            }
-
-            return new java.sql.Date(dateFormat.parse(value.trim()).getTime());
-        } catch (ParseException e) {
-            return new DatabaseFunction(value);
-        }
-    }
-
-    private boolean zeroTime(String stringVal) {
-        return "".equals(stringVal.replace("-", "").replace(":", "").replace(" ", "").replace("0", ""));
-    }
-
-    protected DateFormat getDateFormat(Database database) {
-        if (database instanceof OracleDatabase) {
-            return new SimpleDateFormat("dd-MMM-yy");
-        } else {
-            return new SimpleDateFormat("yyyy-MM-dd");
+        java.sql.Date date = IQTemporalParser.parseDate(value);
+        if (date != null) {
+            return date;
         }
+        return new DatabaseFunction(value);
     }
 }
@@ -0,0 +1,198 @@
+package liquibase.ext.iq.datatype;
+
+import java.math.BigDecimal;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.UUID;
+
+/**
+ * Writes SAP IQ SQL literals straight into a {@link StringBuilder}: quoted strings with doubled single quotes,
+ * <code>0x</code> hex for binary values and UUIDs, plain numbers and ISO dates, times and timestamps. Used wherever
+ * the extension renders values into SQL text, so the cost follows the size of the output instead of the number of
+ * intermediate strings.
+ * <p>
+ * Instances are not thread-safe. {@link #toLiteral(Object)} and {@link #quote(String)} reuse one buffer per thread.
+ */
+public final class IQLiteralWriter {
+
+    private static final char[] HEX_DIGITS = "0123456789ABCDEF".toCharArray();
+
+    private static final ThreadLocal<IQLiteralWriter> SHARED = ThreadLocal.withInitial(IQLiteralWriter::new);
+
+    private final StringBuilder buffer;
+
+    public IQLiteralWriter() {
+        this(new StringBuilder(64));
+    }
+
+    public IQLiteralWriter(StringBuilder buffer) {
+        this.buffer = buffer;
+    }
+
+    /**
+     * The literal for a value, rendered in the buffer of the current thread.
+     */
+    public static String toLiteral(Object value) {
+        IQLiteralWriter writer = SHARED.get();
+        writer.buffer.setLength(0);
+        return writer.value(value).toString();
+    }
+
+    /**
+     * The value as a quoted string literal, rendered in the buffer of the current thread.
+     */
+    public static String quote(String value) {
+        IQLiteralWriter writer = SHARED.get();
+        writer.buffer.setLength(0);
+        return writer.string(value).toString();
+    }
+
+    public StringBuilder getBuffer() {
+        return buffer;
+    }
+
+    public IQLiteralWriter raw(CharSequence text) {
+        buffer.append(text);
+        return this;
+    }
+
+    /**
+     * Writes the literal for the value based on its Java type; strings and unknown types are written as quoted
+     * strings.
+     */
+    public IQLiteralWriter value(Object value) {
+        if (value == null) {
+            buffer.append("NULL");
+        } else if (value instanceof Number) {
+            number((Number) value);
+        } else if (value instanceof Boolean) {
+            buffer.append((Boolean) value ? '1' : '0');
+        } else if (value instanceof Timestamp) {
+            timestamp((Timestamp) value);
+        } else if (value instanceof java.sql.Date) {
+            date((java.sql.Date) value);
+        } else if (value instanceof Time) {
+            time((Time) value);
+        } else if (value instanceof java.util.Date) {
+            timestamp(new Timestamp(((java.util.Date) value).getTime()));
+        } else if (value instanceof byte[]) {
+            hex((byte[]) value);
+        } else if (value instanceof UUID) {
+            uuid((UUID) value);
+        } else {
+            string(value.toString());
+        }
+        return this;
+    }
+
+    public IQLiteralWriter string(String value) {
+        buffer.append('\'');
+        int start = 0;
+        int quote;
+        while ((quote = value.indexOf('\'', start)) >= 0) {
+            buffer.append(value, start, quote + 1).append('\'');
+            start = quote + 1;
+        }
+        buffer.append(value, start, value.length()).append('\'');
+        return this;
+    }
+
+    public IQLiteralWriter number(Number value) {
+        if (value instanceof BigDecimal) {
+            buffer.append(((BigDecimal) value).toPlainString());
+        } else if (value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte) {
+            buffer.append(value.longValue());
+        } else {
+            buffer.append(value);
+        }
+        return this;
+    }
+
+    public IQLiteralWriter hex(byte[] value) {
+        buffer.append("0x");
+        for (byte b : value) {
+            buffer.append(HEX_DIGITS[(b >> 4) & 0xF]).append(HEX_DIGITS[b & 0xF]);
+        }
+        return this;
+    }
+
+    /**
+     * Writes the UUID as the 16 byte binary value IQ stores for UNIQUEIDENTIFIER.
+     */
+    public IQLiteralWriter uuid(UUID value) {
+        buffer.append("0x");
+        hexDigits(value.getMostSignificantBits());
+        hexDigits(value.getLeastSignificantBits());
+        return this;
+    }
+
+    /**
+     * Writes <code>'yyyy-MM-dd HH:mm:ss.ffffff'</code>; IQ keeps microseconds.
+     */
+    public IQLiteralWriter timestamp(Timestamp value) {
+        LocalDateTime dateTime = value.toLocalDateTime();
+        buffer.append('\'');
+        date(dateTime.getYear(), dateTime.getMonthValue(), dateTime.getDayOfMonth());
+        buffer.append(' ');
+        time(dateTime.getHour(), dateTime.getMinute(), dateTime.getSecond());
+        buffer.append('.');
+        pad(dateTime.getNano() / 1000, 6);
+        buffer.append('\'');
+        return this;
+    }
+
+    public IQLiteralWriter date(java.sql.Date value) {
+        LocalDate date = value.toLocalDate();
+        buffer.append('\'');
+        date(date.getYear(), date.getMonthValue(), date.getDayOfMonth());
+        buffer.append('\'');
+        return this;
+    }
+
+    public IQLiteralWriter time(Time value) {
+        LocalTime time = value.toLocalTime();
+        buffer.append('\'');
+        time(time.getHour(), time.getMinute(), time.getSecond());
+        buffer.append('\'');
+        return this;
+    }
+
+    @Override
+    public String toString() {
+        return buffer.toString();
+    }
+
+    private void date(int year, int month, int day) {
+        pad(year, 4);
+        buffer.append('-');
+        pad(month, 2);
+        buffer.append('-');
+        pad(day, 2);
+    }
+
+    private void time(int hour, int minute, int second) {
+        pad(hour, 2);
+        buffer.append(':');
+        pad(minute, 2);
+        buffer.append(':');
+        pad(second, 2);
+    }
+
+    private void pad(int value, int width) {
+        for (int limit = 10, i = 1; i < width; i++, limit *= 10) {
+            if (value < limit) {
+                buffer.append('0');
+            }
+        }
+        buffer.append(value);
+    }
+
+    private void hexDigits(long value) {
+        for (int shift = 60; shift >= 0; shift -= 4) {
+            buffer.append(HEX_DIGITS[(int) (value >>> shift) & 0xF]);
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package liquibase.ext.iq.datatype;
+
+import java.sql.Date;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.text.ParsePosition;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeFormatterBuilder;
+import java.time.temporal.ChronoField;
+
+/**
+ * Parses the date, time and timestamp values found in changelogs and loadData files for the IQ datatypes.
+ * <p>
+ * ISO shaped values (<code>yyyy-MM-dd</code>, <code>HH:mm[:ss[.f]]</code> and both joined by a blank or a
+ * <code>T</code>, with up to nine fractional digits) are read character by character. Anything else is tried against a
+ * few precompiled {@link DateTimeFormatter}s with {@link DateTimeFormatter#parseUnresolved}, which reports failures
+ * through the {@link ParsePosition}. All methods return null instead of throwing when a value cannot be parsed and
+ * are safe to call from several threads.
+ */
+public final class IQTemporalParser {
+
+    private static final DateTimeFormatter[] DATE_TIME_FORMATS = {
+            DateTimeFormatter.ISO_OFFSET_DATE_TIME,
+            new DateTimeFormatterBuilder()
+                    .appendPattern("uuuu-MM-dd HH:mm:ss")
+                    .appendFraction(ChronoField.NANO_OF_SECOND, 0, 9, true)
+                    .appendOffsetId()
+                    .toFormatter()
+    };
+
+    private IQTemporalParser() {
+    }
+
+    /**
+     * Whether the value only consists of zeros and separators, e.g. <code>0000-00-00 00:00:00</code>, which is kept
+     * as text.
+     */
+    public static boolean isZeroTime(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c != '0' && c != '-' && c != ':' && c != ' ') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public static Timestamp parseTimestamp(String value) {
+        String trimmed = value.trim();
+        LocalDateTime dateTime = parseIsoDateTime(trimmed);
+        if (dateTime != null) {
+            return Timestamp.valueOf(dateTime);
+        }
+        for (DateTimeFormatter format : DATE_TIME_FORMATS) {
+            ParsePosition position = new ParsePosition(0);
+            if (format.parseUnresolved(trimmed, position) != null && position.getErrorIndex() < 0
+                    && position.getIndex() == trimmed.length()) {
+                try {
+                    return Timestamp.from(OffsetDateTime.parse(trimmed, format).toInstant());
+                } catch (DateTimeException e) {
+                    return null;
+                }
+            }
+        }
+        return null;
+    }
+
+    public static Date parseDate(String value) {
+        String trimmed = value.trim();
+        if (trimmed.length() != 10) {
+            return null;
+        }
+        LocalDate date = parseIsoDate(trimmed);
+        return date == null ? null : Date.valueOf(date);
+    }
+
+    public static Time parseTime(String value) {
+        String trimmed = value.trim();
+        LocalTime time = parseIsoTime(trimmed, 0);
+        return time == null ? null : Time.valueOf(time);
+    }
+
+    /**
+     * Parses a loadData cell: a {@link Date} for date-only values, a {@link Timestamp} otherwise.
+     */
+    public static java.util.Date parseDateOrTimestamp(String value) {
+        Date date = parseDate(value);
+        if (date != null) {
+            return date;
+        }
+        return parseTimestamp(value);
+    }
+
+    private static LocalDateTime parseIsoDateTime(String value) {
+        if (value.length() < 16 || (value.charAt(10) != ' ' && value.charAt(10) != 'T')) {
+            return null;
+        }
+        LocalDate date = parseIsoDate(value);
+        LocalTime time = parseIsoTime(value, 11);
+        return date == null || time == null ? null : LocalDateTime.of(date, time);
+    }
+
+    private static LocalDate parseIsoDate(String value) {
+        if (value.length() < 10 || value.charAt(4) != '-' || value.charAt(7) != '-') {
+            return null;
+        }
+        int year = digits(value, 0, 4);
+        int month = digits(value, 5, 2);
+        int day = digits(value, 8, 2);
+        if (year < 0 || month < 1 || month > 12 || day < 1 || day > 31) {
+            return null;
+        }
+        if (day > 28 && day > LocalDate.of(year, month, 1).lengthOfMonth()) {
+            return null;
+        }
+        return LocalDate.of(year, month, day);
+    }
+
+    private static LocalTime parseIsoTime(String value, int offset) {
+        int length = value.length() - offset;
+        if (length < 5 || value.charAt(offset + 2) != ':') {
+            return null;
+        }
+        int hour = digits(value, offset, 2);
+        int minute = digits(value, offset + 3, 2);
+        int second = 0;
+        int nano = 0;
+        if (length > 5) {
+            if (length < 8 || value.charAt(offset + 5) != ':') {
+                return null;
+            }
+            second = digits(value, offset + 6, 2);
+            if (length > 8) {
+                int fractionDigits = length - 9;
+                if (value.charAt(offset + 8) != '.' || fractionDigits < 1 || fractionDigits > 9) {
+                    return null;
+                }
+                nano = digits(value, offset + 9, fractionDigits);
+                for (int i = fractionDigits; i < 9 && nano >= 0; i++) {
+                    nano *= 10;
+                }
+            }
+        }
+        if (hour < 0 || hour > 23 || minute < 0 || minute > 59 || second < 0 || second > 59 || nano < 0) {
+            return null;
+        }
+        return LocalTime.of(hour, minute, second, nano);
+    }
+
+    /**
+     * The number written with the given decimal digits, or -1 if one of them is not a digit.
+     */
+    private static int digits(String value, int offset, int count) {
+        int result = 0;
+        for (int i = offset; i < offset + count; i++) {
+            char c = value.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            result = result * 10 + (c - '0');
+        }
+        return result;
+    }
+}
@@ -12,8 +12,9 @@ import liquibase.datatype.LiquibaseDataType;
 import liquibase.exception.DatabaseException;
 
 import java.util.Locale;
+import java.util.UUID;
 
-@DataTypeInfo(name = "uuid", aliases = { "uniqueidentifier", "java.util.UUID" }, minParameters = 0, maxParameters = 0, priority = LiquibaseDataType.PRIORITY_DEFAULT)
+@DataTypeInfo(name = "uuid", aliases = { "uniqueidentifier", "java.util.UUID" }, minParameters = 0, maxParameters = 0, priority = LiquibaseDataType.PRIORITY_DATABASE)
 public class UUIDTypeIQ extends UUIDType {
     
     @Override
@@ -29,6 +30,14 @@ public class UUIDTypeIQ extends UUIDType {
         return new DatabaseDataType("UNIQUEIDENTIFIER");
     }
     
+    @Override
+    protected String otherToSql(Object value, Database database) {
+        if (value instanceof UUID || value instanceof byte[]) {
+            return IQLiteralWriter.toLiteral(value);
+        }
+        return super.otherToSql(value, database);
+    }
+
     @Override
     public LoadDataChange.LOAD_DATA_TYPE getLoadTypeName() {
         return LoadDataChange.LOAD_DATA_TYPE.UUID;
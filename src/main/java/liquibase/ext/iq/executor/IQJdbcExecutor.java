@@ -0,0 +1,35 @@
+package liquibase.ext.iq.executor;
+
+import liquibase.exception.DatabaseException;
+import liquibase.executor.jvm.JdbcExecutor;
+import liquibase.ext.iq.database.IQDatabase;
+import liquibase.sql.visitor.SqlVisitor;
+import liquibase.statement.SqlStatement;
+
+import java.util.List;
+
+/**
+ * The JDBC executor, telling an {@link IQDatabase} about every statement it runs so that the cached catalog lookups
+ * and prefetched catalog rows are dropped when the catalog changes. This is the only place they are invalidated:
+ * changesets run through {@link IQDatabase#execute}, which hands each statement to this executor, while the lock and
+ * history services, and liquibase-core when it creates or upgrades their tables, call the executor directly. On
+ * other databases this is the plain {@link JdbcExecutor}.
+ */
+public class IQJdbcExecutor extends JdbcExecutor {
+
+    @Override
+    public int getPriority() {
+        return PRIORITY_SPECIALIZED;
+    }
+
+    @Override
+    public void execute(SqlStatement sql, List<SqlVisitor> sqlVisitors) throws DatabaseException {
+        try {
+            super.execute(sql, sqlVisitors);
+        } finally {
+            if (database instanceof IQDatabase) {
+                ((IQDatabase) database).invalidateCatalog(sql);
+            }
+        }
+    }
+}
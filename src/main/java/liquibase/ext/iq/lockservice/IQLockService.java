@@ -0,0 +1,468 @@
+package liquibase.ext.iq.lockservice;
+
+import liquibase.Scope;
+import liquibase.database.Database;
+import liquibase.exception.DatabaseException;
+import liquibase.exception.LockException;
+import liquibase.executor.Executor;
+import liquibase.executor.ExecutorService;
+import liquibase.ext.iq.configuration.IQConfiguration;
+import liquibase.ext.iq.database.IQDatabase;
+import liquibase.ext.iq.datatype.IQLiteralWriter;
+import liquibase.lockservice.StandardLockService;
+import liquibase.statement.core.RawSqlStatement;
+import liquibase.util.NetUtil;
+import liquibase.util.StringUtil;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.text.DateFormat;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Changelog lock for SAP IQ held as a lease.
+ * <p>
+ * A lock is taken with a single conditional UPDATE, so a waiting process never reads the lock row before writing it.
+ * While the lock is held, its LOCKGRANTED time is renewed on an additional connection every third of
+ * <code>liquibase.iq.lockLeaseSeconds</code>. A lock whose holder stopped renewing it for longer than the lease is
+ * taken over, so a crashed deployment does not leave the lock behind. If no additional connection can be opened
+ * the lock is not taken at all, as it could not be renewed; with a lease of 0 the lock carries no lease marker and
+ * is kept until it is released, as with liquibase-core.
+ * If a renewal finds the lock taken over, or renewals keep failing for longer than the lease, the lease is lost:
+ * renewing stops, {@link #hasChangeLogLock()} returns false and further statements fail.
+ * <p>
+ * Waiting processes retry after an exponentially growing, jittered delay starting at
+ * <code>liquibase.iq.lockBackoffMillis</code> and capped at the changelog lock poll rate, instead of all polling at
+ * the same fixed interval.
+ * <p>
+ * With <code>liquibase.iq.lockScope=SCHEMA</code> each default schema (or <code>liquibase.iq.lockKey</code>) is locked
+ * with its own row of DATABASECHANGELOGLOCK, found by the key stored in an added LOCKKEY column, so changelogs of
+ * different schemas sharing one lock table run at the same time. DATABASECHANGELOG is then written by several
+ * processes at once, which the catalog and RLV stores support.
+ */
+public class IQLockService extends StandardLockService {
+
+    /**
+     * Marks LOCKEDBY values of holders that renew their lease.
+     */
+    private static final String LEASE_MARKER = " lease#";
+
+    /**
+     * Column added to DATABASECHANGELOGLOCK for keyed locks; null in the global row.
+     */
+    private static final String LOCK_KEY_COLUMN = "LOCKKEY";
+
+    private final String ownerId = UUID.randomUUID().toString();
+
+    private String lockedBy;
+    private boolean lockKeyColumnChecked;
+    private Connection heartbeatConnection;
+    private ScheduledExecutorService heartbeat;
+    private volatile String leaseLost;
+
+    @Override
+    public int getPriority() {
+        return PRIORITY_DATABASE;
+    }
+
+    @Override
+    public boolean supports(Database database) {
+        return database instanceof IQDatabase;
+    }
+
+    /**
+     * The condition selecting the DATABASECHANGELOGLOCK row locked by this service: ID 1 for the global lock,
+     * otherwise the row whose LOCKKEY is the upper-cased {@link #getLockKey()}.
+     */
+    protected String getLockRowCondition() {
+        String key = getLockKey();
+        if (key == null) {
+            return "ID = 1";
+        }
+        return LOCK_KEY_COLUMN + " = " + IQLiteralWriter.quote(key.toUpperCase(Locale.US));
+    }
+
+    /**
+     * The name locked when <code>liquibase.iq.lockScope</code> is SCHEMA: <code>liquibase.iq.lockKey</code> or the
+     * default schema. Null for the global lock.
+     */
+    protected String getLockKey() {
+        IQConfiguration configuration = IQConfiguration.getInstance();
+        if (configuration.getLockScope() != IQConfiguration.LockScope.SCHEMA) {
+            return null;
+        }
+        String key = StringUtil.trimToNull(configuration.getLockKey());
+        return key == null ? database.getDefaultSchemaName() : key;
+    }
+
+    @Override
+    public void waitForLock() throws LockException {
+        long timeout = System.currentTimeMillis() + getChangeLogLockWaitTime() * 60 * 1000;
+        long maxDelay = Math.max(getChangeLogLockRecheckTime() * 1000, 1);
+        long delay = Math.min(Math.max(IQConfiguration.getInstance().getLockBackoffMillis(), 1), maxDelay);
+
+        boolean locked = false;
+        while (!locked && System.currentTimeMillis() < timeout) {
+            locked = acquireLock();
+            if (!locked) {
+                long sleep = Math.min(delay / 2 + ThreadLocalRandom.current().nextLong(delay / 2 + 1),
+                        Math.max(timeout - System.currentTimeMillis(), 0));
+                Scope.getCurrentScope().getLog(getClass()).fine("Waiting " + sleep + " ms for changelog lock");
+                try {
+                    Thread.sleep(sleep);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+                delay = Math.min(delay * 2, maxDelay);
+            }
+        }
+
+        if (!locked) {
+            closeHeartbeatConnection();
+            String lockedByMessage = getLockHolder();
+            throw new LockException("Could not acquire change log lock.  Currently locked by " + lockedByMessage);
+        }
+    }
+
+    /**
+     * False once the lease could not be renewed, even though the lock was acquired: another process may have taken
+     * it over.
+     */
+    @Override
+    public boolean hasChangeLogLock() {
+        return super.hasChangeLogLock() && leaseLost == null;
+    }
+
+    @Override
+    public boolean acquireLock() throws LockException {
+        if (hasChangeLogLock()) {
+            return true;
+        }
+        if (leaseLost != null) {
+            stopHeartbeat();
+        }
+
+        Executor executor = getExecutor();
+        try {
+            database.rollback();
+            init();
+            insertLockRow();
+
+            int leaseSeconds = IQConfiguration.getInstance().getLockLeaseSeconds();
+            boolean lease = openHeartbeatConnection();
+            if (leaseSeconds > 0 && !lease) {
+                throw new LockException("Cannot keep a change log lock lease of " + leaseSeconds + " seconds: no "
+                        + "additional connection could be opened to renew it. Set "
+                        + "liquibase.iq.additionalConnectionPassword, or liquibase.iq.lockLeaseSeconds=0 to lock "
+                        + "without a lease");
+            }
+            lockedBy = getLockedBy(lease);
+            StringBuilder sql = new StringBuilder("UPDATE ").append(getLockTableName())
+                    .append(" SET LOCKED = 1, LOCKGRANTED = CURRENT TIMESTAMP, LOCKEDBY = ")
+                    .append(IQLiteralWriter.quote(lockedBy))
+                    .append(" WHERE ").append(getLockRowCondition()).append(" AND (LOCKED = 0 OR LOCKED IS NULL");
+            if (leaseSeconds > 0) {
+                sql.append(" OR (LOCKEDBY LIKE '%").append(LEASE_MARKER.trim())
+                        .append("%' AND LOCKGRANTED < DATEADD(SECOND, -").append(leaseSeconds)
+                        .append(", CURRENT TIMESTAMP))");
+            }
+            sql.append(")");
+
+            int updated = executor.update(new RawSqlStatement(sql.toString()));
+            database.commit();
+            if (updated != 1) {
+                return false;
+            }
+
+            hasChangeLogLock = true;
+            clearLeaseLost();
+            database.setCanCacheLiquibaseTableInfo(true);
+            Scope.getCurrentScope().getLog(getClass()).info("Successfully acquired change log lock");
+            startHeartbeat(leaseSeconds);
+            return true;
+        } catch (LockException e) {
+            closeHeartbeatConnection();
+            throw e;
+        } catch (Exception e) {
+            closeHeartbeatConnection();
+            throw new LockException(e);
+        } finally {
+            try {
+                database.rollback();
+            } catch (DatabaseException e) {
+                // nothing to do
+            }
+        }
+    }
+
+    @Override
+    public void releaseLock() throws LockException {
+        release(false);
+    }
+
+    @Override
+    public void forceReleaseLock() throws LockException, DatabaseException {
+        init();
+        release(true);
+    }
+
+    /**
+     * Releases the lock row. Unless forced, the row is only released if this service still holds it, so a lease
+     * taken over by another process is left alone.
+     */
+    private void release(boolean force) throws LockException {
+        stopHeartbeat();
+        Executor executor = getExecutor();
+        try {
+            ((IQDatabase) database).commitPendingWork();
+            if (hasDatabaseChangeLogLockTable()) {
+                executor.comment("Release Database Lock");
+                database.rollback();
+                StringBuilder sql = new StringBuilder("UPDATE ").append(getLockTableName())
+                        .append(" SET LOCKED = 0, LOCKGRANTED = NULL, LOCKEDBY = NULL WHERE ").append(getLockRowCondition());
+                if (!force) {
+                    sql.append(" AND LOCKEDBY = ").append(IQLiteralWriter.quote(lockedBy));
+                }
+                int updated = executor.update(new RawSqlStatement(sql.toString()));
+                if (updated == 0 && !force && hasChangeLogLock) {
+                    Scope.getCurrentScope().getLog(getClass()).warning(
+                            "Change log lock was taken over by another process after its lease expired");
+                }
+                database.commit();
+            }
+        } catch (Exception e) {
+            throw new LockException(e);
+        } finally {
+            try {
+                hasChangeLogLock = false;
+                clearLeaseLost();
+                database.setCanCacheLiquibaseTableInfo(false);
+                Scope.getCurrentScope().getLog(getClass()).info("Successfully released change log lock");
+                database.rollback();
+            } catch (DatabaseException e) {
+                // nothing to do
+            }
+        }
+    }
+
+    @Override
+    public void reset() {
+        stopHeartbeat();
+        clearLeaseLost();
+        super.reset();
+    }
+
+    @Override
+    public void destroy() throws DatabaseException {
+        stopHeartbeat();
+        super.destroy();
+    }
+
+    /**
+     * Adds the row of a keyed lock the first time the key is locked, with the next free ID. The global row is created
+     * by {@link #init()}.
+     */
+    private void insertLockRow() throws DatabaseException {
+        String key = getLockKey();
+        if (key == null) {
+            return;
+        }
+        String table = getLockTableName();
+        addLockKeyColumn(table);
+        try {
+            getExecutor().execute(new RawSqlStatement("INSERT INTO " + table + " (ID, LOCKED, " + LOCK_KEY_COLUMN
+                    + ") SELECT (SELECT COALESCE(MAX(ID), 1) + 1 FROM " + table + "), 0, "
+                    + IQLiteralWriter.quote(key.toUpperCase(Locale.US)) + " FROM SYS.DUMMY WHERE NOT EXISTS (SELECT 1 FROM "
+                    + table + " WHERE " + getLockRowCondition() + ")"));
+            database.commit();
+        } catch (DatabaseException e) {
+            // another process inserted a row at the same time; the next attempt inserts or finds ours
+            database.rollback();
+        }
+    }
+
+    /**
+     * Adds LOCKKEY to a DATABASECHANGELOGLOCK table created without it, once per service.
+     */
+    private void addLockKeyColumn(String table) throws DatabaseException {
+        if (lockKeyColumnChecked) {
+            return;
+        }
+        if (!hasLockKeyColumn(table)) {
+            try {
+                getExecutor().execute(new RawSqlStatement("ALTER TABLE " + table + " ADD " + LOCK_KEY_COLUMN
+                        + " VARCHAR(255) NULL"));
+                database.commit();
+            } catch (DatabaseException e) {
+                database.rollback();
+                if (!hasLockKeyColumn(table)) {
+                    throw e;
+                }
+            }
+        }
+        lockKeyColumnChecked = true;
+    }
+
+    private boolean hasLockKeyColumn(String table) throws DatabaseException {
+        try {
+            getExecutor().queryForList(new RawSqlStatement("SELECT " + LOCK_KEY_COLUMN + " FROM " + table
+                    + " WHERE 1 = 0"));
+            return true;
+        } catch (DatabaseException e) {
+            database.rollback();
+            return false;
+        }
+    }
+
+    /**
+     * Who holds the lock row of this service and since when, for the message of a lock that could not be acquired.
+     */
+    private String getLockHolder() {
+        try {
+            List<Map<String, ?>> rows = getExecutor().queryForList(new RawSqlStatement(
+                    "SELECT LOCKEDBY, LOCKGRANTED FROM " + getLockTableName() + " WHERE " + getLockRowCondition()));
+            if (!rows.isEmpty() && rows.get(0).get("LOCKEDBY") != null) {
+                String holder = rows.get(0).get("LOCKEDBY").toString();
+                Object granted = rows.get(0).get("LOCKGRANTED");
+                if (granted instanceof Date) {
+                    holder += " since " + DateFormat.getDateTimeInstance(DateFormat.SHORT, DateFormat.SHORT)
+                            .format((Date) granted);
+                }
+                return holder;
+            }
+        } catch (DatabaseException e) {
+            Scope.getCurrentScope().getLog(getClass()).fine("Error reading change log lock holder", e);
+        }
+        return "UNKNOWN";
+    }
+
+    private boolean openHeartbeatConnection() {
+        if (IQConfiguration.getInstance().getLockLeaseSeconds() <= 0) {
+            return false;
+        }
+        if (heartbeatConnection == null) {
+            heartbeatConnection = ((IQDatabase) database).openAdditionalConnection();
+        }
+        return heartbeatConnection != null;
+    }
+
+    private void closeHeartbeatConnection() {
+        if (heartbeatConnection != null) {
+            try {
+                heartbeatConnection.close();
+            } catch (SQLException e) {
+                // nothing to do
+            }
+            heartbeatConnection = null;
+        }
+    }
+
+    private void startHeartbeat(int leaseSeconds) {
+        if (heartbeatConnection == null) {
+            return;
+        }
+
+        String sql = "UPDATE " + getLockTableName() + " SET LOCKGRANTED = CURRENT TIMESTAMP WHERE "
+                + getLockRowCondition() + " AND LOCKED = 1 AND LOCKEDBY = ?";
+        Connection connection = heartbeatConnection;
+        String owner = lockedBy;
+        long leaseMillis = leaseSeconds * 1000L;
+        long period = Math.max(leaseMillis / 3, 1);
+        long[] lastRenewed = {System.currentTimeMillis()};
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "liquibase-iq-lock-heartbeat");
+            thread.setDaemon(true);
+            return thread;
+        });
+        heartbeat = scheduler;
+        scheduler.scheduleAtFixedRate(() -> {
+            try (PreparedStatement statement = connection.prepareStatement(sql)) {
+                statement.setString(1, owner);
+                int updated = statement.executeUpdate();
+                if (!connection.getAutoCommit()) {
+                    connection.commit();
+                }
+                if (updated == 0) {
+                    leaseLost(scheduler, "Change log lock lease could not be renewed, it is no longer held by " + owner);
+                } else {
+                    lastRenewed[0] = System.currentTimeMillis();
+                }
+            } catch (SQLException e) {
+                if (System.currentTimeMillis() - lastRenewed[0] >= leaseMillis) {
+                    leaseLost(scheduler, "Change log lock lease could not be renewed for " + leaseSeconds
+                            + " seconds: " + e.getMessage());
+                } else {
+                    Scope.getCurrentScope().getLog(getClass()).warning("Error renewing change log lock lease", e);
+                }
+            }
+        }, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Records that the lease is gone and stops renewing it. Until the lock is released or acquired again,
+     * {@link #hasChangeLogLock()} returns false and {@link IQDatabase#execute} fails.
+     */
+    private void leaseLost(ScheduledExecutorService scheduler, String reason) {
+        Scope.getCurrentScope().getLog(getClass()).severe(reason);
+        leaseLost = reason;
+        ((IQDatabase) database).setChangeLogLockLost(reason);
+        scheduler.shutdown();
+    }
+
+    private void clearLeaseLost() {
+        leaseLost = null;
+        if (database instanceof IQDatabase) {
+            ((IQDatabase) database).setChangeLogLockLost(null);
+        }
+    }
+
+    private void stopHeartbeat() {
+        if (heartbeat != null) {
+            heartbeat.shutdownNow();
+            try {
+                heartbeat.awaitTermination(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            heartbeat = null;
+        }
+        closeHeartbeatConnection();
+    }
+
+    private String getLockedBy(boolean lease) {
+        String host;
+        try {
+            host = NetUtil.getLocalHostName() + " (" + NetUtil.getLocalHostAddress() + ")";
+        } catch (Exception e) {
+            host = "unknown";
+        }
+        String key = getLockKey();
+        if (key != null) {
+            host += " on " + key;
+        }
+        String suffix = lease ? LEASE_MARKER + ownerId : " #" + ownerId;
+        if (host.length() + suffix.length() > 255) {
+            host = host.substring(0, 255 - suffix.length());
+        }
+        return host + suffix;
+    }
+
+    private String getLockTableName() {
+        return database.escapeTableName(database.getLiquibaseCatalogName(), database.getLiquibaseSchemaName(),
+                database.getDatabaseChangeLogLockTableName());
+    }
+
+    protected Executor getExecutor() {
+        return Scope.getCurrentScope().getSingleton(ExecutorService.class).getExecutor("jdbc", database);
+    }
+}
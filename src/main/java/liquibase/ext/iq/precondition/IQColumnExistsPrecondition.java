@@ -0,0 +1,36 @@
+package liquibase.ext.iq.precondition;
+
+import liquibase.changelog.ChangeSet;
+import liquibase.changelog.DatabaseChangeLog;
+import liquibase.changelog.visitor.ChangeExecListener;
+import liquibase.database.Database;
+import liquibase.exception.DatabaseException;
+import liquibase.exception.PreconditionErrorException;
+import liquibase.exception.PreconditionFailedException;
+import liquibase.ext.iq.database.IQCatalogLookup;
+import liquibase.precondition.core.ColumnExistsPrecondition;
+
+/**
+ * columnExists answered by the {@link IQCatalogLookup} of an IQ database instead of a snapshot.
+ */
+public class IQColumnExistsPrecondition extends ColumnExistsPrecondition {
+
+    @Override
+    public void check(Database database, DatabaseChangeLog changeLog, ChangeSet changeSet,
+                      ChangeExecListener changeExecListener)
+            throws PreconditionFailedException, PreconditionErrorException {
+        IQCatalogLookup lookup = IQCatalogLookup.forDatabase(database);
+        if (lookup == null) {
+            super.check(database, changeLog, changeSet, changeExecListener);
+            return;
+        }
+        try {
+            if (!lookup.columnExists(getSchemaName(), getTableName(), getColumnName())) {
+                throw new PreconditionFailedException("Column '" + database.escapeColumnName(getCatalogName(),
+                        getSchemaName(), getTableName(), getColumnName()) + "' does not exist", changeLog, this);
+            }
+        } catch (DatabaseException e) {
+            throw new PreconditionErrorException(e, changeLog, this);
+        }
+    }
+}
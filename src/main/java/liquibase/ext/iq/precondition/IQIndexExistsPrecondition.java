@@ -0,0 +1,54 @@
+package liquibase.ext.iq.precondition;
+
+import liquibase.changelog.ChangeSet;
+import liquibase.changelog.DatabaseChangeLog;
+import liquibase.changelog.visitor.ChangeExecListener;
+import liquibase.database.Database;
+import liquibase.exception.DatabaseException;
+import liquibase.exception.PreconditionErrorException;
+import liquibase.exception.PreconditionFailedException;
+import liquibase.ext.iq.database.IQCatalogLookup;
+import liquibase.precondition.core.IndexExistsPrecondition;
+import liquibase.structure.core.Index;
+import liquibase.structure.core.Table;
+import liquibase.util.StringUtil;
+
+import java.util.List;
+
+/**
+ * indexExists answered by the {@link IQCatalogLookup} of an IQ database instead of a snapshot.
+ */
+public class IQIndexExistsPrecondition extends IndexExistsPrecondition {
+
+    @Override
+    public void check(Database database, DatabaseChangeLog changeLog, ChangeSet changeSet,
+                      ChangeExecListener changeExecListener)
+            throws PreconditionFailedException, PreconditionErrorException {
+        IQCatalogLookup lookup = IQCatalogLookup.forDatabase(database);
+        if (lookup == null) {
+            super.check(database, changeLog, changeSet, changeExecListener);
+            return;
+        }
+        List<String> columnNames = null;
+        if (StringUtil.trimToNull(getColumnNames()) != null) {
+            columnNames = StringUtil.splitAndTrim(getColumnNames(), ",");
+        }
+        try {
+            if (!lookup.indexExists(getSchemaName(), getTableName(), getIndexName(), columnNames)) {
+                String name = "";
+                if (getIndexName() != null) {
+                    name += database.escapeObjectName(getIndexName(), Index.class);
+                }
+                if (getTableName() != null) {
+                    name += " on " + database.escapeObjectName(getTableName(), Table.class);
+                    if (StringUtil.trimToNull(getColumnNames()) != null) {
+                        name += " columns " + getColumnNames();
+                    }
+                }
+                throw new PreconditionFailedException("Index " + name + " does not exist", changeLog, this);
+            }
+        } catch (DatabaseException e) {
+            throw new PreconditionErrorException(e, changeLog, this);
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package liquibase.ext.iq.precondition;
+
+import liquibase.precondition.Precondition;
+import liquibase.precondition.PreconditionFactory;
+
+/**
+ * Registers the IQ existence preconditions in place of the core ones of the same name.
+ * <p>
+ * {@link PreconditionFactory} keeps one class per name and the last one registered wins, so the services file alone
+ * leaves the choice to the order in which the service loader finds liquibase-core and this extension. Registering
+ * again once an IQ connection is set makes the overrides apply regardless of that order; on other databases they
+ * defer to the core preconditions anyway.
+ */
+public final class IQPreconditions {
+
+    private IQPreconditions() {
+    }
+
+    public static void register() {
+        PreconditionFactory factory = PreconditionFactory.getInstance();
+        for (Precondition precondition : new Precondition[] {new IQTableExistsPrecondition(),
+                new IQColumnExistsPrecondition(), new IQIndexExistsPrecondition(),
+                new IQForeignKeyExistsPrecondition()}) {
+            if (factory.getPreconditions().get(precondition.getName()) != precondition.getClass()) {
+                factory.register(precondition);
+            }
+        }
+    }
+}
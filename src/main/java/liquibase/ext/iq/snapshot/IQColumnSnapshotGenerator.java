@@ -0,0 +1,144 @@
+package liquibase.ext.iq.snapshot;
+
+import liquibase.database.Database;
+import liquibase.exception.DatabaseException;
+import liquibase.ext.iq.database.IQDatabase;
+import liquibase.snapshot.CachedRow;
+import liquibase.snapshot.DatabaseSnapshot;
+import liquibase.snapshot.IQResultSetCache;
+import liquibase.snapshot.SnapshotGenerator;
+import liquibase.snapshot.jvm.ColumnSnapshotGenerator;
+import liquibase.structure.DatabaseObject;
+import liquibase.structure.core.Column;
+import liquibase.structure.core.Relation;
+import liquibase.structure.core.Schema;
+
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * Reads the columns of all tables and views of a schema with one query on SYS.SYSTABCOL/SYS.SYSDOMAIN. The rows
+ * use the column labels of DatabaseMetaData.getColumns so they can be turned into {@link Column}s by the core code.
+ */
+public class IQColumnSnapshotGenerator extends ColumnSnapshotGenerator {
+
+    /**
+     * Marks columns read completely in {@link #addTo}, as the private constant of {@link ColumnSnapshotGenerator}.
+     */
+    private static final String LIQUIBASE_COMPLETE = "liquibase-complete";
+
+    @Override
+    public int getPriority(Class<? extends DatabaseObject> objectType, Database database) {
+        int priority = super.getPriority(objectType, database);
+        if (database instanceof IQDatabase) {
+            priority += PRIORITY_DATABASE;
+        }
+        return priority;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Class<? extends SnapshotGenerator>[] replaces() {
+        return new Class[] { ColumnSnapshotGenerator.class };
+    }
+
+    @Override
+    protected DatabaseObject snapshotObject(DatabaseObject example, DatabaseSnapshot snapshot) throws DatabaseException {
+        Database database = snapshot.getDatabase();
+        if (!(database instanceof IQDatabase)) {
+            return super.snapshotObject(example, snapshot);
+        }
+        if (example.getAttribute(LIQUIBASE_COMPLETE, false)) {
+            example.setAttribute(LIQUIBASE_COMPLETE, null);
+            return example;
+        }
+        Column exampleColumn = (Column) example;
+        if (Boolean.TRUE.equals(exampleColumn.getComputed()) || exampleColumn.getRelation() == null) {
+            return example;
+        }
+
+        Relation relation = exampleColumn.getRelation();
+        try {
+            List<CachedRow> rows = IQResultSetCache.forSnapshot(snapshot)
+                    .get(new ColumnsExtractor(database, relation.getSchema(), relation.getName(), example.getName()));
+            if (rows.isEmpty()) {
+                return null;
+            }
+            return readColumn(rows.get(0), relation, database);
+        } catch (SQLException e) {
+            throw new DatabaseException(e);
+        }
+    }
+
+    @Override
+    protected void addTo(DatabaseObject foundObject, DatabaseSnapshot snapshot) throws DatabaseException {
+        Database database = snapshot.getDatabase();
+        if (!(database instanceof IQDatabase)) {
+            super.addTo(foundObject, snapshot);
+            return;
+        }
+        if (!snapshot.getSnapshotControl().shouldInclude(Column.class) || !(foundObject instanceof Relation)) {
+            return;
+        }
+        Relation relation = (Relation) foundObject;
+        try {
+            for (CachedRow row : IQResultSetCache.forSnapshot(snapshot)
+                    .get(new ColumnsExtractor(database, relation.getSchema(), relation.getName(), null))) {
+                Column column = readColumn(row, relation, database);
+                column.setAttribute(LIQUIBASE_COMPLETE, true);
+                relation.getColumns().add(column);
+            }
+        } catch (SQLException e) {
+            throw new DatabaseException(e);
+        }
+    }
+
+    static class ColumnsExtractor extends IQResultSetCache.SingleResultSetExtractor {
+        private final String tableName;
+        private final String columnName;
+
+        ColumnsExtractor(Database database, Schema schema, String tableName, String columnName) {
+            super(database, schema.getCatalogName(), schema.getName());
+            this.tableName = tableName;
+            this.columnName = columnName;
+        }
+
+        @Override
+        public IQResultSetCache.RowData rowKeyParameters(CachedRow row) {
+            return new IQResultSetCache.RowData(row.getString("TABLE_CAT"), row.getString("TABLE_SCHEM"), database,
+                    row.getString("TABLE_NAME"), row.getString("COLUMN_NAME"));
+        }
+
+        @Override
+        public IQResultSetCache.RowData wantedKeyParameters() {
+            return new IQResultSetCache.RowData(catalogName, schemaName, database, tableName, columnName);
+        }
+
+        @Override
+        protected String getTableNameColumn() {
+            return "TABLE_NAME";
+        }
+
+        @Override
+        public List<CachedRow> bulkFetchQuery() throws SQLException, DatabaseException {
+            // SYSDOMAIN.type_id holds ODBC type codes; ODBC 2 DATE/TIME/TIMESTAMP are mapped to their JDBC values
+            return executeAndExtract("SELECT " + (catalogName == null ? "NULL" : quote(catalogName)) + " AS TABLE_CAT, "
+                    + "u.user_name AS TABLE_SCHEM, t.table_name AS TABLE_NAME, c.column_name AS COLUMN_NAME, "
+                    + "CASE d.type_id WHEN 9 THEN 91 WHEN 10 THEN 92 WHEN 11 THEN 93 ELSE d.type_id END AS DATA_TYPE, "
+                    + "d.domain_name AS TYPE_NAME, c.width AS COLUMN_SIZE, c.scale AS DECIMAL_DIGITS, "
+                    + "CASE c.nulls WHEN 'Y' THEN 1 ELSE 0 END AS NULLABLE, "
+                    + "CASE c.nulls WHEN 'Y' THEN 'YES' ELSE 'NO' END AS IS_NULLABLE, "
+                    + "c.\"default\" AS COLUMN_DEF, r.remarks AS REMARKS, c.column_id AS ORDINAL_POSITION, "
+                    + "CASE WHEN LOWER(c.\"default\") = 'autoincrement' THEN 'YES' ELSE 'NO' END AS IS_AUTOINCREMENT "
+                    + "FROM SYS.SYSTABCOL c "
+                    + "JOIN SYS.SYSTAB t ON t.table_id = c.table_id "
+                    + "JOIN SYS.SYSUSER u ON u.user_id = t.creator "
+                    + "JOIN SYS.SYSDOMAIN d ON d.domain_id = c.domain_id "
+                    + "LEFT OUTER JOIN SYS.SYSREMARK r ON r.object_id = c.object_id "
+                    + "WHERE u.user_name = " + quote(schemaName) + " "
+                    + tableFilter("t.table_name")
+                    + objectFilter("table", "t.table_name", "u.user_name")
+                    + "ORDER BY t.table_name, c.column_id", database);
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package liquibase.ext.iq.snapshot;
+
+import liquibase.database.Database;
+import liquibase.exception.DatabaseException;
+import liquibase.ext.iq.database.IQDatabase;
+import liquibase.snapshot.CachedRow;
+import liquibase.snapshot.DatabaseSnapshot;
+import liquibase.snapshot.IQResultSetCache;
+import liquibase.snapshot.InvalidExampleException;
+import liquibase.snapshot.SnapshotGenerator;
+import liquibase.snapshot.jvm.IndexSnapshotGenerator;
+import liquibase.structure.DatabaseObject;
+import liquibase.structure.core.Column;
+import liquibase.structure.core.Index;
+import liquibase.structure.core.Relation;
+import liquibase.structure.core.Schema;
+import liquibase.structure.core.Table;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads all indexes of a schema with one query on SYS.SYSIDX/SYS.SYSIQIDX/SYS.SYSIDXCOL. The IQ index type
+ * (HG, LF, HNG, WD, TEXT, DATE, TIME, DTTM, CMP) is kept in the {@link #INDEX_TYPE_ATTRIBUTE} attribute of the
+ * {@link Index}. The FP indexes IQ creates for every column are not reported.
+ */
+public class IQIndexSnapshotGenerator extends IndexSnapshotGenerator {
+
+    public static final String INDEX_TYPE_ATTRIBUTE = "iqIndexType";
+
+    @Override
+    public int getPriority(Class<? extends DatabaseObject> objectType, Database database) {
+        int priority = super.getPriority(objectType, database);
+        if (database instanceof IQDatabase) {
+            priority += PRIORITY_DATABASE;
+        }
+        return priority;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Class<? extends SnapshotGenerator>[] replaces() {
+        return new Class[] { IndexSnapshotGenerator.class };
+    }
+
+    @Override
+    protected DatabaseObject snapshotObject(DatabaseObject example, DatabaseSnapshot snapshot)
+            throws DatabaseException, InvalidExampleException {
+        Database database = snapshot.getDatabase();
+        if (!(database instanceof IQDatabase)) {
+            return super.snapshotObject(example, snapshot);
+        }
+        Index exampleIndex = (Index) example;
+        Relation relation = exampleIndex.getRelation();
+        Schema schema = relation == null ? example.getSchema() : relation.getSchema();
+        if (schema == null) {
+            return null;
+        }
+
+        String tableName = relation == null ? null : relation.getName();
+        for (Index index : readIndexes(snapshot, schema, tableName, exampleIndex.getName(), relation)) {
+            if (exampleIndex.getName() != null || sameColumns(exampleIndex, index)) {
+                return index;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    protected void addTo(DatabaseObject foundObject, DatabaseSnapshot snapshot)
+            throws DatabaseException, InvalidExampleException {
+        Database database = snapshot.getDatabase();
+        if (!(database instanceof IQDatabase)) {
+            super.addTo(foundObject, snapshot);
+            return;
+        }
+        if (!snapshot.getSnapshotControl().shouldInclude(Index.class) || !(foundObject instanceof Table)) {
+            return;
+        }
+        Table table = (Table) foundObject;
+        table.getIndexes().addAll(readIndexes(snapshot, table.getSchema(), table.getName(), null, table));
+    }
+
+    protected List<Index> readIndexes(DatabaseSnapshot snapshot, Schema schema, String tableName, String indexName,
+                                      Relation relation) throws DatabaseException {
+        Database database = snapshot.getDatabase();
+        Map<String, Index> indexes = new LinkedHashMap<>();
+        for (CachedRow row : IQResultSetCache.forSnapshot(snapshot)
+                .get(new IndexesExtractor(database, schema, tableName, indexName))) {
+            Relation indexRelation = relation;
+            if (indexRelation == null) {
+                indexRelation = new Table().setName(row.getString("TABLE_NAME")).setSchema(schema);
+            }
+            String key = row.getString("TABLE_NAME") + "." + row.getString("INDEX_NAME");
+            Index index = indexes.get(key);
+            if (index == null) {
+                index = new Index()
+                        .setName(row.getString("INDEX_NAME"))
+                        .setRelation(indexRelation)
+                        .setUnique(Integer.valueOf(0).equals(row.getInt("NON_UNIQUE")));
+                index.setAttribute(INDEX_TYPE_ATTRIBUTE, row.getString("INDEX_TYPE"));
+                indexes.put(key, index);
+            }
+            index.addColumn(new Column(row.getString("COLUMN_NAME"))
+                    .setDescending("D".equals(row.getString("ASC_OR_DESC")))
+                    .setRelation(indexRelation));
+        }
+        return new ArrayList<>(indexes.values());
+    }
+
+    private boolean sameColumns(Index example, Index index) {
+        if (example.getColumns().size() != index.getColumns().size()) {
+            return false;
+        }
+        for (int i = 0; i < example.getColumns().size(); i++) {
+            if (!example.getColumns().get(i).getName().equalsIgnoreCase(index.getColumns().get(i).getName())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    static class IndexesExtractor extends IQResultSetCache.SingleResultSetExtractor {
+        private final String tableName;
+        private final String indexName;
+
+        IndexesExtractor(Database database, Schema schema, String tableName, String indexName) {
+            super(database, schema.getCatalogName(), schema.getName());
+            this.tableName = tableName;
+            this.indexName = indexName;
+        }
+
+        @Override
+        public IQResultSetCache.RowData rowKeyParameters(CachedRow row) {
+            return new IQResultSetCache.RowData(catalogName, row.getString("TABLE_SCHEM"), database,
+                    row.getString("TABLE_NAME"), row.getString("INDEX_NAME"));
+        }
+
+        @Override
+        public IQResultSetCache.RowData wantedKeyParameters() {
+            return new IQResultSetCache.RowData(catalogName, schemaName, database, tableName, indexName);
+        }
+
+        @Override
+        protected String getTableNameColumn() {
+            return "TABLE_NAME";
+        }
+
+        @Override
+        public List<CachedRow> bulkFetchQuery() throws SQLException, DatabaseException {
+            // SYSIDX."unique" 4 = non-unique index
+            return executeAndExtract("SELECT u.user_name AS TABLE_SCHEM, t.table_name AS TABLE_NAME, "
+                    + "i.index_name AS INDEX_NAME, q.index_type AS INDEX_TYPE, "
+                    + "CASE i.\"unique\" WHEN 4 THEN 1 ELSE 0 END AS NON_UNIQUE, "
+                    + "c.column_name AS COLUMN_NAME, ic.sequence AS ORDINAL_POSITION, ic.\"order\" AS ASC_OR_DESC "
+                    + "FROM SYS.SYSIDX i "
+                    + "JOIN SYS.SYSIQIDX q ON q.table_id = i.table_id AND q.index_id = i.index_id "
+                    + "JOIN SYS.SYSTAB t ON t.table_id = i.table_id "
+                    + "JOIN SYS.SYSUSER u ON u.user_id = t.creator "
+                    + "JOIN SYS.SYSIDXCOL ic ON ic.table_id = i.table_id AND ic.index_id = i.index_id "
+                    + "JOIN SYS.SYSTABCOL c ON c.table_id = ic.table_id AND c.column_id = ic.column_id "
+                    + "WHERE q.index_type <> 'FP' AND u.user_name = " + quote(schemaName) + " "
+                    + tableFilter("t.table_name")
+                    + objectFilter("table", "t.table_name", "u.user_name")
+                    + "ORDER BY t.table_name, i.index_name, ic.sequence", database);
+        }
+    }
+}
@@ -3,16 +3,30 @@ package liquibase.ext.iq.snapshot;
 import liquibase.database.Database;
 import liquibase.database.jvm.JdbcConnection;
 import liquibase.exception.DatabaseException;
+import liquibase.ext.iq.configuration.IQConfiguration;
 import liquibase.ext.iq.database.IQDatabase;
+import liquibase.snapshot.DatabaseSnapshot;
+import liquibase.snapshot.IQCatalogFilter;
+import liquibase.snapshot.InvalidExampleException;
 import liquibase.snapshot.jvm.SchemaSnapshotGenerator;
 import liquibase.structure.DatabaseObject;
+import liquibase.structure.core.Schema;
 import liquibase.util.JdbcUtils;
+import liquibase.util.StringUtil;
 
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
+/**
+ * With <code>liquibase.iq.snapshotConnections</code> above 0, starts reading the catalog of a schema on additional
+ * connections as soon as the schema is snapshotted, together with the schemas listed in
+ * <code>liquibase.iq.snapshotSchemas</code>. See {@link IQSnapshotPrefetcher}. Schemas rejected by the
+ * <code>schema:</code> items of the {@link IQCatalogFilter object filter} are not prefetched.
+ */
 public class IQSchemaSnapshotGenerator extends SchemaSnapshotGenerator {
     @Override
     public int getPriority(Class<? extends DatabaseObject> objectType, Database database) {
@@ -23,6 +37,41 @@ public class IQSchemaSnapshotGenerator extends SchemaSnapshotGenerator {
         return priority;
     }
 
+    @Override
+    protected DatabaseObject snapshotObject(DatabaseObject example, DatabaseSnapshot snapshot)
+            throws DatabaseException, InvalidExampleException {
+        DatabaseObject schema = super.snapshotObject(example, snapshot);
+        if (schema != null && snapshot.getDatabase() instanceof IQDatabase) {
+            int connections = IQConfiguration.getInstance().getSnapshotConnections();
+            if (connections > 0 && IQCatalogFilter.fromConfiguration().accepts("schema", schema.getName())) {
+                IQSnapshotPrefetcher.prefetch(snapshot, getPrefetchSchemas((Schema) schema, snapshot.getDatabase()),
+                        connections);
+            }
+        }
+        return schema;
+    }
+
+    /**
+     * The snapshotted schema first, so its rows are fetched first, followed by the configured schemas.
+     */
+    private List<Schema> getPrefetchSchemas(Schema schema, Database database) {
+        Map<String, Schema> schemas = new LinkedHashMap<>();
+        schemas.put(String.valueOf(schema.getName()).toUpperCase(), schema);
+        String configured = IQConfiguration.getInstance().getSnapshotSchemas();
+        IQCatalogFilter filter = IQCatalogFilter.fromConfiguration();
+        if (StringUtil.isEmpty(configured)) {
+            return new ArrayList<>(schemas.values());
+        }
+        for (String name : StringUtil.splitAndTrim(configured, ",")) {
+            String schemaName = database.correctObjectName(name, Schema.class);
+            if (!filter.accepts("schema", schemaName)) {
+                continue;
+            }
+            schemas.putIfAbsent(schemaName.toUpperCase(), new Schema(schema.getCatalogName(), schemaName));
+        }
+        return new ArrayList<>(schemas.values());
+    }
+
     @Override
     protected String[] getDatabaseSchemaNames(Database database) throws SQLException, DatabaseException {
         List<String> returnList = new ArrayList<>();
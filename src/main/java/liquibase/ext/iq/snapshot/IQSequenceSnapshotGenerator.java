@@ -0,0 +1,123 @@
+package liquibase.ext.iq.snapshot;
+
+import liquibase.database.Database;
+import liquibase.exception.DatabaseException;
+import liquibase.ext.iq.database.IQDatabase;
+import liquibase.snapshot.CachedRow;
+import liquibase.snapshot.DatabaseSnapshot;
+import liquibase.snapshot.IQResultSetCache;
+import liquibase.snapshot.InvalidExampleException;
+import liquibase.snapshot.SnapshotGenerator;
+import liquibase.snapshot.jvm.SequenceSnapshotGenerator;
+import liquibase.structure.DatabaseObject;
+import liquibase.structure.core.Schema;
+import liquibase.structure.core.Sequence;
+
+import java.math.BigInteger;
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * Reads all sequences of a schema with one query on SYS.SYSSEQUENCE.
+ */
+public class IQSequenceSnapshotGenerator extends SequenceSnapshotGenerator {
+    @Override
+    public int getPriority(Class<? extends DatabaseObject> objectType, Database database) {
+        int priority = super.getPriority(objectType, database);
+        if (database instanceof IQDatabase) {
+            priority += PRIORITY_DATABASE;
+        }
+        return priority;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Class<? extends SnapshotGenerator>[] replaces() {
+        return new Class[] { SequenceSnapshotGenerator.class };
+    }
+
+    @Override
+    protected DatabaseObject snapshotObject(DatabaseObject example, DatabaseSnapshot snapshot) throws DatabaseException {
+        Database database = snapshot.getDatabase();
+        if (!(database instanceof IQDatabase)) {
+            return super.snapshotObject(example, snapshot);
+        }
+        if (example.getSchema() == null) {
+            return example;
+        }
+        List<CachedRow> rows = IQResultSetCache.forSnapshot(snapshot)
+                .get(new SequencesExtractor(database, example.getSchema(), example.getName()));
+        if (rows.isEmpty()) {
+            return null;
+        }
+        return readSequence(rows.get(0), example.getSchema());
+    }
+
+    @Override
+    protected void addTo(DatabaseObject foundObject, DatabaseSnapshot snapshot)
+            throws DatabaseException, InvalidExampleException {
+        Database database = snapshot.getDatabase();
+        if (!(database instanceof IQDatabase)) {
+            super.addTo(foundObject, snapshot);
+            return;
+        }
+        if (!snapshot.getSnapshotControl().shouldInclude(Sequence.class) || !(foundObject instanceof Schema)) {
+            return;
+        }
+        Schema schema = (Schema) foundObject;
+        for (CachedRow row : IQResultSetCache.forSnapshot(snapshot).get(new SequencesExtractor(database, schema, null))) {
+            schema.addDatabaseObject(readSequence(row, schema));
+        }
+    }
+
+    protected Sequence readSequence(CachedRow row, Schema schema) {
+        Sequence sequence = new Sequence();
+        sequence.setName(row.getString("SEQUENCE_NAME"));
+        sequence.setSchema(schema);
+        sequence.setStartValue(toBigInteger(row.get("START_VALUE")));
+        sequence.setIncrementBy(toBigInteger(row.get("INCREMENT_BY")));
+        sequence.setMinValue(toBigInteger(row.get("MIN_VALUE")));
+        sequence.setMaxValue(toBigInteger(row.get("MAX_VALUE")));
+        sequence.setCacheSize(toBigInteger(row.get("CACHE_SIZE")));
+        sequence.setWillCycle(row.getInt("WILL_CYCLE") != null && row.getInt("WILL_CYCLE") != 0);
+        return sequence;
+    }
+
+    private BigInteger toBigInteger(Object value) {
+        if (value == null) {
+            return null;
+        }
+        return new BigInteger(value.toString());
+    }
+
+    static class SequencesExtractor extends IQResultSetCache.SingleResultSetExtractor {
+        private final String sequenceName;
+
+        SequencesExtractor(Database database, Schema schema, String sequenceName) {
+            super(database, schema.getCatalogName(), schema.getName());
+            this.sequenceName = sequenceName;
+        }
+
+        @Override
+        public IQResultSetCache.RowData rowKeyParameters(CachedRow row) {
+            return new IQResultSetCache.RowData(catalogName, row.getString("SEQUENCE_SCHEM"), database,
+                    row.getString("SEQUENCE_NAME"));
+        }
+
+        @Override
+        public IQResultSetCache.RowData wantedKeyParameters() {
+            return new IQResultSetCache.RowData(catalogName, schemaName, database, sequenceName);
+        }
+
+        @Override
+        public List<CachedRow> bulkFetchQuery() throws SQLException, DatabaseException {
+            return executeAndExtract("SELECT u.user_name AS SEQUENCE_SCHEM, s.sequence_name AS SEQUENCE_NAME, "
+                    + "s.start_with AS START_VALUE, s.increment_by AS INCREMENT_BY, s.min_value AS MIN_VALUE, "
+                    + "s.max_value AS MAX_VALUE, s.cache AS CACHE_SIZE, CAST(s.cycle AS INT) AS WILL_CYCLE "
+                    + "FROM SYS.SYSSEQUENCE s "
+                    + "JOIN SYS.SYSUSER u ON u.user_id = s.owner "
+                    + "WHERE u.user_name = " + quote(schemaName)
+                    + objectFilter("sequence", "s.sequence_name", "u.user_name"), database);
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package liquibase.ext.iq.snapshot;
+
+import liquibase.Scope;
+import liquibase.exception.DatabaseException;
+import liquibase.ext.iq.database.IQDatabase;
+import liquibase.snapshot.CachedRow;
+import liquibase.snapshot.DatabaseSnapshot;
+import liquibase.snapshot.IQResultSetCache;
+import liquibase.snapshot.SnapshotControl;
+import liquibase.structure.core.Column;
+import liquibase.structure.core.Index;
+import liquibase.structure.core.Schema;
+import liquibase.structure.core.Sequence;
+import liquibase.structure.core.Table;
+import liquibase.structure.core.UniqueConstraint;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs the catalog queries of the IQ snapshot generators for several schemas and object types at the same time on
+ * a bounded set of additional connections. The results are handed to the {@link IQResultSetCache} of the snapshot,
+ * so the generators still build a single {@link DatabaseSnapshot} on the main connection and only wait for rows
+ * that are not fetched yet.
+ * <p>
+ * With <code>liquibase.iq.connectionPrefetch</code>, {@link IQDatabase} also starts reading the tables, columns and
+ * indexes of the default and Liquibase schemas as soon as a connection is set, while the changelog is parsed. Those
+ * results are kept in the {@link IQDatabase#getConnectionCache() connection cache}, and each query result is taken by
+ * the first snapshot that needs it.
+ */
+public class IQSnapshotPrefetcher {
+
+    private IQSnapshotPrefetcher() {
+    }
+
+    static void prefetch(DatabaseSnapshot snapshot, Collection<Schema> schemas, int connections) {
+        prefetch((IQDatabase) snapshot.getDatabase(), IQResultSetCache.forSnapshot(snapshot), schemas,
+                snapshot.getSnapshotControl(), connections);
+    }
+
+    /**
+     * Starts reading the tables, columns and indexes of the default schema, and of the Liquibase schema if it is
+     * another one, on one additional connection. Returns the cache the results are registered in, or null if no
+     * connection could be opened.
+     */
+    public static IQResultSetCache prefetchConnection(IQDatabase database) {
+        Map<String, Schema> schemas = new LinkedHashMap<>();
+        for (String schemaName : new String[] {database.getDefaultSchemaName(), database.getLiquibaseSchemaName()}) {
+            if (schemaName != null) {
+                schemas.putIfAbsent(schemaName.toUpperCase(), new Schema(database.getDefaultCatalogName(), schemaName));
+            }
+        }
+        if (schemas.isEmpty()) {
+            return null;
+        }
+        IQResultSetCache cache = new IQResultSetCache();
+        SnapshotControl control = new SnapshotControl(database, Table.class, Column.class, Index.class);
+        return prefetch(database, cache, schemas.values(), control, 1) ? cache : null;
+    }
+
+    private static boolean prefetch(IQDatabase database, IQResultSetCache cache, Collection<Schema> schemas,
+                                    SnapshotControl control, int connections) {
+        List<IQResultSetCache.SingleResultSetExtractor> extractors = new ArrayList<>();
+        for (Schema schema : schemas) {
+            for (IQResultSetCache.SingleResultSetExtractor extractor : getExtractors(database, schema, control)) {
+                if (!cache.isPrefetched(extractor)) {
+                    extractors.add(extractor);
+                }
+            }
+        }
+        if (extractors.isEmpty()) {
+            return false;
+        }
+
+        List<Connection> opened = new ArrayList<>();
+        for (int i = 0; i < Math.min(connections, extractors.size()); i++) {
+            Connection connection = database.openAdditionalConnection();
+            if (connection == null) {
+                break;
+            }
+            opened.add(connection);
+        }
+        if (opened.isEmpty()) {
+            Scope.getCurrentScope().getLog(IQSnapshotPrefetcher.class)
+                    .warning("No additional connection available, reading the catalog on the main connection");
+            return false;
+        }
+
+        BlockingQueue<Connection> pool = new LinkedBlockingQueue<>(opened);
+        ExecutorService executor = Executors.newFixedThreadPool(opened.size(), runnable -> {
+            Thread thread = new Thread(runnable, "iq-snapshot-prefetch");
+            thread.setDaemon(true);
+            return thread;
+        });
+        // one count for this method and one per submitted task; whoever brings it to zero closes the connections
+        AtomicInteger running = new AtomicInteger(1);
+        for (IQResultSetCache.SingleResultSetExtractor extractor : extractors) {
+            CompletableFuture<List<CachedRow>> rows = new CompletableFuture<>();
+            if (!cache.addPrefetch(extractor, rows)) {
+                continue;
+            }
+            running.incrementAndGet();
+            executor.execute(() -> {
+                try {
+                    if (!rows.isDone()) {
+                        rows.complete(fetch(extractor, pool));
+                    }
+                } catch (Throwable e) {
+                    rows.completeExceptionally(e instanceof CompletionException ? e.getCause() : e);
+                } finally {
+                    if (running.decrementAndGet() == 0) {
+                        close(executor, opened);
+                    }
+                }
+            });
+        }
+        if (running.decrementAndGet() == 0) {
+            close(executor, opened);
+        }
+        return true;
+    }
+
+    private static List<IQResultSetCache.SingleResultSetExtractor> getExtractors(IQDatabase database, Schema schema,
+                                                                                 SnapshotControl control) {
+        List<IQResultSetCache.SingleResultSetExtractor> extractors = new ArrayList<>();
+        if (control.shouldInclude(Table.class)) {
+            extractors.add(new IQTableSnapshotGenerator.TablesExtractor(database, schema, null));
+        }
+        if (control.shouldInclude(Column.class)) {
+            extractors.add(new IQColumnSnapshotGenerator.ColumnsExtractor(database, schema, null, null));
+        }
+        if (control.shouldInclude(Index.class)) {
+            extractors.add(new IQIndexSnapshotGenerator.IndexesExtractor(database, schema, null, null));
+        }
+        if (control.shouldInclude(UniqueConstraint.class)) {
+            extractors.add(new IQUniqueConstraintSnapshotGenerator.UniqueConstraintsExtractor(database, schema, null, null));
+        }
+        if (control.shouldInclude(Sequence.class)) {
+            extractors.add(new IQSequenceSnapshotGenerator.SequencesExtractor(database, schema, null));
+        }
+        return extractors;
+    }
+
+    private static void close(ExecutorService executor, List<Connection> connections) {
+        executor.shutdown();
+        for (Connection connection : connections) {
+            try {
+                connection.close();
+            } catch (SQLException e) {
+                Scope.getCurrentScope().getLog(IQSnapshotPrefetcher.class).fine("Error closing connection", e);
+            }
+        }
+    }
+
+    private static List<CachedRow> fetch(IQResultSetCache.SingleResultSetExtractor extractor,
+                                         BlockingQueue<Connection> pool) {
+        Connection connection;
+        try {
+            connection = pool.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CompletionException(e);
+        }
+        try {
+            return extractor.withConnection(connection).bulkFetchQuery();
+        } catch (SQLException | DatabaseException e) {
+            throw new CompletionException(e);
+        } finally {
+            pool.add(connection);
+        }
+    }
+}
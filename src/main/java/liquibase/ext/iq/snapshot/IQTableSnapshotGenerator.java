@@ -0,0 +1,114 @@
+package liquibase.ext.iq.snapshot;
+
+import liquibase.database.Database;
+import liquibase.exception.DatabaseException;
+import liquibase.ext.iq.database.IQDatabase;
+import liquibase.snapshot.CachedRow;
+import liquibase.snapshot.DatabaseSnapshot;
+import liquibase.snapshot.IQResultSetCache;
+import liquibase.snapshot.InvalidExampleException;
+import liquibase.snapshot.SnapshotGenerator;
+import liquibase.snapshot.jvm.TableSnapshotGenerator;
+import liquibase.structure.DatabaseObject;
+import liquibase.structure.core.Schema;
+import liquibase.structure.core.Table;
+
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * Reads all base tables of a schema with one query on SYS.SYSTAB instead of DatabaseMetaData.getTables calls.
+ */
+public class IQTableSnapshotGenerator extends TableSnapshotGenerator {
+    @Override
+    public int getPriority(Class<? extends DatabaseObject> objectType, Database database) {
+        int priority = super.getPriority(objectType, database);
+        if (database instanceof IQDatabase) {
+            priority += PRIORITY_DATABASE;
+        }
+        return priority;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Class<? extends SnapshotGenerator>[] replaces() {
+        return new Class[] { TableSnapshotGenerator.class };
+    }
+
+    @Override
+    protected DatabaseObject snapshotObject(DatabaseObject example, DatabaseSnapshot snapshot) throws DatabaseException {
+        Database database = snapshot.getDatabase();
+        if (!(database instanceof IQDatabase)) {
+            return super.snapshotObject(example, snapshot);
+        }
+        try {
+            List<CachedRow> rows = IQResultSetCache.forSnapshot(snapshot)
+                    .get(new TablesExtractor(database, example.getSchema(), example.getName()));
+            if (rows.isEmpty()) {
+                return null;
+            }
+            return readTable(rows.get(0), database);
+        } catch (SQLException e) {
+            throw new DatabaseException(e);
+        }
+    }
+
+    @Override
+    protected void addTo(DatabaseObject foundObject, DatabaseSnapshot snapshot)
+            throws DatabaseException, InvalidExampleException {
+        Database database = snapshot.getDatabase();
+        if (!(database instanceof IQDatabase)) {
+            super.addTo(foundObject, snapshot);
+            return;
+        }
+        if (!snapshot.getSnapshotControl().shouldInclude(Table.class) || !(foundObject instanceof Schema)) {
+            return;
+        }
+        Schema schema = (Schema) foundObject;
+        try {
+            for (CachedRow row : IQResultSetCache.forSnapshot(snapshot).get(new TablesExtractor(database, schema, null))) {
+                schema.addDatabaseObject(readTable(row, database));
+            }
+        } catch (SQLException e) {
+            throw new DatabaseException(e);
+        }
+    }
+
+    static class TablesExtractor extends IQResultSetCache.SingleResultSetExtractor {
+        private final String tableName;
+
+        TablesExtractor(Database database, Schema schema, String tableName) {
+            super(database, schema.getCatalogName(), schema.getName());
+            this.tableName = tableName;
+        }
+
+        @Override
+        public IQResultSetCache.RowData rowKeyParameters(CachedRow row) {
+            return new IQResultSetCache.RowData(row.getString("TABLE_CAT"), row.getString("TABLE_SCHEM"), database,
+                    row.getString("TABLE_NAME"));
+        }
+
+        @Override
+        public IQResultSetCache.RowData wantedKeyParameters() {
+            return new IQResultSetCache.RowData(catalogName, schemaName, database, tableName);
+        }
+
+        @Override
+        protected String getTableNameColumn() {
+            return "TABLE_NAME";
+        }
+
+        @Override
+        public List<CachedRow> bulkFetchQuery() throws SQLException, DatabaseException {
+            return executeAndExtract("SELECT " + (catalogName == null ? "NULL" : quote(catalogName)) + " AS TABLE_CAT, "
+                    + "u.user_name AS TABLE_SCHEM, t.table_name AS TABLE_NAME, 'TABLE' AS TABLE_TYPE, "
+                    + "r.remarks AS REMARKS "
+                    + "FROM SYS.SYSTAB t "
+                    + "JOIN SYS.SYSUSER u ON u.user_id = t.creator "
+                    + "LEFT OUTER JOIN SYS.SYSREMARK r ON r.object_id = t.object_id "
+                    + "WHERE t.table_type_str = 'BASE' AND u.user_name = " + quote(schemaName)
+                    + tableFilter("t.table_name")
+                    + objectFilter("table", "t.table_name", "u.user_name"), database);
+        }
+    }
+}
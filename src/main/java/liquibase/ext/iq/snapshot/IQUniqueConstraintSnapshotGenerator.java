@@ -0,0 +1,125 @@
+package liquibase.ext.iq.snapshot;
+
+import liquibase.database.Database;
+import liquibase.exception.DatabaseException;
+import liquibase.ext.iq.database.IQDatabase;
+import liquibase.snapshot.CachedRow;
+import liquibase.snapshot.DatabaseSnapshot;
+import liquibase.snapshot.IQResultSetCache;
+import liquibase.snapshot.SnapshotGenerator;
+import liquibase.snapshot.jvm.UniqueConstraintSnapshotGenerator;
+import liquibase.structure.DatabaseObject;
+import liquibase.structure.core.Relation;
+import liquibase.structure.core.Schema;
+import liquibase.structure.core.Table;
+import liquibase.structure.core.UniqueConstraint;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Reads the unique constraints of all tables of a schema with one query on SYS.SYSIDX/SYS.SYSIDXCOL.
+ */
+public class IQUniqueConstraintSnapshotGenerator extends UniqueConstraintSnapshotGenerator {
+    @Override
+    public int getPriority(Class<? extends DatabaseObject> objectType, Database database) {
+        int priority = super.getPriority(objectType, database);
+        if (database instanceof IQDatabase) {
+            priority += PRIORITY_DATABASE;
+        }
+        return priority;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Class<? extends SnapshotGenerator>[] replaces() {
+        return new Class[] { UniqueConstraintSnapshotGenerator.class };
+    }
+
+    @Override
+    protected List<CachedRow> listConstraints(Table table, DatabaseSnapshot snapshot, Schema schema)
+            throws DatabaseException, SQLException {
+        Database database = snapshot.getDatabase();
+        if (!(database instanceof IQDatabase)) {
+            return super.listConstraints(table, snapshot, schema);
+        }
+        List<CachedRow> constraints = new ArrayList<>();
+        Set<String> seen = new HashSet<>();
+        for (CachedRow row : IQResultSetCache.forSnapshot(snapshot)
+                .get(new UniqueConstraintsExtractor(database, schema, table.getName(), null))) {
+            if (seen.add(row.getString("CONSTRAINT_NAME"))) {
+                constraints.add(row);
+            }
+        }
+        return constraints;
+    }
+
+    @Override
+    protected List<Map<String, ?>> listColumns(UniqueConstraint example, Database database, DatabaseSnapshot snapshot)
+            throws DatabaseException {
+        if (!(database instanceof IQDatabase)) {
+            return super.listColumns(example, database, snapshot);
+        }
+        Relation table = example.getRelation();
+        List<Map<String, ?>> columns = new ArrayList<>();
+        for (CachedRow row : IQResultSetCache.forSnapshot(snapshot)
+                .get(new UniqueConstraintsExtractor(database, table.getSchema(), table.getName(), example.getName()))) {
+            Map<String, Object> column = new HashMap<>();
+            column.put("CONSTRAINT_NAME", row.getString("CONSTRAINT_NAME"));
+            column.put("TABLE_NAME", row.getString("TABLE_NAME"));
+            column.put("COLUMN_NAME", row.getString("COLUMN_NAME"));
+            column.put("ASC_OR_DESC", row.getString("ASC_OR_DESC"));
+            columns.add(column);
+        }
+        return columns;
+    }
+
+    static class UniqueConstraintsExtractor extends IQResultSetCache.SingleResultSetExtractor {
+        private final String tableName;
+        private final String constraintName;
+
+        UniqueConstraintsExtractor(Database database, Schema schema, String tableName, String constraintName) {
+            super(database, schema.getCatalogName(), schema.getName());
+            this.tableName = tableName;
+            this.constraintName = constraintName;
+        }
+
+        @Override
+        public IQResultSetCache.RowData rowKeyParameters(CachedRow row) {
+            return new IQResultSetCache.RowData(catalogName, row.getString("TABLE_SCHEM"), database,
+                    row.getString("TABLE_NAME"), row.getString("CONSTRAINT_NAME"));
+        }
+
+        @Override
+        public IQResultSetCache.RowData wantedKeyParameters() {
+            return new IQResultSetCache.RowData(catalogName, schemaName, database, tableName, constraintName);
+        }
+
+        @Override
+        protected String getTableNameColumn() {
+            return "TABLE_NAME";
+        }
+
+        @Override
+        public List<CachedRow> bulkFetchQuery() throws SQLException, DatabaseException {
+            // index_category 3 = secondary index, "unique" 2 = unique constraint
+            return executeAndExtract("SELECT u.user_name AS TABLE_SCHEM, t.table_name AS TABLE_NAME, "
+                    + "i.index_name AS CONSTRAINT_NAME, c.column_name AS COLUMN_NAME, ic.sequence AS ORDINAL_POSITION, "
+                    + "ic.\"order\" AS ASC_OR_DESC "
+                    + "FROM SYS.SYSIDX i "
+                    + "JOIN SYS.SYSTAB t ON t.table_id = i.table_id "
+                    + "JOIN SYS.SYSUSER u ON u.user_id = t.creator "
+                    + "JOIN SYS.SYSIDXCOL ic ON ic.table_id = i.table_id AND ic.index_id = i.index_id "
+                    + "JOIN SYS.SYSTABCOL c ON c.table_id = ic.table_id AND c.column_id = ic.column_id "
+                    + "WHERE i.index_category = 3 AND i.\"unique\" = 2 AND u.user_name = " + quote(schemaName) + " "
+                    + tableFilter("t.table_name")
+                    + objectFilter("table", "t.table_name", "u.user_name")
+                    + "ORDER BY t.table_name, i.index_name, ic.sequence", database);
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package liquibase.ext.iq.sqlgenerator;
+
+import liquibase.database.Database;
+import liquibase.exception.UnexpectedLiquibaseException;
+import liquibase.exception.ValidationErrors;
+import liquibase.ext.iq.database.IQDatabase;
+import liquibase.ext.iq.datatype.IQLiteralWriter;
+import liquibase.ext.iq.statement.IQBatchInsertStatement;
+import liquibase.sql.Sql;
+import liquibase.sql.UnparsedSql;
+import liquibase.sqlgenerator.SqlGeneratorChain;
+import liquibase.sqlgenerator.core.AbstractSqlGenerator;
+import liquibase.structure.core.Table;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Renders {@link IQBatchInsertStatement} as literal INSERT statements. Only used when SQL is written out instead of
+ * executed (e.g. updateSQL); execution goes through the prepared statement batch.
+ */
+public class IQBatchInsertGenerator extends AbstractSqlGenerator<IQBatchInsertStatement> {
+
+    @Override
+    public boolean supports(IQBatchInsertStatement statement, Database database) {
+        return database instanceof IQDatabase;
+    }
+
+    @Override
+    public ValidationErrors validate(IQBatchInsertStatement statement, Database database, SqlGeneratorChain sqlGeneratorChain) {
+        ValidationErrors validationErrors = new ValidationErrors();
+        validationErrors.checkRequiredField("tableName", statement.getTableName());
+        if (statement.getColumns().isEmpty()) {
+            validationErrors.addError("Batch insert requires at least one column");
+        }
+        return validationErrors;
+    }
+
+    @Override
+    public Sql[] generateSql(IQBatchInsertStatement statement, Database database, SqlGeneratorChain sqlGeneratorChain) {
+        Table table = new Table(statement.getCatalogName(), statement.getSchemaName(), statement.getTableName());
+        String insertSql = statement.getInsertSql();
+        String prefix = insertSql.substring(0, insertSql.indexOf(" VALUES (") + " VALUES (".length());
+
+        List<Sql> sql = new ArrayList<>();
+        IQLiteralWriter literals = new IQLiteralWriter();
+        StringBuilder buffer = literals.getBuffer();
+        try (IQBatchInsertStatement.RowCursor cursor = statement.getRowSource().open()) {
+            Object[] row;
+            while ((row = cursor.next()) != null) {
+                buffer.setLength(0);
+                buffer.append(prefix);
+                for (int i = 0; i < row.length; i++) {
+                    if (i > 0) {
+                        buffer.append(", ");
+                    }
+                    literals.value(row[i]);
+                }
+                sql.add(new UnparsedSql(buffer.append(")").toString(), table));
+            }
+        } catch (IOException e) {
+            throw new UnexpectedLiquibaseException(e);
+        }
+        return sql.toArray(new Sql[sql.size()]);
+    }
+}
@@ -0,0 +1,34 @@
+package liquibase.ext.iq.sqlgenerator;
+
+import liquibase.database.Database;
+import liquibase.ext.iq.database.IQDatabase;
+import liquibase.sql.Sql;
+import liquibase.sqlgenerator.SqlGeneratorChain;
+import liquibase.sqlgenerator.core.CreateDatabaseChangeLogLockTableGenerator;
+import liquibase.statement.core.CreateDatabaseChangeLogLockTableStatement;
+
+/**
+ * Creates DATABASECHANGELOGLOCK in the same store as DATABASECHANGELOG (see
+ * {@link IQCreateDatabaseChangeLogTableGenerator}), so that lock attempts and lease renewals do not create a
+ * column-store table version each.
+ */
+public class IQCreateDatabaseChangeLogLockTableGenerator extends CreateDatabaseChangeLogLockTableGenerator {
+
+    @Override
+    public int getPriority() {
+        return PRIORITY_DATABASE;
+    }
+
+    @Override
+    public boolean supports(CreateDatabaseChangeLogLockTableStatement statement, Database database) {
+        return database instanceof IQDatabase;
+    }
+
+    @Override
+    public Sql[] generateSql(CreateDatabaseChangeLogLockTableStatement statement, Database database,
+                             SqlGeneratorChain sqlGeneratorChain) {
+        return IQCreateDatabaseChangeLogTableGenerator.inChangeLogTableStore(
+                super.generateSql(statement, database, sqlGeneratorChain), database,
+                database.getDatabaseChangeLogLockTableName());
+    }
+}
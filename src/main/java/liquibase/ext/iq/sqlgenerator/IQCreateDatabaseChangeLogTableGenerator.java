@@ -0,0 +1,63 @@
+package liquibase.ext.iq.sqlgenerator;
+
+import liquibase.database.Database;
+import liquibase.ext.iq.configuration.IQConfiguration;
+import liquibase.ext.iq.database.IQDatabase;
+import liquibase.sql.Sql;
+import liquibase.sql.UnparsedSql;
+import liquibase.sqlgenerator.SqlGeneratorChain;
+import liquibase.sqlgenerator.core.CreateDatabaseChangeLogTableGenerator;
+import liquibase.statement.core.CreateDatabaseChangeLogTableStatement;
+import liquibase.structure.DatabaseObject;
+import liquibase.structure.core.Table;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Creates DATABASECHANGELOG in the store selected with <code>liquibase.iq.changeLogTableStore</code>. The history
+ * table receives one single-row insert per changeset, which the IQ column store answers with a new table version
+ * each time; the catalog store and the row-level versioned store handle such inserts cheaply.
+ */
+public class IQCreateDatabaseChangeLogTableGenerator extends CreateDatabaseChangeLogTableGenerator {
+
+    @Override
+    public int getPriority() {
+        return PRIORITY_DATABASE;
+    }
+
+    @Override
+    public boolean supports(CreateDatabaseChangeLogTableStatement statement, Database database) {
+        return database instanceof IQDatabase;
+    }
+
+    @Override
+    public Sql[] generateSql(CreateDatabaseChangeLogTableStatement statement, Database database,
+                             SqlGeneratorChain sqlGeneratorChain) {
+        return inChangeLogTableStore(super.generateSql(statement, database, sqlGeneratorChain), database,
+                database.getDatabaseChangeLogTableName());
+    }
+
+    /**
+     * Moves the table created by the first statement to the store selected with
+     * <code>liquibase.iq.changeLogTableStore</code>.
+     */
+    static Sql[] inChangeLogTableStore(Sql[] sql, Database database, String tableName) {
+        IQConfiguration.ChangeLogTableStore store = IQConfiguration.getInstance().getChangeLogTableStore();
+        if (sql.length == 0 || store == IQConfiguration.ChangeLogTableStore.COLUMN) {
+            return sql;
+        }
+
+        Table table = new Table(database.getLiquibaseCatalogName(), database.getLiquibaseSchemaName(), tableName);
+        List<Sql> result = new ArrayList<>(Arrays.asList(sql));
+        if (store == IQConfiguration.ChangeLogTableStore.CATALOG) {
+            result.set(0, new UnparsedSql(sql[0].toSql() + " IN SYSTEM", sql[0].getEndDelimiter(),
+                    sql[0].getAffectedDatabaseObjects().toArray(new DatabaseObject[0])));
+        } else {
+            result.add(1, new UnparsedSql("ALTER TABLE " + database.escapeTableName(database.getLiquibaseCatalogName(),
+                    database.getLiquibaseSchemaName(), tableName) + " ENABLE RLV STORE", table));
+        }
+        return result.toArray(new Sql[result.size()]);
+    }
+}
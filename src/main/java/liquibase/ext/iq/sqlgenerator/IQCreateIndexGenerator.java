@@ -0,0 +1,100 @@
+package liquibase.ext.iq.sqlgenerator;
+
+import liquibase.change.AddColumnConfig;
+import liquibase.database.Database;
+import liquibase.exception.ValidationErrors;
+import liquibase.ext.iq.database.IQDatabase;
+import liquibase.ext.iq.statement.IQCreateIndexStatement;
+import liquibase.sql.Sql;
+import liquibase.sql.UnparsedSql;
+import liquibase.sqlgenerator.SqlGeneratorChain;
+import liquibase.sqlgenerator.core.CreateIndexGenerator;
+import liquibase.statement.core.CreateIndexStatement;
+import liquibase.structure.core.Index;
+import liquibase.structure.core.Table;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * CREATE INDEX for SAP IQ: <code>CREATE [UNIQUE] [HG | LF | HNG | WD | TEXT | DATE | TIME | DTTM | CMP] INDEX ...</code>.
+ */
+public class IQCreateIndexGenerator extends CreateIndexGenerator {
+
+    public static final Set<String> INDEX_TYPES = new HashSet<>(Arrays.asList(
+            "HG", "LF", "HNG", "WD", "TEXT", "DATE", "TIME", "DTTM", "CMP"));
+
+    @Override
+    public int getPriority() {
+        return PRIORITY_DATABASE;
+    }
+
+    @Override
+    public boolean supports(CreateIndexStatement statement, Database database) {
+        return database instanceof IQDatabase;
+    }
+
+    @Override
+    public ValidationErrors validate(CreateIndexStatement statement, Database database, SqlGeneratorChain sqlGeneratorChain) {
+        ValidationErrors validationErrors = new ValidationErrors();
+        validationErrors.checkRequiredField("tableName", statement.getTableName());
+        validationErrors.checkRequiredField("columns", statement.getColumns());
+        String indexType = getIndexType(statement);
+        if (indexType != null) {
+            if (!INDEX_TYPES.contains(indexType)) {
+                validationErrors.addError("Unknown SAP IQ index type " + indexType + ", expected one of " + INDEX_TYPES);
+            } else if (Boolean.TRUE.equals(statement.isUnique()) && !"HG".equals(indexType)) {
+                validationErrors.addError("SAP IQ only supports unique " + indexType + " indexes as HG indexes");
+            }
+        }
+        return validationErrors;
+    }
+
+    @Override
+    public Sql[] generateSql(CreateIndexStatement statement, Database database, SqlGeneratorChain sqlGeneratorChain) {
+        StringBuilder buffer = new StringBuilder("CREATE ");
+        if (Boolean.TRUE.equals(statement.isUnique())) {
+            buffer.append("UNIQUE ");
+        }
+        String indexType = getIndexType(statement);
+        if (indexType != null) {
+            buffer.append(indexType).append(" ");
+        }
+        buffer.append("INDEX ");
+        if (statement.getIndexName() != null) {
+            buffer.append(database.escapeObjectName(statement.getIndexName(), Index.class)).append(" ");
+        }
+        buffer.append("ON ")
+                .append(database.escapeTableName(statement.getTableCatalogName(), statement.getTableSchemaName(), statement.getTableName()))
+                .append("(");
+        boolean first = true;
+        for (AddColumnConfig column : statement.getColumns()) {
+            if (!first) {
+                buffer.append(", ");
+            }
+            first = false;
+            if (Boolean.TRUE.equals(column.getComputed())) {
+                buffer.append(column.getName());
+            } else {
+                buffer.append(database.escapeColumnName(statement.getTableCatalogName(), statement.getTableSchemaName(),
+                        statement.getTableName(), column.getName()));
+            }
+            if (Boolean.TRUE.equals(column.getDescending())) {
+                buffer.append(" DESC");
+            }
+        }
+        buffer.append(")");
+
+        Table table = new Table(statement.getTableCatalogName(), statement.getTableSchemaName(), statement.getTableName());
+        return new Sql[] { new UnparsedSql(buffer.toString(), new Index().setName(statement.getIndexName()).setRelation(table)) };
+    }
+
+    private String getIndexType(CreateIndexStatement statement) {
+        if (statement instanceof IQCreateIndexStatement && ((IQCreateIndexStatement) statement).getIndexType() != null) {
+            return ((IQCreateIndexStatement) statement).getIndexType().trim().toUpperCase(Locale.US);
+        }
+        return null;
+    }
+}
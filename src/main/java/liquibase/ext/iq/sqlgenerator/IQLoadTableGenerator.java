@@ -0,0 +1,84 @@
+package liquibase.ext.iq.sqlgenerator;
+
+import liquibase.change.core.LoadDataChange;
+import liquibase.database.Database;
+import liquibase.exception.ValidationErrors;
+import liquibase.ext.iq.database.IQDatabase;
+import liquibase.ext.iq.datatype.IQLiteralWriter;
+import liquibase.ext.iq.statement.IQLoadDataColumn;
+import liquibase.ext.iq.statement.IQLoadTableStatement;
+import liquibase.sql.Sql;
+import liquibase.sql.UnparsedSql;
+import liquibase.sqlgenerator.SqlGeneratorChain;
+import liquibase.sqlgenerator.core.AbstractSqlGenerator;
+import liquibase.structure.core.Table;
+
+/**
+ * Renders {@link IQLoadTableStatement} as
+ * <code>LOAD TABLE t (c1, c2 NULL('NULL'), ...) USING CLIENT FILE '...' DELIMITED BY ',' ...</code>.
+ */
+public class IQLoadTableGenerator extends AbstractSqlGenerator<IQLoadTableStatement> {
+
+    @Override
+    public boolean supports(IQLoadTableStatement statement, Database database) {
+        return database instanceof IQDatabase;
+    }
+
+    @Override
+    public ValidationErrors validate(IQLoadTableStatement statement, Database database, SqlGeneratorChain sqlGeneratorChain) {
+        ValidationErrors validationErrors = new ValidationErrors();
+        validationErrors.checkRequiredField("tableName", statement.getTableName());
+        validationErrors.checkRequiredField("fileName", statement.getFileName());
+        if (statement.getColumns().isEmpty()) {
+            validationErrors.addError("LOAD TABLE requires at least one column");
+        }
+        if (statement.getQuoteChar() != null && !"\"".equals(statement.getQuoteChar())) {
+            validationErrors.addError("LOAD TABLE only supports '\"' as quote character");
+        }
+        return validationErrors;
+    }
+
+    @Override
+    public Sql[] generateSql(IQLoadTableStatement statement, Database database, SqlGeneratorChain sqlGeneratorChain) {
+        StringBuilder sql = new StringBuilder("LOAD TABLE ")
+                .append(database.escapeTableName(statement.getCatalogName(), statement.getSchemaName(), statement.getTableName()))
+                .append(" (");
+        IQLiteralWriter literals = new IQLiteralWriter(sql);
+
+        boolean first = true;
+        for (IQLoadDataColumn column : statement.getColumns()) {
+            if (!first) {
+                sql.append(", ");
+            }
+            first = false;
+
+            if (column.isFiller()) {
+                literals.raw("FILLER(").string(statement.getFieldDelimiter()).raw(")");
+                continue;
+            }
+            sql.append(database.escapeColumnName(statement.getCatalogName(), statement.getSchemaName(),
+                    statement.getTableName(), column.getName()));
+            if (column.getLoadType() == LoadDataChange.LOAD_DATA_TYPE.DATE && statement.getDateFormat() != null) {
+                literals.raw(" DATETIME(").string(statement.getDateFormat()).raw(")");
+            }
+            if (statement.getNullMarker() != null) {
+                literals.raw(" NULL(").string(statement.getNullMarker()).raw(")");
+            }
+        }
+
+        literals.raw(") ")
+                .raw(statement.isClientFile() ? "USING CLIENT FILE " : "USING FILE ")
+                .string(statement.getFileName())
+                .raw(" DELIMITED BY ").string(statement.getFieldDelimiter())
+                .raw(" ROW DELIMITED BY ").string(statement.getRowDelimiter());
+        sql.append(" QUOTES ").append(statement.getQuoteChar() == null ? "OFF" : "ON")
+                .append(" ESCAPES OFF");
+        if (statement.getSkipRows() > 0) {
+            sql.append(" SKIP ").append(statement.getSkipRows());
+        }
+
+        return new Sql[] {
+                new UnparsedSql(sql.toString(), new Table(statement.getCatalogName(), statement.getSchemaName(), statement.getTableName()))
+        };
+    }
+}
@@ -0,0 +1,32 @@
+package liquibase.ext.iq.sqlgenerator;
+
+import liquibase.database.Database;
+import liquibase.exception.ValidationErrors;
+import liquibase.ext.iq.database.IQDatabase;
+import liquibase.ext.iq.statement.IQParallelCreateIndexStatement;
+import liquibase.sql.Sql;
+import liquibase.sqlgenerator.SqlGeneratorChain;
+import liquibase.sqlgenerator.SqlGeneratorFactory;
+import liquibase.sqlgenerator.core.AbstractSqlGenerator;
+
+/**
+ * Renders {@link IQParallelCreateIndexStatement} as the CREATE INDEX statement of its index. {@link IQDatabase}
+ * collects these statements and executes a run of them in one BEGIN PARALLEL IQ block.
+ */
+public class IQParallelCreateIndexGenerator extends AbstractSqlGenerator<IQParallelCreateIndexStatement> {
+
+    @Override
+    public boolean supports(IQParallelCreateIndexStatement statement, Database database) {
+        return database instanceof IQDatabase;
+    }
+
+    @Override
+    public ValidationErrors validate(IQParallelCreateIndexStatement statement, Database database, SqlGeneratorChain sqlGeneratorChain) {
+        return SqlGeneratorFactory.getInstance().validate(statement.getCreateIndex(), database);
+    }
+
+    @Override
+    public Sql[] generateSql(IQParallelCreateIndexStatement statement, Database database, SqlGeneratorChain sqlGeneratorChain) {
+        return SqlGeneratorFactory.getInstance().generateSql(statement.getCreateIndex(), database);
+    }
+}
@@ -0,0 +1,181 @@
+package liquibase.ext.iq.statement;
+
+import liquibase.change.core.LoadDataChange;
+import liquibase.database.Database;
+import liquibase.database.PreparedStatementFactory;
+import liquibase.exception.DatabaseException;
+import liquibase.statement.AbstractSqlStatement;
+import liquibase.statement.ExecutablePreparedStatement;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Inserts rows through one reused {@link PreparedStatement}, sending them with <code>addBatch</code>/
+ * <code>executeBatch</code>. All rows stay in the transaction of the changeset, so a failed load leaves nothing
+ * behind to be loaded twice when the changeset runs again.
+ */
+public class IQBatchInsertStatement extends AbstractSqlStatement implements ExecutablePreparedStatement {
+
+    /**
+     * Produces the rows to insert. Each call to {@link #open()} starts again at the first row.
+     */
+    public interface RowSource {
+        RowCursor open() throws IOException;
+    }
+
+    /**
+     * A forward-only cursor over rows, returning one value per non-filler column and <code>null</code> at the end.
+     */
+    public interface RowCursor extends Closeable {
+        Object[] next() throws IOException;
+    }
+
+    private final Database database;
+    private final String catalogName;
+    private final String schemaName;
+    private final String tableName;
+    private final List<IQLoadDataColumn> columns = new ArrayList<>();
+    private final RowSource rowSource;
+
+    private int batchSize = 1000;
+
+    public IQBatchInsertStatement(Database database, String catalogName, String schemaName, String tableName,
+                                  List<IQLoadDataColumn> columns, RowSource rowSource) {
+        this.database = database;
+        this.catalogName = catalogName;
+        this.schemaName = schemaName;
+        this.tableName = tableName;
+        for (IQLoadDataColumn column : columns) {
+            if (!column.isFiller()) {
+                this.columns.add(column);
+            }
+        }
+        this.rowSource = rowSource;
+    }
+
+    public String getCatalogName() {
+        return catalogName;
+    }
+
+    public String getSchemaName() {
+        return schemaName;
+    }
+
+    public String getTableName() {
+        return tableName;
+    }
+
+    public List<IQLoadDataColumn> getColumns() {
+        return columns;
+    }
+
+    public RowSource getRowSource() {
+        return rowSource;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public IQBatchInsertStatement setBatchSize(int batchSize) {
+        this.batchSize = Math.max(1, batchSize);
+        return this;
+    }
+
+    public String getInsertSql() {
+        StringBuilder sql = new StringBuilder("INSERT INTO ")
+                .append(database.escapeTableName(catalogName, schemaName, tableName))
+                .append(" (");
+        StringBuilder values = new StringBuilder();
+        for (int i = 0; i < columns.size(); i++) {
+            if (i > 0) {
+                sql.append(", ");
+                values.append(", ");
+            }
+            sql.append(database.escapeColumnName(catalogName, schemaName, tableName, columns.get(i).getName()));
+            values.append("?");
+        }
+        return sql.append(") VALUES (").append(values).append(")").toString();
+    }
+
+    @Override
+    public void execute(PreparedStatementFactory factory) throws DatabaseException {
+        PreparedStatement stmt = factory.create(getInsertSql());
+        long rows = 0;
+        int pending = 0;
+        try (RowCursor cursor = rowSource.open()) {
+            Object[] row;
+            while ((row = cursor.next()) != null) {
+                for (int i = 0; i < columns.size(); i++) {
+                    bind(stmt, i + 1, columns.get(i).getLoadType(), row[i]);
+                }
+                stmt.addBatch();
+                rows++;
+                if (++pending >= batchSize) {
+                    stmt.executeBatch();
+                    pending = 0;
+                }
+            }
+            if (pending > 0) {
+                stmt.executeBatch();
+            }
+        } catch (SQLException | IOException e) {
+            throw new DatabaseException("Error inserting row " + (rows + 1) + " into " + tableName + ": " + e.getMessage(), e);
+        } finally {
+            try {
+                stmt.close();
+            } catch (SQLException ignore) {
+                // nothing to do
+            }
+        }
+    }
+
+    protected void bind(PreparedStatement stmt, int index, LoadDataChange.LOAD_DATA_TYPE loadType, Object value)
+            throws SQLException {
+        if (value == null) {
+            stmt.setNull(index, getSqlType(loadType));
+        } else if (value instanceof BigDecimal) {
+            stmt.setBigDecimal(index, (BigDecimal) value);
+        } else if (value instanceof Boolean) {
+            stmt.setBoolean(index, (Boolean) value);
+        } else if (value instanceof Timestamp) {
+            stmt.setTimestamp(index, (Timestamp) value);
+        } else if (value instanceof java.sql.Date) {
+            stmt.setDate(index, (java.sql.Date) value);
+        } else if (value instanceof java.sql.Time) {
+            stmt.setTime(index, (java.sql.Time) value);
+        } else if (value instanceof byte[]) {
+            stmt.setBytes(index, (byte[]) value);
+        } else {
+            stmt.setString(index, value.toString());
+        }
+    }
+
+    protected int getSqlType(LoadDataChange.LOAD_DATA_TYPE loadType) {
+        if (loadType == null) {
+            return Types.VARCHAR;
+        }
+        switch (loadType) {
+            case NUMERIC:
+                return Types.NUMERIC;
+            case BOOLEAN:
+                return Types.BIT;
+            case DATE:
+                return Types.TIMESTAMP;
+            case BLOB:
+                return Types.VARBINARY;
+            case CLOB:
+                return Types.LONGVARCHAR;
+            default:
+                return Types.VARCHAR;
+        }
+    }
+}
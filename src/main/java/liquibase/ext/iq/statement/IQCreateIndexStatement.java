@@ -0,0 +1,26 @@
+package liquibase.ext.iq.statement;
+
+import liquibase.change.AddColumnConfig;
+import liquibase.statement.core.CreateIndexStatement;
+
+/**
+ * A CREATE INDEX statement carrying the SAP IQ index type (HG, LF, HNG, WD, TEXT, DATE, TIME, DTTM, CMP).
+ */
+public class IQCreateIndexStatement extends CreateIndexStatement {
+
+    private String indexType;
+
+    public IQCreateIndexStatement(String indexName, String tableCatalogName, String tableSchemaName, String tableName,
+                                  Boolean isUnique, String associatedWith, AddColumnConfig... columns) {
+        super(indexName, tableCatalogName, tableSchemaName, tableName, isUnique, associatedWith, columns);
+    }
+
+    public String getIndexType() {
+        return indexType;
+    }
+
+    public IQCreateIndexStatement setIndexType(String indexType) {
+        this.indexType = indexType;
+        return this;
+    }
+}
@@ -0,0 +1,32 @@
+package liquibase.ext.iq.statement;
+
+import liquibase.change.core.LoadDataChange;
+
+/**
+ * One field of a loadData input file. A column without a name is a filler that is read and discarded.
+ */
+public class IQLoadDataColumn {
+    private final String name;
+    private final LoadDataChange.LOAD_DATA_TYPE loadType;
+
+    public IQLoadDataColumn(String name, LoadDataChange.LOAD_DATA_TYPE loadType) {
+        this.name = name;
+        this.loadType = loadType;
+    }
+
+    public static IQLoadDataColumn filler() {
+        return new IQLoadDataColumn(null, LoadDataChange.LOAD_DATA_TYPE.SKIP);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public LoadDataChange.LOAD_DATA_TYPE getLoadType() {
+        return loadType;
+    }
+
+    public boolean isFiller() {
+        return name == null;
+    }
+}
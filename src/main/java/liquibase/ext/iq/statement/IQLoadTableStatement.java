@@ -0,0 +1,117 @@
+package liquibase.ext.iq.statement;
+
+import liquibase.statement.AbstractSqlStatement;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A single <code>LOAD TABLE</code> statement loading a delimited file into a table.
+ */
+public class IQLoadTableStatement extends AbstractSqlStatement {
+
+    private final String catalogName;
+    private final String schemaName;
+    private final String tableName;
+    private final String fileName;
+    private final boolean clientFile;
+    private final List<IQLoadDataColumn> columns = new ArrayList<>();
+
+    private String fieldDelimiter = ",";
+    private String rowDelimiter = "\\x0a";
+    private String quoteChar = "\"";
+    private String nullMarker = "NULL";
+    private String dateFormat;
+    private int skipRows = 1;
+
+    public IQLoadTableStatement(String catalogName, String schemaName, String tableName, String fileName, boolean clientFile) {
+        this.catalogName = catalogName;
+        this.schemaName = schemaName;
+        this.tableName = tableName;
+        this.fileName = fileName;
+        this.clientFile = clientFile;
+    }
+
+    public String getCatalogName() {
+        return catalogName;
+    }
+
+    public String getSchemaName() {
+        return schemaName;
+    }
+
+    public String getTableName() {
+        return tableName;
+    }
+
+    public String getFileName() {
+        return fileName;
+    }
+
+    public boolean isClientFile() {
+        return clientFile;
+    }
+
+    public List<IQLoadDataColumn> getColumns() {
+        return columns;
+    }
+
+    public IQLoadTableStatement addColumn(IQLoadDataColumn column) {
+        columns.add(column);
+        return this;
+    }
+
+    public String getFieldDelimiter() {
+        return fieldDelimiter;
+    }
+
+    public IQLoadTableStatement setFieldDelimiter(String fieldDelimiter) {
+        this.fieldDelimiter = fieldDelimiter;
+        return this;
+    }
+
+    public String getRowDelimiter() {
+        return rowDelimiter;
+    }
+
+    public IQLoadTableStatement setRowDelimiter(String rowDelimiter) {
+        this.rowDelimiter = rowDelimiter;
+        return this;
+    }
+
+    public String getQuoteChar() {
+        return quoteChar;
+    }
+
+    public IQLoadTableStatement setQuoteChar(String quoteChar) {
+        this.quoteChar = quoteChar;
+        return this;
+    }
+
+    public String getNullMarker() {
+        return nullMarker;
+    }
+
+    public IQLoadTableStatement setNullMarker(String nullMarker) {
+        this.nullMarker = nullMarker;
+        return this;
+    }
+
+    public String getDateFormat() {
+        return dateFormat;
+    }
+
+    public IQLoadTableStatement setDateFormat(String dateFormat) {
+        this.dateFormat = dateFormat;
+        return this;
+    }
+
+    public int getSkipRows() {
+        return skipRows;
+    }
+
+    public IQLoadTableStatement setSkipRows(int skipRows) {
+        this.skipRows = skipRows;
+        return this;
+    }
+}
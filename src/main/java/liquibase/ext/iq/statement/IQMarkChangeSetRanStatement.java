@@ -0,0 +1,212 @@
+package liquibase.ext.iq.statement;
+
+import liquibase.ContextExpression;
+import liquibase.change.Change;
+import liquibase.change.core.TagDatabaseChange;
+import liquibase.changelog.ChangeLogHistoryService;
+import liquibase.changelog.ChangeSet;
+import liquibase.database.Database;
+import liquibase.database.PreparedStatementFactory;
+import liquibase.exception.DatabaseException;
+import liquibase.exception.LiquibaseException;
+import liquibase.statement.ExecutablePreparedStatement;
+import liquibase.statement.core.MarkChangeSetRanStatement;
+import liquibase.util.LiquibaseUtil;
+import liquibase.util.StringUtil;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Records a changeset in DATABASECHANGELOG with one parameterized INSERT (or UPDATE for changesets that ran before)
+ * instead of the literal statement liquibase-core generates, so the server parses the statement once and reuses the
+ * plan for every changeset. When SQL is only written out, the core generator still renders this statement.
+ */
+public class IQMarkChangeSetRanStatement extends MarkChangeSetRanStatement implements ExecutablePreparedStatement {
+
+    private static final int MAX_TEXT_LENGTH = 250;
+
+    private final Database database;
+    private final ChangeLogHistoryService historyService;
+
+    private String sql;
+    private List<Object> parameters;
+
+    public IQMarkChangeSetRanStatement(ChangeSet changeSet, ChangeSet.ExecType execType, Database database,
+                                       ChangeLogHistoryService historyService) {
+        super(changeSet, execType);
+        this.database = database;
+        this.historyService = historyService;
+    }
+
+    /**
+     * False for FAILED and SKIPPED changesets, which are not written to DATABASECHANGELOG.
+     */
+    public boolean isRecorded() {
+        return getExecType() != ChangeSet.ExecType.FAILED && getExecType() != ChangeSet.ExecType.SKIPPED;
+    }
+
+    @Override
+    public void execute(PreparedStatementFactory factory) throws DatabaseException {
+        if (!isRecorded()) {
+            return;
+        }
+        PreparedStatement stmt = factory.create(getSql());
+        try {
+            setParameters(stmt);
+            stmt.executeUpdate();
+        } catch (SQLException e) {
+            throw new DatabaseException("Error marking changeset " + getChangeSet() + " as ran: " + e.getMessage(), e);
+        } finally {
+            try {
+                stmt.close();
+            } catch (SQLException ignore) {
+                // nothing to do
+            }
+        }
+    }
+
+    /**
+     * The parameterized INSERT or UPDATE. Statements of changesets with the same kind of row share the same text, so
+     * they can be sent in one JDBC batch.
+     */
+    public String getSql() throws DatabaseException {
+        prepare();
+        return sql;
+    }
+
+    public void setParameters(PreparedStatement stmt) throws DatabaseException, SQLException {
+        prepare();
+        for (int i = 0; i < parameters.size(); i++) {
+            if (parameters.get(i) == null) {
+                stmt.setNull(i + 1, Types.VARCHAR);
+            } else {
+                stmt.setObject(i + 1, parameters.get(i));
+            }
+        }
+    }
+
+    /**
+     * Builds the statement and its parameters once, as the ORDEREXECUTED value is taken from the history service.
+     */
+    private void prepare() throws DatabaseException {
+        if (sql != null) {
+            return;
+        }
+        ChangeSet changeSet = getChangeSet();
+        Map<String, Object> values = getColumnValues();
+        List<Object> parameters = new ArrayList<>(values.values());
+
+        StringBuilder sql = new StringBuilder();
+        String table = database.escapeTableName(database.getLiquibaseCatalogName(), database.getLiquibaseSchemaName(),
+                database.getDatabaseChangeLogTableName());
+        if (getExecType().ranBefore) {
+            sql.append("UPDATE ").append(table).append(" SET DATEEXECUTED = ").append(database.getCurrentDateTimeFunction());
+            for (String column : values.keySet()) {
+                sql.append(", ").append(column).append(" = ?");
+            }
+            sql.append(" WHERE ID = ? AND AUTHOR = ? AND FILENAME = ?");
+            parameters.add(changeSet.getId());
+            parameters.add(changeSet.getAuthor());
+            parameters.add(changeSet.getFilePath());
+        } else {
+            StringBuilder markers = new StringBuilder();
+            sql.append("INSERT INTO ").append(table).append(" (DATEEXECUTED");
+            for (String column : values.keySet()) {
+                sql.append(", ").append(column);
+                markers.append(", ?");
+            }
+            sql.append(") VALUES (").append(database.getCurrentDateTimeFunction()).append(markers).append(")");
+        }
+        this.parameters = parameters;
+        this.sql = sql.toString();
+    }
+
+    /**
+     * The DATABASECHANGELOG columns written for this changeset other than DATEEXECUTED, with the same values
+     * liquibase-core writes.
+     */
+    protected Map<String, Object> getColumnValues() throws DatabaseException {
+        ChangeSet changeSet = getChangeSet();
+        Map<String, Object> values = new LinkedHashMap<>();
+        if (!getExecType().ranBefore) {
+            values.put("ID", changeSet.getId());
+            values.put("AUTHOR", changeSet.getAuthor());
+            values.put("FILENAME", changeSet.getFilePath());
+        }
+        values.put("ORDEREXECUTED", getNextSequenceValue());
+        values.put("MD5SUM", changeSet.generateCheckSum().toString());
+        if (!getExecType().ranBefore) {
+            values.put("DESCRIPTION", limitSize(changeSet.getDescription()));
+            values.put("COMMENTS", limitSize(StringUtil.trimToEmpty(changeSet.getComments())));
+        }
+        values.put("EXECTYPE", getExecType().value);
+        if (!getExecType().ranBefore) {
+            values.put("CONTEXTS", buildFullContext(changeSet));
+            values.put("LABELS", changeSet.getLabels() == null || changeSet.getLabels().isEmpty()
+                    ? null : changeSet.getLabels().toString());
+            values.put("LIQUIBASE", StringUtil.limitSize(LiquibaseUtil.getBuildVersion()
+                    .replace("SNAPSHOT", "SNP").replace("beta", "b").replace("alpha", "b"), 20));
+        }
+        values.put("DEPLOYMENT_ID", historyService.getDeploymentId());
+
+        String tag = null;
+        for (Change change : changeSet.getChanges()) {
+            if (change instanceof TagDatabaseChange) {
+                tag = ((TagDatabaseChange) change).getTag();
+            }
+        }
+        if (tag != null) {
+            values.put("TAG", tag);
+        }
+        return values;
+    }
+
+    private int getNextSequenceValue() throws DatabaseException {
+        try {
+            return historyService.getNextSequenceValue();
+        } catch (DatabaseException e) {
+            throw e;
+        } catch (LiquibaseException e) {
+            throw new DatabaseException(e);
+        }
+    }
+
+    private String buildFullContext(ChangeSet changeSet) {
+        StringBuilder contexts = new StringBuilder();
+        for (ContextExpression inheritableContext : changeSet.getInheritableContexts()) {
+            appendContext(contexts, inheritableContext.toString());
+        }
+        ContextExpression changeSetContext = changeSet.getContexts();
+        if (changeSetContext != null && !changeSetContext.isEmpty()) {
+            appendContext(contexts, changeSetContext.toString());
+        }
+        return StringUtil.trimToNull(contexts.toString());
+    }
+
+    private void appendContext(StringBuilder contexts, String context) {
+        boolean complexExpression = context.contains(",") || context.contains(" ");
+        if (contexts.length() > 0) {
+            contexts.append(" AND ");
+        }
+        if (complexExpression) {
+            contexts.append("(");
+        }
+        contexts.append(context);
+        if (complexExpression) {
+            contexts.append(")");
+        }
+    }
+
+    private String limitSize(String value) {
+        if (value != null && value.length() > MAX_TEXT_LENGTH) {
+            return value.substring(0, MAX_TEXT_LENGTH - 3) + "...";
+        }
+        return value;
+    }
+}
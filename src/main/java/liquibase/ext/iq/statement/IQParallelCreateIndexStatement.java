@@ -0,0 +1,31 @@
+package liquibase.ext.iq.statement;
+
+import liquibase.statement.AbstractSqlStatement;
+
+/**
+ * One createIndex of a run of createIndex changes on the same table that {@link liquibase.ext.iq.database.IQDatabase}
+ * builds together in a single <code>BEGIN PARALLEL IQ ... END PARALLEL IQ</code> block on the main connection. The
+ * statement renders as its own CREATE INDEX, so SQL written out instead of executed lists every index; when executed,
+ * the CREATE INDEX is held back until the last statement of the run arrives.
+ */
+public class IQParallelCreateIndexStatement extends AbstractSqlStatement {
+
+    private final IQCreateIndexStatement createIndex;
+    private final boolean lastOfRun;
+
+    public IQParallelCreateIndexStatement(IQCreateIndexStatement createIndex, boolean lastOfRun) {
+        this.createIndex = createIndex;
+        this.lastOfRun = lastOfRun;
+    }
+
+    public IQCreateIndexStatement getCreateIndex() {
+        return createIndex;
+    }
+
+    /**
+     * True for the statement that completes the run and makes the block execute.
+     */
+    public boolean isLastOfRun() {
+        return lastOfRun;
+    }
+}
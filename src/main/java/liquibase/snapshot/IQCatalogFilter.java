@@ -0,0 +1,194 @@
+package liquibase.snapshot;
+
+import liquibase.ext.iq.configuration.IQConfiguration;
+import liquibase.util.StringUtil;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * Object filters of IQ snapshots, given with <code>liquibase.iq.snapshotIncludeObjects</code> and
+ * <code>liquibase.iq.snapshotExcludeObjects</code> in the syntax of <code>--includeObjects</code>: comma separated
+ * regular expressions, each optionally prefixed with an object type, e.g. <code>table:ORDER_.*, sequence:SEQ_.*</code>.
+ * <p>
+ * Expressions made of literal characters, <code>.</code> and <code>.*</code> are translated to LIKE conditions
+ * added to the catalog queries, so tables and sequences outside the filter are not read. Untyped items apply to
+ * table and sequence names, <code>schema:</code> items to the owner of every query. Only reads of whole schemas are
+ * filtered: lookups of one object, and the DATABASECHANGELOG and DATABASECHANGELOGLOCK tables, are never left out. Items typed with other object
+ * types, and expressions that cannot be translated, are not applied to the queries; the filters of
+ * <code>diff</code> and <code>generateChangeLog</code> still apply to the snapshot as usual.
+ */
+public final class IQCatalogFilter {
+
+    private static final char LIKE_ESCAPE = '!';
+
+    private final String includeObjects;
+    private final String excludeObjects;
+    private final List<String[]> includes;
+    private final List<String[]> excludes;
+
+    private IQCatalogFilter(String includeObjects, String excludeObjects) {
+        this.includeObjects = StringUtil.trimToNull(includeObjects);
+        this.excludeObjects = StringUtil.trimToNull(excludeObjects);
+        this.includes = parse(this.includeObjects);
+        this.excludes = parse(this.excludeObjects);
+    }
+
+    public static IQCatalogFilter fromConfiguration() {
+        IQConfiguration configuration = IQConfiguration.getInstance();
+        return new IQCatalogFilter(configuration.getSnapshotIncludeObjects(), configuration.getSnapshotExcludeObjects());
+    }
+
+    /**
+     * Identifies the filter in cache keys, empty if there is none.
+     */
+    public String getKey() {
+        if (includeObjects == null && excludeObjects == null) {
+            return "";
+        }
+        return "include=" + StringUtil.trimToEmpty(includeObjects) + ";exclude=" + StringUtil.trimToEmpty(excludeObjects);
+    }
+
+    /**
+     * The conditions restricting a catalog query to the objects of the given type (<code>table</code>,
+     * <code>sequence</code> or <code>schema</code>) accepted by the filter, each starting with AND, or an empty string.
+     */
+    public String condition(String objectType, String nameColumn) {
+        StringBuilder sql = new StringBuilder();
+        List<String> includePatterns = getPatterns(includes, objectType);
+        if (includePatterns != null && !includePatterns.isEmpty()) {
+            sql.append(" AND (");
+            for (int i = 0; i < includePatterns.size(); i++) {
+                sql.append(i == 0 ? "" : " OR ").append(like(nameColumn, includePatterns.get(i)));
+            }
+            sql.append(")");
+        }
+        for (String[] item : excludes) {
+            String pattern = appliesTo(item, objectType) ? toLike(item[1]) : null;
+            if (pattern != null) {
+                sql.append(" AND NOT ").append(like(nameColumn, pattern));
+            }
+        }
+        return sql.append(sql.length() == 0 ? "" : " ").toString();
+    }
+
+    /**
+     * The LIKE patterns of the include items for the type, or null if one of them cannot be translated or no item
+     * applies, as the query must then read all objects.
+     */
+    private static List<String> getPatterns(List<String[]> items, String objectType) {
+        List<String> patterns = new ArrayList<>();
+        for (String[] item : items) {
+            if (appliesTo(item, objectType)) {
+                String pattern = toLike(item[1]);
+                if (pattern == null) {
+                    return null;
+                }
+                patterns.add(pattern);
+            }
+        }
+        return patterns.isEmpty() ? null : patterns;
+    }
+
+    /**
+     * Whether an object of the type (<code>table</code>, <code>sequence</code> or <code>schema</code>) with the
+     * name passes the filter, matching the full expressions case-insensitively.
+     */
+    public boolean accepts(String objectType, String name) {
+        if (name == null) {
+            return true;
+        }
+        boolean included = true;
+        for (String[] item : includes) {
+            if (appliesTo(item, objectType)) {
+                included = matches(item[1], name);
+                if (included) {
+                    break;
+                }
+            }
+        }
+        if (!included) {
+            return false;
+        }
+        for (String[] item : excludes) {
+            if (appliesTo(item, objectType) && matches(item[1], name)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean matches(String regex, String name) {
+        try {
+            return Pattern.compile(regex, Pattern.CASE_INSENSITIVE).matcher(name).matches();
+        } catch (PatternSyntaxException e) {
+            return false;
+        }
+    }
+
+    private static boolean appliesTo(String[] item, String objectType) {
+        return item[0] == null ? !"schema".equals(objectType) : item[0].equals(objectType);
+    }
+
+    private static String like(String nameColumn, String pattern) {
+        return "UPPER(" + nameColumn + ") LIKE '" + pattern + "' ESCAPE '" + LIKE_ESCAPE + "'";
+    }
+
+    private static List<String[]> parse(String filter) {
+        List<String[]> items = new ArrayList<>();
+        if (filter == null) {
+            return items;
+        }
+        for (String item : StringUtil.splitAndTrim(filter, ",")) {
+            int colon = item.indexOf(':');
+            if (colon > 0 && item.substring(0, colon).matches("[A-Za-z]+")) {
+                items.add(new String[] {item.substring(0, colon).trim().toLowerCase(Locale.US),
+                        item.substring(colon + 1).trim()});
+            } else {
+                items.add(new String[] {null, item});
+            }
+        }
+        return items;
+    }
+
+    /**
+     * Translates a regular expression to an upper-case LIKE pattern, or returns null if it uses more than literal
+     * characters, <code>.</code> and <code>.*</code>.
+     */
+    static String toLike(String regex) {
+        StringBuilder like = new StringBuilder();
+        for (int i = 0; i < regex.length(); i++) {
+            char c = regex.charAt(i);
+            if (c == '\\') {
+                if (i + 1 == regex.length() || Character.isLetterOrDigit(regex.charAt(i + 1))) {
+                    return null;
+                }
+                appendLiteral(like, regex.charAt(++i));
+            } else if (c == '.') {
+                if (i + 1 < regex.length() && regex.charAt(i + 1) == '*') {
+                    like.append('%');
+                    i++;
+                } else {
+                    like.append('_');
+                }
+            } else if ((c == '^' && i == 0) || (c == '$' && i == regex.length() - 1)) {
+                continue;
+            } else if ("[](){}|?+*^$".indexOf(c) >= 0) {
+                return null;
+            } else {
+                appendLiteral(like, c);
+            }
+        }
+        return like.toString().toUpperCase(Locale.US);
+    }
+
+    private static void appendLiteral(StringBuilder like, char c) {
+        if (c == '%' || c == '_' || c == LIKE_ESCAPE) {
+            like.append(LIKE_ESCAPE);
+        }
+        like.append(c == '\'' ? "''" : String.valueOf(c));
+    }
+}
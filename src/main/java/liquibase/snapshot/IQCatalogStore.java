@@ -0,0 +1,254 @@
+package liquibase.snapshot;
+
+import liquibase.Scope;
+import liquibase.database.Database;
+import liquibase.database.jvm.JdbcConnection;
+import liquibase.ext.iq.configuration.IQConfiguration;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keeps the results of IQ catalog bulk queries between runs, one file per server, user and bulk query, in the
+ * directory set with <code>liquibase.iq.snapshotCacheDirectory</code>. Each file holds the rows together with the
+ * modification stamps of the tables they were read for (see {@link IQResultSetCache#getTableStamps}), so a later
+ * snapshot only queries the rows of tables whose stamp changed.
+ * <p>
+ * Files are written to a temporary file and moved into place, and read through a read-only memory mapping. A file
+ * that cannot be read is ignored and replaced.
+ */
+public class IQCatalogStore {
+
+    private static final int MAGIC = 0x49514353;
+    private static final int VERSION = 1;
+
+    private static final byte NULL = 0;
+    private static final byte STRING = 1;
+    private static final byte INTEGER = 2;
+    private static final byte LONG = 3;
+    private static final byte SHORT = 4;
+    private static final byte DECIMAL = 5;
+    private static final byte BOOLEAN = 6;
+    private static final byte TIMESTAMP = 7;
+    private static final byte DOUBLE = 8;
+
+    private final Path directory;
+    private final String prefix;
+
+    IQCatalogStore(Path directory, String prefix) {
+        this.directory = directory;
+        this.prefix = prefix;
+    }
+
+    /**
+     * The store for the server and user of the database, or null if no cache directory is configured or the
+     * database has no JDBC connection.
+     */
+    static IQCatalogStore forDatabase(Database database) {
+        String directory = IQConfiguration.getInstance().getSnapshotCacheDirectory();
+        if (directory == null || directory.trim().isEmpty() || !(database.getConnection() instanceof JdbcConnection)) {
+            return null;
+        }
+        JdbcConnection connection = (JdbcConnection) database.getConnection();
+        return new IQCatalogStore(Paths.get(directory.trim()),
+                connection.getURL() + "|" + connection.getConnectionUserName() + "|");
+    }
+
+    /**
+     * Cached rows and the stamps of the tables they belong to.
+     */
+    static class Entry {
+        final List<String> columns;
+        final Map<String, String> stamps;
+        final List<CachedRow> rows;
+
+        Entry(List<String> columns, Map<String, String> stamps, List<CachedRow> rows) {
+            this.columns = columns;
+            this.stamps = stamps;
+            this.rows = rows;
+        }
+    }
+
+    /**
+     * Returns the entry stored for the key, or null if there is none or it cannot be read.
+     */
+    Entry read(String key) {
+        Path file = getFile(key);
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+                return null;
+            }
+            Map<String, String> strings = new HashMap<>();
+            List<String> columns = new ArrayList<>();
+            for (int i = buffer.getInt(); i > 0; i--) {
+                columns.add(readString(buffer, strings));
+            }
+            Map<String, String> stamps = new HashMap<>();
+            for (int i = buffer.getInt(); i > 0; i--) {
+                stamps.put(readString(buffer, strings), readString(buffer, strings));
+            }
+            IQColumnarRows.Builder rows = new IQColumnarRows.Builder(columns);
+            Object[] values = new Object[columns.size()];
+            for (int i = buffer.getInt(); i > 0; i--) {
+                for (int column = 0; column < values.length; column++) {
+                    values[column] = readValue(buffer, strings);
+                }
+                rows.add(values);
+            }
+            return new Entry(Collections.unmodifiableList(columns), stamps, rows.build());
+        } catch (IOException | RuntimeException e) {
+            Scope.getCurrentScope().getLog(getClass()).info("Ignoring unreadable snapshot cache file " + file, e);
+            return null;
+        }
+    }
+
+    void write(String key, Entry entry) {
+        Path file = getFile(key);
+        Path temp = null;
+        try {
+            Files.createDirectories(directory);
+            temp = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeInt(entry.columns.size());
+                for (String column : entry.columns) {
+                    writeString(out, column);
+                }
+                out.writeInt(entry.stamps.size());
+                for (Map.Entry<String, String> stamp : entry.stamps.entrySet()) {
+                    writeString(out, stamp.getKey());
+                    writeString(out, stamp.getValue());
+                }
+                out.writeInt(entry.rows.size());
+                for (CachedRow row : entry.rows) {
+                    for (String column : entry.columns) {
+                        writeValue(out, row.get(column));
+                    }
+                }
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException | RuntimeException e) {
+            Scope.getCurrentScope().getLog(getClass()).info("Error writing snapshot cache file " + file, e);
+            if (temp != null) {
+                try {
+                    Files.deleteIfExists(temp);
+                } catch (IOException ignore) {
+                    // nothing to do
+                }
+            }
+        }
+    }
+
+    private Path getFile(String key) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest((prefix + key).getBytes(StandardCharsets.UTF_8));
+            StringBuilder name = new StringBuilder("iq-catalog-");
+            for (int i = 0; i < 16; i++) {
+                name.append(Character.forDigit((digest[i] >> 4) & 0xF, 16)).append(Character.forDigit(digest[i] & 0xF, 16));
+            }
+            return directory.resolve(name.append(".bin").toString());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void writeValue(DataOutputStream out, Object value) throws IOException {
+        if (value == null) {
+            out.writeByte(NULL);
+        } else if (value instanceof Integer) {
+            out.writeByte(INTEGER);
+            out.writeInt((Integer) value);
+        } else if (value instanceof Long) {
+            out.writeByte(LONG);
+            out.writeLong((Long) value);
+        } else if (value instanceof Short) {
+            out.writeByte(SHORT);
+            out.writeShort((Short) value);
+        } else if (value instanceof BigDecimal) {
+            out.writeByte(DECIMAL);
+            writeString(out, value.toString());
+        } else if (value instanceof Boolean) {
+            out.writeByte(BOOLEAN);
+            out.writeBoolean((Boolean) value);
+        } else if (value instanceof Timestamp) {
+            out.writeByte(TIMESTAMP);
+            out.writeLong(((Timestamp) value).getTime());
+            out.writeInt(((Timestamp) value).getNanos());
+        } else if (value instanceof Double) {
+            out.writeByte(DOUBLE);
+            out.writeDouble((Double) value);
+        } else {
+            out.writeByte(STRING);
+            writeString(out, value.toString());
+        }
+    }
+
+    private static Object readValue(ByteBuffer buffer, Map<String, String> strings) {
+        byte type = buffer.get();
+        switch (type) {
+            case NULL:
+                return null;
+            case INTEGER:
+                return buffer.getInt();
+            case LONG:
+                return buffer.getLong();
+            case SHORT:
+                return buffer.getShort();
+            case DECIMAL:
+                return new BigDecimal(readString(buffer, strings));
+            case BOOLEAN:
+                return buffer.get() != 0;
+            case TIMESTAMP:
+                Timestamp timestamp = new Timestamp(buffer.getLong());
+                timestamp.setNanos(buffer.getInt());
+                return timestamp;
+            case DOUBLE:
+                return buffer.getDouble();
+            case STRING:
+                return readString(buffer, strings);
+            default:
+                throw new IllegalStateException("Unknown value type " + type);
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    /**
+     * Reads a string, returning the same instance for equal values read from the same file.
+     */
+    private static String readString(ByteBuffer buffer, Map<String, String> strings) {
+        byte[] bytes = new byte[buffer.getInt()];
+        buffer.get(bytes);
+        String value = new String(bytes, StandardCharsets.UTF_8);
+        String shared = strings.putIfAbsent(value, value);
+        return shared == null ? value : shared;
+    }
+}
@@ -0,0 +1,349 @@
+package liquibase.snapshot;
+
+import liquibase.util.JdbcUtils;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Rows of an IQ catalog query stored column by column instead of one map per row. Integer, short and long columns
+ * are kept in primitive arrays, other values in one array per column with equal strings stored once. The rows
+ * returned by {@link #get(int)} are views reading from these arrays.
+ */
+public final class IQColumnarRows extends AbstractList<CachedRow> {
+
+    private final List<String> columns;
+    private final Map<String, Integer> columnIndexes;
+    private final ColumnData[] data;
+    private final int size;
+    private Map<Integer, Map<String, Object>> changes;
+
+    private IQColumnarRows(List<String> columns, ColumnData[] data, int size) {
+        this.columns = Collections.unmodifiableList(new ArrayList<>(columns));
+        this.columnIndexes = new HashMap<>();
+        for (int i = 0; i < columns.size(); i++) {
+            columnIndexes.put(columns.get(i), i);
+        }
+        this.data = data;
+        this.size = size;
+    }
+
+    /**
+     * Reads all rows of the result set.
+     */
+    public static IQColumnarRows read(ResultSet resultSet) throws SQLException {
+        ResultSetMetaData metaData = resultSet.getMetaData();
+        int columnCount = metaData.getColumnCount();
+        List<String> columns = new ArrayList<>(columnCount);
+        for (int i = 1; i <= columnCount; i++) {
+            columns.add(metaData.getColumnLabel(i));
+        }
+        Builder builder = new Builder(columns);
+        Object[] values = new Object[columnCount];
+        while (resultSet.next()) {
+            for (int i = 0; i < columnCount; i++) {
+                values[i] = JdbcUtils.getResultSetValue(resultSet, i + 1);
+            }
+            builder.add(values);
+        }
+        return builder.build();
+    }
+
+    public List<String> getColumns() {
+        return columns;
+    }
+
+    @Override
+    public CachedRow get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        return new Row(index);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    private synchronized Object getValue(int row, String column) {
+        if (changes != null) {
+            Map<String, Object> rowChanges = changes.get(row);
+            if (rowChanges != null && rowChanges.containsKey(column)) {
+                return rowChanges.get(column);
+            }
+        }
+        Integer columnIndex = columnIndexes.get(column);
+        return columnIndex == null ? null : data[columnIndex].get(row);
+    }
+
+    private synchronized void setValue(int row, String column, Object value) {
+        if (changes == null) {
+            changes = new HashMap<>();
+        }
+        changes.computeIfAbsent(row, key -> new HashMap<>()).put(column, value);
+    }
+
+    private synchronized boolean hasColumn(int row, String column) {
+        if (columnIndexes.containsKey(column)) {
+            return true;
+        }
+        return changes != null && changes.containsKey(row) && changes.get(row).containsKey(column);
+    }
+
+    /**
+     * Collects rows before they are stored column by column.
+     */
+    public static final class Builder {
+        private final List<String> columns;
+        private final ColumnData[] data;
+        private final Map<String, String> strings = new HashMap<>();
+        private int size;
+
+        public Builder(List<String> columns) {
+            this.columns = columns;
+            this.data = new ColumnData[columns.size()];
+            for (int i = 0; i < data.length; i++) {
+                data[i] = new ColumnData();
+            }
+        }
+
+        /**
+         * Adds a row with one value per column, in column order.
+         */
+        public Builder add(Object[] values) {
+            for (int i = 0; i < data.length; i++) {
+                Object value = values[i];
+                if (value instanceof String) {
+                    String shared = strings.putIfAbsent((String) value, (String) value);
+                    if (shared != null) {
+                        value = shared;
+                    }
+                }
+                data[i].add(value);
+            }
+            size++;
+            return this;
+        }
+
+        /**
+         * Adds a copy of a row read with the same columns.
+         */
+        public Builder add(CachedRow row) {
+            Object[] values = new Object[data.length];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = row.get(columns.get(i));
+            }
+            return add(values);
+        }
+
+        public IQColumnarRows build() {
+            for (ColumnData column : data) {
+                column.trim();
+            }
+            return new IQColumnarRows(columns, data, size);
+        }
+    }
+
+    /**
+     * The values of one column. The storage is chosen by the first non-null value and widened to objects if a later
+     * value does not fit.
+     */
+    private static final class ColumnData {
+        private static final byte EMPTY = 0;
+        private static final byte INT = 1;
+        private static final byte SHORT = 2;
+        private static final byte LONG = 3;
+        private static final byte OBJECT = 4;
+
+        private byte kind = EMPTY;
+        private int[] ints;
+        private long[] longs;
+        private Object[] objects;
+        private final BitSet nulls = new BitSet();
+        private int size;
+        private int capacity = 16;
+
+        void add(Object value) {
+            if (value != null && !fits(value)) {
+                if (kind == EMPTY) {
+                    start(value);
+                } else {
+                    widen();
+                }
+            }
+            if (size == capacity) {
+                grow(capacity * 2);
+            }
+            int row = size++;
+            if (value == null) {
+                nulls.set(row);
+                return;
+            }
+            switch (kind) {
+                case INT:
+                    ints[row] = (Integer) value;
+                    break;
+                case SHORT:
+                    ints[row] = (Short) value;
+                    break;
+                case LONG:
+                    longs[row] = (Long) value;
+                    break;
+                default:
+                    objects[row] = value;
+            }
+        }
+
+        Object get(int row) {
+            if (nulls.get(row)) {
+                return null;
+            }
+            switch (kind) {
+                case INT:
+                    return ints[row];
+                case SHORT:
+                    return (short) ints[row];
+                case LONG:
+                    return longs[row];
+                case OBJECT:
+                    return objects[row];
+                default:
+                    return null;
+            }
+        }
+
+        void trim() {
+            grow(size);
+        }
+
+        private boolean fits(Object value) {
+            switch (kind) {
+                case INT:
+                    return value instanceof Integer;
+                case SHORT:
+                    return value instanceof Short;
+                case LONG:
+                    return value instanceof Long;
+                case OBJECT:
+                    return true;
+                default:
+                    return false;
+            }
+        }
+
+        private void start(Object value) {
+            if (value instanceof Integer) {
+                kind = INT;
+                ints = new int[capacity];
+            } else if (value instanceof Short) {
+                kind = SHORT;
+                ints = new int[capacity];
+            } else if (value instanceof Long) {
+                kind = LONG;
+                longs = new long[capacity];
+            } else {
+                kind = OBJECT;
+                objects = new Object[capacity];
+            }
+        }
+
+        private void widen() {
+            Object[] widened = new Object[capacity];
+            for (int row = 0; row < size; row++) {
+                widened[row] = get(row);
+            }
+            kind = OBJECT;
+            objects = widened;
+            ints = null;
+            longs = null;
+        }
+
+        private void grow(int newCapacity) {
+            if (ints != null) {
+                ints = Arrays.copyOf(ints, newCapacity);
+            }
+            if (longs != null) {
+                longs = Arrays.copyOf(longs, newCapacity);
+            }
+            if (objects != null) {
+                objects = Arrays.copyOf(objects, newCapacity);
+            }
+            capacity = newCapacity;
+        }
+    }
+
+    /**
+     * A row reading its values from the columns. Values set on it are kept aside, as {@link CachedRow} allows.
+     */
+    private final class Row extends CachedRow {
+        private final int index;
+
+        Row(int index) {
+            super(Collections.emptyMap());
+            this.index = index;
+        }
+
+        @Override
+        public Object get(String columnName) {
+            return getValue(index, columnName);
+        }
+
+        @Override
+        public void set(String columnName, Object value) {
+            setValue(index, columnName, value);
+        }
+
+        @Override
+        public boolean containsColumn(String columnName) {
+            return hasColumn(index, columnName);
+        }
+
+        @Override
+        public String getString(String columnName) {
+            return (String) get(columnName);
+        }
+
+        @Override
+        public Integer getInt(String columnName) {
+            Object value = get(columnName);
+            if (value instanceof Number) {
+                return ((Number) value).intValue();
+            } else if (value instanceof String) {
+                return Integer.valueOf((String) value);
+            }
+            return (Integer) value;
+        }
+
+        @Override
+        public Short getShort(String columnName) {
+            Object value = get(columnName);
+            if (value instanceof Number) {
+                return ((Number) value).shortValue();
+            } else if (value instanceof String) {
+                return Short.valueOf((String) value);
+            }
+            return (Short) value;
+        }
+
+        @Override
+        public Boolean getBoolean(String columnName) {
+            Object value = get(columnName);
+            if (value instanceof Number) {
+                return ((Number) value).longValue() != 0;
+            } else if (value instanceof String) {
+                return Boolean.valueOf((String) value);
+            }
+            return (Boolean) value;
+        }
+    }
+}
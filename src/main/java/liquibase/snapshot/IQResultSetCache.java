@@ -1,37 +1,494 @@
 package liquibase.snapshot;
 
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 
+import liquibase.Scope;
 import liquibase.database.Database;
+import liquibase.database.jvm.JdbcConnection;
 import liquibase.exception.DatabaseException;
+import liquibase.ext.iq.configuration.IQConfiguration;
+import liquibase.ext.iq.database.IQDatabase;
+import liquibase.util.JdbcUtils;
 
 public class IQResultSetCache extends ResultSetCache {
+
+    /**
+     * The cache of each snapshot still in use. Snapshots do not override equals, so they are compared by identity.
+     */
+    private static final Map<DatabaseSnapshot, IQResultSetCache> SNAPSHOT_CACHES =
+            Collections.synchronizedMap(new WeakHashMap<>());
+
+    /**
+     * Rows fetched per round trip for catalog queries. jConnect defaults to very small fetch sizes.
+     */
+    public static final int FETCH_SIZE = 5000;
+
+    /**
+     * Above this number of changed tables a bulk query is run for the whole schema instead of the changed tables.
+     */
+    private static final int MAX_CHANGED_TABLES = 500;
+
+    private final Map<String, Future<List<CachedRow>>> prefetched = new ConcurrentHashMap<>();
+    private final Map<String, Map<String, String>> tableStamps = new ConcurrentHashMap<>();
+    private final Map<String, IndexedRows> results = new LinkedHashMap<>(16, 0.75f, true);
+    private long cachedRows;
+    private IQCatalogStore catalogStore;
+    private boolean catalogStoreResolved;
+
+    /**
+     * Returns the cache shared by all IQ snapshot generators working on the given snapshot.
+     */
+    public static IQResultSetCache forSnapshot(DatabaseSnapshot snapshot) {
+        return SNAPSHOT_CACHES.computeIfAbsent(snapshot, key -> new IQResultSetCache());
+    }
+
+    /**
+     * Registers the result of a bulk query that is being fetched in the background. The next bulk fetch of an
+     * extractor with the same {@link SingleResultSetExtractor#getPrefetchKey() key} waits for it instead of querying.
+     *
+     * @return false if a prefetch for that key was already registered
+     */
+    public boolean addPrefetch(SingleResultSetExtractor extractor, Future<List<CachedRow>> rows) {
+        return prefetched.putIfAbsent(extractor.getPrefetchKey(), rows) == null;
+    }
+
+    public boolean isPrefetched(SingleResultSetExtractor extractor) {
+        return prefetched.containsKey(extractor.getPrefetchKey());
+    }
+
+    /**
+     * Cancels and forgets the bulk queries registered with {@link #addPrefetch} that were not used yet.
+     */
+    public void discardPrefetches() {
+        for (Future<List<CachedRow>> rows : prefetched.values()) {
+            rows.cancel(false);
+        }
+        prefetched.clear();
+    }
+
+    /**
+     * Answers IQ extractors from the bulk query result of their type and schema, kept as {@link IQColumnarRows} with
+     * an index on the row keys of the extractor. With <code>liquibase.iq.snapshotCacheMaxRows</code> the least
+     * recently used results are dropped once more rows are cached, and read again when needed.
+     */
+    @Override
+    public List<CachedRow> get(ResultSetExtractor resultSetExtractor) throws DatabaseException {
+        if (!(resultSetExtractor instanceof SingleResultSetExtractor)) {
+            return super.get(resultSetExtractor);
+        }
+        SingleResultSetExtractor extractor = (SingleResultSetExtractor) resultSetExtractor;
+        extractor.cache = this;
+        String key = extractor.getPrefetchKey();
+        IndexedRows rows;
+        synchronized (results) {
+            rows = results.get(key);
+        }
+        if (rows == null) {
+            try {
+                rows = new IndexedRows(extractor.bulkFetch(), extractor);
+            } catch (SQLException e) {
+                throw new DatabaseException(e);
+            }
+            synchronized (results) {
+                results.put(key, rows);
+                cachedRows += rows.size();
+                evict(key);
+            }
+        }
+        return rows.get(extractor.wantedKeyParameters().createParamsKey(extractor.database));
+    }
+
+    private void evict(String keep) {
+        int maxRows = IQConfiguration.getInstance().getSnapshotCacheMaxRows();
+        if (maxRows <= 0) {
+            return;
+        }
+        Iterator<Map.Entry<String, IndexedRows>> iterator = results.entrySet().iterator();
+        while (cachedRows > maxRows && iterator.hasNext()) {
+            Map.Entry<String, IndexedRows> entry = iterator.next();
+            if (!entry.getKey().equals(keep)) {
+                cachedRows -= entry.getValue().size();
+                iterator.remove();
+            }
+        }
+    }
+
+    /**
+     * Bulk query rows with the positions of the rows matching each row key.
+     */
+    private static final class IndexedRows {
+        private final List<CachedRow> rows;
+        private final Map<String, int[]> positions = new HashMap<>();
+
+        IndexedRows(List<CachedRow> rows, ResultSetExtractor extractor) {
+            this.rows = rows;
+            Map<String, int[]> building = new HashMap<>();
+            Map<String, Integer> counts = new HashMap<>();
+            for (int i = 0; i < rows.size(); i++) {
+                for (String rowKey : extractor.rowKeyParameters(rows.get(i)).getKeyPermutations()) {
+                    int[] keyPositions = building.get(rowKey);
+                    int count = counts.getOrDefault(rowKey, 0);
+                    if (keyPositions == null) {
+                        keyPositions = new int[4];
+                    } else if (keyPositions[count - 1] == i) {
+                        continue;
+                    } else if (count == keyPositions.length) {
+                        keyPositions = Arrays.copyOf(keyPositions, count * 2);
+                    }
+                    keyPositions[count] = i;
+                    building.put(rowKey, keyPositions);
+                    counts.put(rowKey, count + 1);
+                }
+            }
+            for (Map.Entry<String, int[]> entry : building.entrySet()) {
+                positions.put(entry.getKey(), Arrays.copyOf(entry.getValue(), counts.get(entry.getKey())));
+            }
+        }
+
+        int size() {
+            return rows.size();
+        }
+
+        List<CachedRow> get(String key) {
+            final int[] keyPositions = positions.get(key);
+            if (keyPositions == null) {
+                return new ArrayList<>();
+            }
+            return new AbstractList<CachedRow>() {
+                @Override
+                public CachedRow get(int index) {
+                    return rows.get(keyPositions[index]);
+                }
+
+                @Override
+                public int size() {
+                    return keyPositions.length;
+                }
+            };
+        }
+    }
+
+    /**
+     * The store keeping bulk query results between runs, or null if <code>liquibase.iq.snapshotCacheDirectory</code>
+     * is not set.
+     */
+    synchronized IQCatalogStore getCatalogStore(Database database) {
+        if (!catalogStoreResolved) {
+            catalogStore = IQCatalogStore.forDatabase(database);
+            catalogStoreResolved = true;
+        }
+        return catalogStore;
+    }
+
+    /**
+     * Modification stamps of the tables and views of a schema, read once per snapshot. A stamp combines
+     * SYSTAB.last_modified_at with the number of columns and indexes of the table, so adding or dropping either
+     * changes it even where IQ does not update last_modified_at.
+     */
+    Map<String, String> getTableStamps(Database database, String schemaName) throws DatabaseException, SQLException {
+        String key = schemaName.toUpperCase(Locale.US);
+        Map<String, String> stamps = tableStamps.get(key);
+        if (stamps != null) {
+            return stamps;
+        }
+        stamps = new HashMap<>();
+        Connection connection = ((JdbcConnection) database.getConnection()).getUnderlyingConnection();
+        try (PreparedStatement statement = connection.prepareStatement("SELECT t.table_name, "
+                + "CAST(t.last_modified_at AS VARCHAR(30)) AS MODIFIED, "
+                + "(SELECT COUNT(*) FROM SYS.SYSTABCOL c WHERE c.table_id = t.table_id) AS COLUMN_COUNT, "
+                + "(SELECT COUNT(*) FROM SYS.SYSIDX i WHERE i.table_id = t.table_id) AS INDEX_COUNT "
+                + "FROM SYS.SYSTAB t JOIN SYS.SYSUSER u ON u.user_id = t.creator WHERE u.user_name = ?")) {
+            statement.setFetchSize(FETCH_SIZE);
+            statement.setString(1, schemaName);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    stamps.put(resultSet.getString(1), resultSet.getString(2) + "/" + resultSet.getInt(3) + "/"
+                            + resultSet.getInt(4));
+                }
+            }
+        }
+        tableStamps.put(key, stamps);
+        return stamps;
+    }
+
     public static class RowData extends ResultSetCache.RowData {
+        private final String[] parameters;
+
         public RowData(String catalog, String schema, Database database, String... parameters) {
             super(catalog, schema, database, parameters);
+            this.parameters = parameters;
+        }
+
+        /**
+         * Whether the key names an object within the schema, as opposed to all objects of the schema.
+         */
+        boolean namesObject() {
+            if (parameters != null) {
+                for (String parameter : parameters) {
+                    if (parameter != null) {
+                        return true;
+                    }
+                }
+            }
+            return false;
         }
     }
 
+    /**
+     * Base for IQ catalog extractors. IQ catalog views are cheap to read as a whole, so every lookup reads the
+     * complete schema with {@link #bulkFetchQuery()} and later lookups in that schema are answered from the cache.
+     */
     public abstract static class SingleResultSetExtractor extends ResultSetCache.SingleResultSetExtractor {
+        protected final Database database;
+        protected final String catalogName;
+        protected final String schemaName;
+
+        private Connection connection;
+        private IQResultSetCache cache;
+        private Collection<String> tableNames;
+        private final IQCatalogFilter filter = IQCatalogFilter.fromConfiguration();
+
         public SingleResultSetExtractor(Database database) {
+            this(database, null, null);
+        }
+
+        public SingleResultSetExtractor(Database database, String catalogName, String schemaName) {
             super(database);
+            this.database = database;
+            this.catalogName = catalogName;
+            this.schemaName = schemaName;
+        }
+
+        /**
+         * Runs the queries of this extractor on the given connection instead of the connection of the database.
+         */
+        public SingleResultSetExtractor withConnection(Connection connection) {
+            this.connection = connection;
+            return this;
+        }
+
+        /**
+         * Identifies the bulk query of this extractor: same extractor type, same schema and, for reads of the whole
+         * schema, same {@link IQCatalogFilter object filter}.
+         */
+        public String getPrefetchKey() {
+            String key = getClass().getName() + "/" + (schemaName == null ? "" : schemaName.toUpperCase(Locale.US));
+            String filterKey = isFiltered() ? filter.getKey() : "";
+            return filterKey.isEmpty() ? key : key + "/" + filterKey;
+        }
+
+        /**
+         * The object filter only applies to reads of the whole schema. Lookups of one object, such as the changelog
+         * tables checked by the lock and history services or tables referenced by foreign keys, must find it
+         * whatever the filter says.
+         */
+        private boolean isFiltered() {
+            ResultSetCache.RowData wanted = wantedKeyParameters();
+            return !(wanted instanceof RowData && ((RowData) wanted).namesObject());
+        }
+
+        /**
+         * The label of the column holding the table name of each row. Extractors returning one set of rows per table
+         * and restricting their bulk query with {@link #tableFilter(String)} return it, so that only the rows of
+         * changed tables are read again when the results are kept in an {@link IQCatalogStore}. Null by default.
+         */
+        protected String getTableNameColumn() {
+            return null;
+        }
+
+        /**
+         * A condition limiting the bulk query to the tables read again, or an empty string when the whole schema is
+         * read.
+         */
+        protected String tableFilter(String tableNameColumn) {
+            if (tableNames == null) {
+                return "";
+            }
+            StringBuilder filter = new StringBuilder(" AND ").append(tableNameColumn).append(" IN (");
+            String separator = "";
+            for (String tableName : tableNames) {
+                filter.append(separator).append(quote(tableName));
+                separator = ", ";
+            }
+            return filter.append(") ").toString();
         }
 
-        protected boolean shouldBulkSelect(String schemaKey, IQResultSetCache resultSetCache) {
-            return super.shouldBulkSelect(schemaKey, resultSetCache);
+        /**
+         * The conditions of the configured {@link IQCatalogFilter} for objects of the type (<code>table</code> or
+         * <code>sequence</code>) named by the column, together with the schema items applied to the owner column, or
+         * an empty string. Empty for lookups of one object, and the changelog and lock tables always pass.
+         */
+        protected String objectFilter(String objectType, String nameColumn, String ownerColumn) {
+            if (!isFiltered()) {
+                return "";
+            }
+            String condition = filter.condition("schema", ownerColumn) + filter.condition(objectType, nameColumn);
+            if (condition.isEmpty() || !"table".equals(objectType)) {
+                return condition;
+            }
+            return " AND (UPPER(" + nameColumn + ") IN ("
+                    + quote(database.getDatabaseChangeLogTableName().toUpperCase(Locale.US)) + ", "
+                    + quote(database.getDatabaseChangeLogLockTableName().toUpperCase(Locale.US)) + ") OR (1 = 1"
+                    + condition + ")) ";
+        }
+
+        @Override
+        protected boolean shouldBulkSelect(String schemaKey, ResultSetCache resultSetCache) {
+            return true;
+        }
+
+        @Override
+        public boolean bulkContainsSchema(String schemaKey) {
+            return false;
+        }
+
+        @Override
+        public List<CachedRow> fastFetchQuery() throws SQLException, DatabaseException {
+            return bulkFetchQuery();
+        }
+
+        @Override
+        public List<CachedRow> bulkFetch() throws SQLException, DatabaseException {
+            Future<List<CachedRow>> rows = cache == null ? null : cache.prefetched.remove(getPrefetchKey());
+            if (rows == null && database instanceof IQDatabase) {
+                IQResultSetCache connectionCache = ((IQDatabase) database).getConnectionCache();
+                if (connectionCache != null) {
+                    rows = connectionCache.prefetched.remove(getPrefetchKey());
+                }
+            }
+            if (rows != null) {
+                try {
+                    return rows.get();
+                } catch (ExecutionException e) {
+                    Scope.getCurrentScope().getLog(getClass()).info("Prefetching " + getPrefetchKey()
+                            + " failed, querying again", e.getCause());
+                } catch (CancellationException e) {
+                    // discarded by a statement changing the catalog while it was being taken
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new DatabaseException(e);
+                }
+            }
+            IQCatalogStore store = cache == null ? null : cache.getCatalogStore(database);
+            if (store == null || schemaName == null || getTableNameColumn() == null) {
+                return bulkFetchQuery();
+            }
+            return fetchIncrementally(store);
+        }
+
+        /**
+         * Answers the bulk query from the stored rows of the schema, querying only the tables whose stamp changed
+         * since they were stored, and stores the result.
+         */
+        private List<CachedRow> fetchIncrementally(IQCatalogStore store) throws SQLException, DatabaseException {
+            String key = getPrefetchKey();
+            String tableNameColumn = getTableNameColumn();
+            Map<String, String> stamps = cache.getTableStamps(database, schemaName);
+            IQCatalogStore.Entry stored = store.read(key);
+
+            Set<String> changed = new HashSet<>();
+            if (stored != null) {
+                for (Map.Entry<String, String> stamp : stamps.entrySet()) {
+                    if (!stamp.getValue().equals(stored.stamps.get(stamp.getKey()))) {
+                        changed.add(stamp.getKey());
+                    }
+                }
+            }
+
+            List<CachedRow> rows;
+            if (stored == null || changed.size() > MAX_CHANGED_TABLES) {
+                rows = bulkFetchQuery();
+            } else if (changed.isEmpty() && stamps.keySet().equals(stored.stamps.keySet())) {
+                return stored.rows;
+            } else {
+                List<CachedRow> fetched = Collections.emptyList();
+                if (!changed.isEmpty()) {
+                    tableNames = changed;
+                    try {
+                        fetched = bulkFetchQuery();
+                    } finally {
+                        tableNames = null;
+                    }
+                }
+                List<CachedRow> merged = new ArrayList<>();
+                for (CachedRow row : stored.rows) {
+                    String tableName = row.getString(tableNameColumn);
+                    if (stamps.containsKey(tableName) && !changed.contains(tableName)) {
+                        merged.add(row);
+                    }
+                }
+                merged.addAll(fetched);
+                // stable, so the rows of a table keep the order of the query
+                merged.sort(Comparator.comparing(row -> row.getString(tableNameColumn),
+                        Comparator.nullsFirst(Comparator.<String>naturalOrder())));
+                IQColumnarRows.Builder builder = new IQColumnarRows.Builder(stored.columns);
+                for (CachedRow row : merged) {
+                    builder.add(row);
+                }
+                rows = builder.build();
+            }
+
+            if (rows instanceof IQColumnarRows) {
+                store.write(key, new IQCatalogStore.Entry(((IQColumnarRows) rows).getColumns(), stamps, rows));
+            }
+            return rows;
         }
 
         @Override
         public List<CachedRow> executeAndExtract(String sql, Database database) throws DatabaseException, SQLException {
-            return super.executeAndExtract(sql, database);
+            return executeAndExtract(sql, database, false);
         }
 
         @Override
         public List<CachedRow> executeAndExtract(String sql, Database database, boolean informixTrimHint)
                 throws DatabaseException, SQLException {
-            return super.executeAndExtract(sql, database, informixTrimHint);
+            if (sql == null) {
+                return new ArrayList<>();
+            }
+            Connection jdbcConnection = connection;
+            if (jdbcConnection == null) {
+                jdbcConnection = ((JdbcConnection) database.getConnection()).getUnderlyingConnection();
+            }
+            Statement statement = null;
+            ResultSet resultSet = null;
+            try {
+                statement = jdbcConnection.createStatement();
+                statement.setFetchSize(FETCH_SIZE);
+                resultSet = statement.executeQuery(sql);
+                return IQColumnarRows.read(resultSet);
+            } finally {
+                JdbcUtils.close(resultSet, statement);
+            }
         }
 
+        /**
+         * Quotes a value as a SQL string literal for use in catalog queries.
+         */
+        protected String quote(String value) {
+            return "'" + database.escapeStringForDatabase(value) + "'";
+        }
     }
 }
@@ -0,0 +1,153 @@
+package liquibase.ext.iq.change;
+
+import liquibase.Scope;
+import liquibase.change.AddColumnConfig;
+import liquibase.changelog.ChangeSet;
+import liquibase.database.DatabaseConnection;
+import liquibase.executor.ExecutorService;
+import liquibase.executor.jvm.JdbcExecutor;
+import liquibase.ext.iq.configuration.IQConfiguration;
+import liquibase.ext.iq.database.IQDatabase;
+import liquibase.ext.iq.statement.IQCreateIndexStatement;
+import liquibase.ext.iq.statement.IQParallelCreateIndexStatement;
+import liquibase.sql.visitor.SqlVisitor;
+import liquibase.sqlgenerator.SqlGeneratorFactory;
+import liquibase.statement.SqlStatement;
+import liquibase.statement.core.RawSqlStatement;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+public class IQCreateIndexChangeTest {
+
+    IQDatabase database;
+    ChangeSet changeSet;
+
+    @Before
+    public void setup() {
+        database = new IQDatabase();
+        changeSet = new ChangeSet("1", "test", false, false, "changelog.xml", null, null, null);
+    }
+
+    @After
+    public void tearDown() {
+        IQConfiguration.getInstance().setValue(IQConfiguration.PARALLEL_INDEX_BUILDS, 1);
+        Scope.getCurrentScope().getSingleton(ExecutorService.class).reset();
+    }
+
+    @Test
+    public void testSerialBuildGeneratesPlainCreateIndex() {
+        IQCreateIndexChange first = addIndex("IX_1", "T1");
+        addIndex("IX_2", "T1");
+
+        SqlStatement[] statements = first.generateStatements(database);
+
+        assertEquals(1, statements.length);
+        assertTrue(statements[0] instanceof IQCreateIndexStatement);
+    }
+
+    @Test
+    public void testIndexTypeSql() {
+        IQCreateIndexChange change = addIndex("IX_1", "T1");
+
+        SqlStatement statement = change.generateStatements(database)[0];
+
+        assertEquals("CREATE HG INDEX IX_1 ON T1(ID)",
+                SqlGeneratorFactory.getInstance().generateSql(statement, database)[0].toSql());
+    }
+
+    @Test
+    public void testUnknownAndNonHgUniqueIndexTypesAreRejected() {
+        IQCreateIndexChange unknown = addIndex("IX_1", "T1");
+        unknown.setIndexType("BTREE");
+        IQCreateIndexChange unique = addIndex("IX_2", "T1");
+        unique.setIndexType("LF");
+        unique.setUnique(true);
+
+        assertTrue(unknown.validate(database).hasErrors());
+        assertTrue(unique.validate(database).hasErrors());
+    }
+
+    @Test
+    public void testParallelRunIsSplitIntoGroups() {
+        IQConfiguration.getInstance().setValue(IQConfiguration.PARALLEL_INDEX_BUILDS, 2);
+        IQCreateIndexChange first = addIndex("IX_1", "T1");
+        IQCreateIndexChange second = addIndex("IX_2", "T1");
+        IQCreateIndexChange third = addIndex("IX_3", "T1");
+        IQCreateIndexChange other = addIndex("IX_4", "T2");
+
+        assertParallel(first.generateStatements(database), false);
+        assertParallel(second.generateStatements(database), true);
+        assertTrue(third.generateStatements(database)[0] instanceof IQCreateIndexStatement);
+        assertTrue(other.generateStatements(database)[0] instanceof IQCreateIndexStatement);
+    }
+
+    @Test
+    public void testParallelRunExecutesOneBlock() throws Exception {
+        IQConfiguration.getInstance().setValue(IQConfiguration.PARALLEL_INDEX_BUILDS, 2);
+        JdbcExecutor executor = mock(JdbcExecutor.class);
+        Scope.getCurrentScope().getSingleton(ExecutorService.class).setExecutor("jdbc", database, executor);
+        IQCreateIndexChange first = addIndex("IX_1", "T1");
+        IQCreateIndexChange second = addIndex("IX_2", "T1");
+        List<SqlVisitor> visitors = new ArrayList<>();
+
+        database.execute(first.generateStatements(database), visitors);
+        verify(executor, never()).execute(any(SqlStatement.class));
+
+        database.execute(second.generateStatements(database), visitors);
+        ArgumentCaptor<SqlStatement> executed = ArgumentCaptor.forClass(SqlStatement.class);
+        verify(executor).execute(executed.capture());
+        String sql = ((RawSqlStatement) executed.getValue()).getSql();
+        assertTrue(sql.startsWith("BEGIN PARALLEL IQ\n"));
+        assertTrue(sql.contains("IX_1"));
+        assertTrue(sql.contains("IX_2"));
+        assertTrue(sql.endsWith("END PARALLEL IQ"));
+    }
+
+    @Test
+    public void testRollbackDiscardsHeldBackIndexes() throws Exception {
+        IQConfiguration.getInstance().setValue(IQConfiguration.PARALLEL_INDEX_BUILDS, 2);
+        JdbcExecutor executor = mock(JdbcExecutor.class);
+        Scope.getCurrentScope().getSingleton(ExecutorService.class).setExecutor("jdbc", database, executor);
+        IQCreateIndexChange first = addIndex("IX_1", "T1");
+        addIndex("IX_2", "T1");
+        database.setConnection(mock(DatabaseConnection.class));
+
+        database.execute(first.generateStatements(database), new ArrayList<>());
+        database.rollback();
+        database.commit();
+
+        verify(executor, never()).execute(any(SqlStatement.class));
+    }
+
+    private void assertParallel(SqlStatement[] statements, boolean lastOfRun) {
+        assertEquals(1, statements.length);
+        assertTrue(statements[0] instanceof IQParallelCreateIndexStatement);
+        assertEquals(lastOfRun, ((IQParallelCreateIndexStatement) statements[0]).isLastOfRun());
+        assertFalse(((IQParallelCreateIndexStatement) statements[0]).getCreateIndex() == null);
+    }
+
+    private IQCreateIndexChange addIndex(String indexName, String tableName) {
+        IQCreateIndexChange change = new IQCreateIndexChange();
+        change.setIndexName(indexName);
+        change.setTableName(tableName);
+        change.setIndexType("HG");
+        AddColumnConfig column = new AddColumnConfig();
+        column.setName("ID");
+        change.addColumn(column);
+        changeSet.addChange(change);
+        return change;
+    }
+}
@@ -0,0 +1,132 @@
+package liquibase.ext.iq.change;
+
+import liquibase.change.core.LoadDataChange;
+import liquibase.database.PreparedStatementFactory;
+import liquibase.database.jvm.JdbcConnection;
+import liquibase.exception.UnexpectedLiquibaseException;
+import liquibase.ext.iq.configuration.IQConfiguration;
+import liquibase.ext.iq.database.IQDatabase;
+import liquibase.ext.iq.sqlgenerator.IQBatchInsertGenerator;
+import liquibase.ext.iq.sqlgenerator.IQLoadTableGenerator;
+import liquibase.ext.iq.statement.IQBatchInsertStatement;
+import liquibase.ext.iq.statement.IQLoadDataColumn;
+import liquibase.ext.iq.statement.IQLoadTableStatement;
+import liquibase.sql.Sql;
+import liquibase.statement.SqlStatement;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.sql.PreparedStatement;
+import java.sql.Types;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class IQLoadDataChangeTest {
+
+    IQDatabase database;
+    IQLoadDataChange change;
+
+    @Before
+    public void setup() {
+        database = new IQDatabase();
+        change = new IQLoadDataChange();
+        change.setTableName("PERSON");
+        change.setFile("liquibase/ext/iq/change/load-data.csv");
+    }
+
+    @After
+    public void tearDown() {
+        IQConfiguration.getInstance().setLoadDataMode(IQConfiguration.LoadDataMode.DEFAULT);
+        IQConfiguration.getInstance().setValue(IQConfiguration.LOAD_TABLE_SERVER_FILE, false);
+        IQConfiguration.getInstance().setValue(IQConfiguration.BATCH_SIZE, 1000);
+    }
+
+    @Test
+    public void testLoadTableStatementForServerFile() {
+        IQConfiguration.getInstance().setLoadDataMode(IQConfiguration.LoadDataMode.LOAD_TABLE);
+        IQConfiguration.getInstance().setValue(IQConfiguration.LOAD_TABLE_SERVER_FILE, true);
+
+        SqlStatement[] statements = change.generateStatements(database);
+
+        assertEquals(1, statements.length);
+        IQLoadTableStatement statement = (IQLoadTableStatement) statements[0];
+        assertFalse(statement.isClientFile());
+        assertEquals("liquibase/ext/iq/change/load-data.csv", statement.getFileName());
+        assertEquals(3, statement.getColumns().size());
+        assertEquals("created", statement.getColumns().get(2).getName());
+    }
+
+    @Test
+    public void testLoadTableSql() {
+        IQLoadTableStatement statement = new IQLoadTableStatement(null, null, "PERSON", "/data/person.csv", true)
+                .addColumn(new IQLoadDataColumn("ID", LoadDataChange.LOAD_DATA_TYPE.NUMERIC))
+                .addColumn(IQLoadDataColumn.filler())
+                .addColumn(new IQLoadDataColumn("CREATED", LoadDataChange.LOAD_DATA_TYPE.DATE))
+                .setDateFormat("YYYY-MM-DD");
+
+        String sql = new IQLoadTableGenerator().generateSql(statement, database, null)[0].toSql();
+
+        assertEquals("LOAD TABLE PERSON (ID NULL('NULL'), FILLER(','), CREATED DATETIME('YYYY-MM-DD') NULL('NULL')) "
+                + "USING CLIENT FILE '/data/person.csv' DELIMITED BY ',' ROW DELIMITED BY '\\x0a' "
+                + "QUOTES ON ESCAPES OFF SKIP 1", sql);
+    }
+
+    @Test
+    public void testLoadTableRejectsOtherQuoteCharacters() {
+        IQLoadTableStatement statement = new IQLoadTableStatement(null, null, "PERSON", "/data/person.csv", true)
+                .addColumn(new IQLoadDataColumn("ID", LoadDataChange.LOAD_DATA_TYPE.NUMERIC))
+                .setQuoteChar("'");
+
+        assertTrue(new IQLoadTableGenerator().validate(statement, database, null).hasErrors());
+    }
+
+    @Test
+    public void testBatchModeBindsRowsToOnePreparedInsert() throws Exception {
+        IQConfiguration.getInstance().setLoadDataMode(IQConfiguration.LoadDataMode.BATCH);
+        IQConfiguration.getInstance().setValue(IQConfiguration.BATCH_SIZE, 1);
+        PreparedStatement stmt = mock(PreparedStatement.class);
+        JdbcConnection connection = mock(JdbcConnection.class);
+        when(connection.prepareStatement(anyString())).thenReturn(stmt);
+
+        SqlStatement[] statements = change.generateStatements(database);
+        IQBatchInsertStatement statement = (IQBatchInsertStatement) statements[0];
+        statement.execute(new PreparedStatementFactory(connection));
+
+        verify(connection).prepareStatement("INSERT INTO PERSON (id, name, created) VALUES (?, ?, ?)");
+        verify(stmt).setString(2, "one");
+        verify(stmt).setNull(3, Types.VARCHAR);
+        verify(stmt, times(2)).executeBatch();
+        verify(stmt).close();
+        verify(connection, never()).commit();
+    }
+
+    @Test
+    public void testBatchInsertSqlForUpdateSql() {
+        IQConfiguration.getInstance().setLoadDataMode(IQConfiguration.LoadDataMode.BATCH);
+
+        IQBatchInsertStatement statement = (IQBatchInsertStatement) change.generateStatements(database)[0];
+        Sql[] sql = new IQBatchInsertGenerator().generateSql(statement, database, null);
+
+        assertEquals(2, sql.length);
+        assertEquals("INSERT INTO PERSON (id, name, created) VALUES ('1', 'one', '2020-01-01')", sql[0].toSql());
+        assertEquals("INSERT INTO PERSON (id, name, created) VALUES ('2', 'two', NULL)", sql[1].toSql());
+    }
+
+    @Test(expected = UnexpectedLiquibaseException.class)
+    public void testMissingFileIsReportedUnchecked() {
+        IQConfiguration.getInstance().setLoadDataMode(IQConfiguration.LoadDataMode.LOAD_TABLE);
+        IQConfiguration.getInstance().setValue(IQConfiguration.LOAD_TABLE_SERVER_FILE, true);
+        change.setFile("liquibase/ext/iq/change/missing.csv");
+
+        change.generateStatements(database);
+    }
+}
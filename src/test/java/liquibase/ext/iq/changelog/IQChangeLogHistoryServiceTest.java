@@ -0,0 +1,123 @@
+package liquibase.ext.iq.changelog;
+
+import liquibase.Scope;
+import liquibase.changelog.ChangeSet;
+import liquibase.database.jvm.JdbcConnection;
+import liquibase.executor.ExecutorService;
+import liquibase.executor.jvm.JdbcExecutor;
+import liquibase.ext.iq.configuration.IQConfiguration;
+import liquibase.ext.iq.database.IQDatabase;
+import liquibase.ext.iq.helpers.ResultSets;
+import liquibase.statement.SqlStatement;
+import liquibase.statement.core.TagDatabaseStatement;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.InOrder;
+
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class IQChangeLogHistoryServiceTest {
+
+    private static final String[] SESSION_COLUMNS = {"SCHEMA", "USER", "VERSION", "ROLE", "allow_read_client_file",
+            "quoted_identifier", "chained", "isolation_level", "blocking", "timestamp_format"};
+
+    IQDatabase database;
+    JdbcConnection connection;
+    PreparedStatement insert;
+    JdbcExecutor executor;
+    IQChangeLogHistoryService historyService;
+
+    @Before
+    public void setup() throws Exception {
+        IQConfiguration.getInstance().setValue(IQConfiguration.DEFER_HISTORY_WRITES, true);
+        insert = mock(PreparedStatement.class);
+        connection = mock(JdbcConnection.class);
+        when(connection.prepareStatement(anyString())).thenReturn(insert);
+        Statement session = mock(Statement.class);
+        when(session.executeQuery(anyString())).thenAnswer(invocation -> ResultSets.of(SESSION_COLUMNS,
+                new Object[] {"APP", "DBA", "16.1", null, "On", "On", "Off", "0", "On", null}));
+        when(connection.createStatement()).thenReturn(session);
+        database = new IQDatabase();
+        database.setConnection(connection);
+        executor = mock(JdbcExecutor.class);
+        when(executor.queryForInt(any(SqlStatement.class))).thenReturn(1);
+        Scope.getCurrentScope().getSingleton(ExecutorService.class).setExecutor("jdbc", database, executor);
+
+        historyService = new IQChangeLogHistoryService();
+        historyService.setDatabase(database);
+    }
+
+    @After
+    public void tearDown() {
+        IQConfiguration.getInstance().setValue(IQConfiguration.DEFER_HISTORY_WRITES, false);
+        Scope.getCurrentScope().getSingleton(ExecutorService.class).reset();
+    }
+
+    @Test
+    public void testRowsAreDeferredUntilCommit() throws Exception {
+        historyService.setExecType(changeSet("1"), ChangeSet.ExecType.EXECUTED);
+        historyService.setExecType(changeSet("2"), ChangeSet.ExecType.EXECUTED);
+
+        assertTrue(database.hasPendingWork());
+        verify(insert, never()).executeBatch();
+
+        database.commit();
+
+        verify(insert, times(2)).addBatch();
+        verify(insert, times(1)).executeBatch();
+        assertFalse(database.hasPendingWork());
+    }
+
+    @Test
+    public void testTagWritesPendingRowsFirst() throws Exception {
+        historyService.setExecType(changeSet("1"), ChangeSet.ExecType.EXECUTED);
+
+        historyService.tag("v1");
+
+        InOrder order = inOrder(insert, connection, executor);
+        order.verify(insert).executeBatch();
+        order.verify(connection).commit();
+        order.verify(executor).execute(any(TagDatabaseStatement.class));
+        assertFalse(database.hasPendingWork());
+    }
+
+    @Test
+    public void testRemoveFromHistoryWritesPendingRowsFirst() throws Exception {
+        historyService.setExecType(changeSet("1"), ChangeSet.ExecType.EXECUTED);
+
+        historyService.removeFromHistory(changeSet("1"));
+
+        InOrder order = inOrder(insert, executor);
+        order.verify(insert).executeBatch();
+        order.verify(executor).execute(any(SqlStatement.class));
+    }
+
+    @Test
+    public void testRollbackDiscardsPendingRows() throws Exception {
+        historyService.setExecType(changeSet("1"), ChangeSet.ExecType.EXECUTED);
+
+        database.rollback();
+        database.commit();
+
+        verify(insert, never()).executeBatch();
+        assertEquals(0, historyService.getPendingCount());
+    }
+
+    private static ChangeSet changeSet(String id) {
+        return new ChangeSet(id, "author", false, false, "changelog.xml", null, null, null);
+    }
+}
@@ -0,0 +1,99 @@
+package liquibase.ext.iq.changelog;
+
+import liquibase.changelog.ChangeSet;
+import liquibase.changelog.RanChangeSet;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Date;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class RanChangeSetIndexTest {
+
+    RanChangeSetIndex index;
+    RanChangeSet first;
+    RanChangeSet second;
+
+    @Before
+    public void setup() {
+        index = new RanChangeSetIndex();
+        first = ranChangeSet("classpath:db/changelog.xml", "1", "Alice");
+        second = ranChangeSet("db/changelog.xml", "2", "bob");
+        index.add(first);
+        index.add(second);
+    }
+
+    @Test
+    public void testFindMatchesLikeIsSameAs() {
+        assertSame(first, index.find(changeSet("db/changelog.xml", "1", "alice")));
+        assertSame(first, index.find(changeSet("classpath:/db/changelog.xml", "1", "ALICE")));
+        assertSame(first, index.find(changeSet("C:\\db\\changelog.xml", "1", "Alice")));
+        assertSame(second, index.find(changeSet("DB//Changelog.XML", "2", "Bob")));
+        assertNull(index.find(changeSet("db/changelog.xml", "3", "bob")));
+        assertNull(index.find(changeSet("other/changelog.xml", "1", "alice")));
+    }
+
+    @Test
+    public void testFindFoldsCaseLikeEqualsIgnoreCase() {
+        RanChangeSet dotted = ranChangeSet("db/changelog.xml", "\u0130ndex", "\u00e9mile");
+        index.add(dotted);
+
+        assertSame(dotted, index.find(changeSet("db/changelog.xml", "\u0130NDEX", "\u00c9MILE")));
+        assertTrue(dotted.isSameAs(changeSet("db/changelog.xml", "index", "\u00e9mile")));
+        assertSame(dotted, index.find(changeSet("db/changelog.xml", "index", "\u00e9mile")));
+        assertNull(index.find(changeSet("db/changelog.xml", "index", "emile")));
+    }
+
+    @Test
+    public void testFirstOfEqualKeysWins() {
+        RanChangeSet duplicate = ranChangeSet("DB/CHANGELOG.XML", "1", "alice");
+        index.add(duplicate);
+
+        assertSame(first, index.find(changeSet("db/changelog.xml", "1", "alice")));
+        index.remove(changeSet("db/changelog.xml", "1", "alice"));
+        assertSame(duplicate, index.find(changeSet("db/changelog.xml", "1", "alice")));
+    }
+
+    @Test
+    public void testSeparatorInsideValuesDoesNotCollide() {
+        RanChangeSet joined = ranChangeSet("db/changelog.xml", "a::b", "c");
+        index.add(joined);
+
+        assertSame(joined, index.find(changeSet("db/changelog.xml", "a::b", "c")));
+        assertNull(index.find(changeSet("db/changelog.xml", "a", "b::c")));
+    }
+
+    @Test
+    public void testRemoveKeepsOrder() {
+        RanChangeSet third = ranChangeSet("db/changelog.xml", "3", "bob");
+        index.add(third);
+
+        index.remove(changeSet("db/changelog.xml", "2", "bob"));
+
+        assertEquals(2, index.size());
+        assertSame(first, index.list().get(0));
+        assertSame(third, index.last());
+        assertNull(index.find(changeSet("db/changelog.xml", "2", "bob")));
+    }
+
+    @Test
+    public void testShareReturnsOneInstancePerValue() {
+        String author = index.share(new String("alice"));
+
+        assertSame(author, index.share(new String("alice")));
+        assertNull(index.share(null));
+    }
+
+    private static RanChangeSet ranChangeSet(String changeLog, String id, String author) {
+        return new RanChangeSet(changeLog, id, author, null, new Date(), null, ChangeSet.ExecType.EXECUTED, null,
+                null, null, null, "1");
+    }
+
+    private static ChangeSet changeSet(String filePath, String id, String author) {
+        return new ChangeSet(id, author, false, false, filePath, null, null, null);
+    }
+}
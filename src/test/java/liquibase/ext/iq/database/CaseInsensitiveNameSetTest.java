@@ -0,0 +1,64 @@
+package liquibase.ext.iq.database;
+
+import liquibase.structure.core.Column;
+import liquibase.structure.core.Table;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class CaseInsensitiveNameSetTest {
+
+    CaseInsensitiveNameSet names;
+
+    @Before
+    public void setup() {
+        names = new CaseInsensitiveNameSet(Arrays.asList("select", "Table", "SELECT", "iq_system"));
+    }
+
+    @Test
+    public void testContainsIgnoresCase() {
+        assertTrue(names.contains("SELECT"));
+        assertTrue(names.contains("select"));
+        assertTrue(names.contains("table"));
+        assertTrue(names.contains("IQ_SYSTEM"));
+        assertFalse(names.contains("person"));
+        assertFalse(names.contains(null));
+    }
+
+    @Test
+    public void testDuplicatesDifferingInCaseAreStoredOnce() {
+        assertEquals(3, names.size());
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testIsImmutable() {
+        names.add("from");
+    }
+
+    @Test
+    public void testReservedWordsAreSharedAndIgnoreCase() {
+        IQDatabase database = new IQDatabase();
+
+        assertTrue(database.isReservedWord("select"));
+        assertTrue(database.isReservedWord("SELECT"));
+        assertTrue(database.isReservedWord("Capability"));
+        assertFalse(database.isReservedWord("person"));
+        assertSame(database.getSystemTables(), new IQDatabase().getSystemTables());
+        assertTrue(database.getSystemTables().contains("isysarticle"));
+    }
+
+    @Test
+    public void testReservedWordsAreQuotedWhenEscaped() {
+        IQDatabase database = new IQDatabase();
+
+        assertEquals("\"capability\"", database.escapeObjectName("capability", Table.class));
+        assertEquals("\"Select\"", database.escapeObjectName("Select", Column.class));
+        assertEquals("person", database.escapeObjectName("person", Table.class));
+    }
+}
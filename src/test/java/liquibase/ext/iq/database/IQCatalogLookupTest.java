@@ -0,0 +1,95 @@
+package liquibase.ext.iq.database;
+
+import liquibase.database.DatabaseConnection;
+import liquibase.database.jvm.JdbcConnection;
+import liquibase.ext.iq.helpers.ResultSets;
+import liquibase.statement.core.AddColumnStatement;
+import liquibase.statement.core.RawSqlStatement;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.sql.PreparedStatement;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class IQCatalogLookupTest {
+
+    private static final String[] COLUMNS = {"KIND", "NAME", "COLUMN_NAME", "SEQ"};
+
+    IQDatabase database;
+    JdbcConnection connection;
+    PreparedStatement statement;
+    IQCatalogLookup lookup;
+
+    @Before
+    public void setup() throws Exception {
+        statement = mock(PreparedStatement.class);
+        when(statement.executeQuery()).thenAnswer(invocation -> ResultSets.of(COLUMNS,
+                new Object[] {"C", "Id", null, 1},
+                new Object[] {"C", "Order_Date", null, 2},
+                new Object[] {"F", "FK_Orders_Customer", null, 0},
+                new Object[] {"I", "IX_Orders_Date", "Order_Date", 1},
+                new Object[] {"I", "IX_Orders_Date", "Id", 2},
+                new Object[] {"T", "Orders", null, 0}));
+        connection = mock(JdbcConnection.class);
+        when(connection.prepareStatement(anyString())).thenReturn(statement);
+        database = new IQDatabase() {
+            @Override
+            public DatabaseConnection getConnection() {
+                return connection;
+            }
+        };
+        lookup = IQCatalogLookup.forDatabase(database);
+    }
+
+    @Test
+    public void testNamesAreBoundUnchangedAndComparedIgnoringCase() throws Exception {
+        assertTrue(lookup.tableExists("App", "Orders"));
+
+        verify(connection).prepareStatement(contains("UPPER(t.table_name) = UPPER(?)"));
+        verify(statement).setString(1, "App");
+        verify(statement).setString(2, "Orders");
+        verify(statement).setString(8, "Orders");
+    }
+
+    @Test
+    public void testChecksOfOneTableShareOneQuery() throws Exception {
+        assertTrue(lookup.tableExists("APP", "orders"));
+        assertTrue(lookup.columnExists("APP", "ORDERS", "order_date"));
+        assertFalse(lookup.columnExists("APP", "ORDERS", "CUSTOMER_ID"));
+        assertTrue(lookup.indexExists("APP", "Orders", "ix_orders_date", null));
+        assertTrue(lookup.indexExists("APP", "Orders", null, Arrays.asList("ORDER_DATE", " id")));
+        assertFalse(lookup.indexExists("APP", "Orders", null, Arrays.asList("ID", "ORDER_DATE")));
+        assertTrue(lookup.foreignKeyExists("APP", "Orders", "FK_ORDERS_CUSTOMER"));
+
+        verify(statement, times(1)).executeQuery();
+    }
+
+    @Test
+    public void testStatementsInvalidateTheirTables() throws Exception {
+        lookup.tableExists("APP", "ORDERS");
+
+        lookup.invalidate(new AddColumnStatement(null, "app", "orders", "NOTE", "VARCHAR(10)", null));
+        lookup.tableExists("APP", "ORDERS");
+        lookup.invalidate(new RawSqlStatement("ALTER TABLE APP.ORDERS ADD NOTE VARCHAR(10)"));
+        lookup.tableExists("APP", "ORDERS");
+
+        verify(statement, times(3)).executeQuery();
+    }
+
+    @Test
+    public void testOnlyForIQWithJdbcConnection() {
+        assertSame(database.getCatalogLookup(), lookup);
+        assertNull(IQCatalogLookup.forDatabase(new IQDatabase()));
+    }
+}
@@ -0,0 +1,88 @@
+package liquibase.ext.iq.database;
+
+import liquibase.database.DatabaseConnection;
+import liquibase.database.jvm.JdbcConnection;
+import liquibase.ext.iq.configuration.IQConfiguration;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.sql.Connection;
+import java.sql.Driver;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.Properties;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class IQConnectionFactoryTest {
+
+    private static final String URL = "jdbc:iqtest://localhost:2638";
+
+    Driver driver;
+    Connection connection;
+    IQDatabase database;
+
+    @Before
+    public void setup() throws Exception {
+        connection = mock(Connection.class);
+        driver = mock(Driver.class);
+        when(driver.acceptsURL(anyString())).thenAnswer(invocation -> URL.equals(invocation.getArgument(0)));
+        when(driver.connect(eq(URL), any(Properties.class))).thenReturn(connection);
+        DriverManager.registerDriver(driver);
+
+        final JdbcConnection jdbcConnection = mock(JdbcConnection.class);
+        when(jdbcConnection.getURL()).thenReturn(URL);
+        when(jdbcConnection.getConnectionUserName()).thenReturn("dba");
+        database = new IQDatabase() {
+            @Override
+            public DatabaseConnection getConnection() {
+                return jdbcConnection;
+            }
+        };
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        DriverManager.deregisterDriver(driver);
+        IQConfiguration.getInstance().setValue(IQConfiguration.ADDITIONAL_CONNECTION_PASSWORD, null);
+    }
+
+    @Test
+    public void testPasswordIsTakenFromConfiguration() throws Exception {
+        IQConfiguration.getInstance().setValue(IQConfiguration.ADDITIONAL_CONNECTION_PASSWORD, "secret");
+
+        assertSame(connection, database.openAdditionalConnection());
+
+        ArgumentCaptor<Properties> info = ArgumentCaptor.forClass(Properties.class);
+        verify(driver).connect(eq(URL), info.capture());
+        assertEquals("dba", info.getValue().getProperty("user"));
+        assertEquals("secret", info.getValue().getProperty("password"));
+    }
+
+    @Test
+    public void testNoPasswordWithoutConfiguration() throws Exception {
+        database.openAdditionalConnection();
+
+        ArgumentCaptor<Properties> info = ArgumentCaptor.forClass(Properties.class);
+        verify(driver).connect(eq(URL), info.capture());
+        assertFalse(info.getValue().containsKey("password"));
+    }
+
+    @Test
+    public void testFailuresReturnNull() throws Exception {
+        when(driver.connect(eq(URL), any(Properties.class))).thenThrow(new SQLException("login failed"));
+
+        assertNull(database.openAdditionalConnection());
+    }
+}
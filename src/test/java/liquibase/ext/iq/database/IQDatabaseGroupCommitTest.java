@@ -0,0 +1,136 @@
+package liquibase.ext.iq.database;
+
+import liquibase.Scope;
+import liquibase.database.DatabaseConnection;
+import liquibase.executor.Executor;
+import liquibase.executor.ExecutorService;
+import liquibase.ext.iq.configuration.IQConfiguration;
+import liquibase.statement.SqlStatement;
+import liquibase.statement.core.InsertStatement;
+import liquibase.statement.core.RawSqlStatement;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.InOrder;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class IQDatabaseGroupCommitTest {
+
+    IQDatabase database;
+    DatabaseConnection connection;
+    Executor executor;
+    IQTransactionListener listener;
+
+    @Before
+    public void setup() throws Exception {
+        IQConfiguration.getInstance().setValue(IQConfiguration.GROUP_COMMIT_SIZE, 3);
+        connection = mock(DatabaseConnection.class);
+        database = new IQDatabase();
+        database.setConnection(connection);
+        executor = mock(Executor.class);
+        Scope.getCurrentScope().getSingleton(ExecutorService.class).setExecutor("jdbc", database, executor);
+        listener = mock(IQTransactionListener.class);
+        database.setTransactionListener(listener);
+    }
+
+    @After
+    public void tearDown() {
+        IQConfiguration.getInstance().setValue(IQConfiguration.GROUP_COMMIT_SIZE, 0);
+        Scope.getCurrentScope().getSingleton(ExecutorService.class).reset();
+    }
+
+    @Test
+    public void testSmallChangeSetsShareOneCommit() throws Exception {
+        int[] recorded = {0};
+        when(listener.getPendingCount()).thenAnswer(invocation -> recorded[0]);
+
+        for (int i = 0; i < 3; i++) {
+            database.execute(new SqlStatement[] {insert()}, null);
+            recorded[0]++;
+            database.commit();
+        }
+
+        verify(connection, times(1)).commit();
+        verify(listener, times(1)).beforeCommit(database);
+        recorded[0] = 0;
+        assertFalse(database.hasPendingWork());
+    }
+
+    @Test
+    public void testOtherStatementCommitsTheGroupFirst() throws Exception {
+        when(listener.getPendingCount()).thenReturn(1);
+        database.execute(new SqlStatement[] {insert()}, null);
+        database.commit();
+        verify(connection, never()).commit();
+        assertTrue(database.hasPendingWork());
+
+        RawSqlStatement createTable = new RawSqlStatement("CREATE TABLE T2 (ID INT)");
+        database.execute(new SqlStatement[] {createTable}, null);
+
+        InOrder order = inOrder(listener, connection, executor);
+        order.verify(listener).beforeCommit(database);
+        order.verify(connection).commit();
+        order.verify(executor).execute(any(SqlStatement.class), any());
+    }
+
+    @Test
+    public void testNonGroupableTransactionIsCommittedRightAway() throws Exception {
+        database.execute(new SqlStatement[] {new RawSqlStatement("ALTER TABLE T1 ADD C INT")}, null);
+        database.commit();
+
+        verify(connection, times(1)).commit();
+    }
+
+    @Test
+    public void testRawInsertIsGroupable() throws Exception {
+        when(listener.getPendingCount()).thenReturn(1);
+
+        database.execute(new SqlStatement[] {new RawSqlStatement("  insert into T1 values (1)")}, null);
+        database.commit();
+
+        verify(connection, never()).commit();
+        database.commitPendingWork();
+        verify(connection, times(1)).commit();
+    }
+
+    @Test
+    public void testNonTransactionalChangeSetCommitsTheGroupFirst() throws Exception {
+        int[] recorded = {1};
+        when(listener.getPendingCount()).thenAnswer(invocation -> recorded[0]);
+        doAnswer(invocation -> recorded[0] = 0).when(listener).beforeCommit(database);
+        database.execute(new SqlStatement[] {insert()}, null);
+        database.commit();
+        verify(connection, never()).commit();
+
+        database.setAutoCommit(true);
+
+        InOrder order = inOrder(listener, connection);
+        order.verify(listener).beforeCommit(database);
+        order.verify(connection).commit();
+        order.verify(connection).setAutoCommit(true);
+        assertFalse(database.hasPendingWork());
+    }
+
+    @Test
+    public void testRollbackEndsTheGroup() throws Exception {
+        database.execute(new SqlStatement[] {insert()}, null);
+        database.rollback();
+
+        assertFalse(database.hasPendingWork());
+        verify(listener).afterRollback(database);
+    }
+
+    private static InsertStatement insert() {
+        return new InsertStatement(null, null, "T1").addColumnValue("ID", 1);
+    }
+}
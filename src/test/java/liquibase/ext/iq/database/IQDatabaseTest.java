@@ -2,7 +2,10 @@ package liquibase.ext.iq.database;
 
 import liquibase.ext.iq.helpers.SetUtils;
 import liquibase.CatalogAndSchema;
+import liquibase.database.ObjectQuotingStrategy;
 import liquibase.database.jvm.JdbcConnection;
+import liquibase.structure.core.Column;
+import liquibase.structure.core.Table;
 import org.junit.Before;
 import org.junit.Test;
 
@@ -17,6 +20,7 @@ import static org.hamcrest.core.Is.is;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.ArgumentMatchers.anyString;
@@ -74,7 +78,7 @@ public class IQDatabaseTest {
 
     @Test
     public void testSupportsDropTableCascadeConstraints() {
-        assertTrue(database.supportsDropTableCascadeConstraints());
+        assertFalse(database.supportsDropTableCascadeConstraints());
     }
 
     @Test
@@ -163,6 +167,35 @@ public class IQDatabaseTest {
         assertTrue(database.isReservedWord("table"));
     }
 
+    @Test
+    public void testEscapeObjectNameReusesCachedResult() {
+        String first = database.escapeObjectName("comment", Table.class);
+        String second = database.escapeObjectName("comment", Table.class);
+
+        assertEquals("\"comment\"", first);
+        assertSame(first, second);
+        assertEquals("person", database.escapeObjectName("person", Column.class));
+    }
+
+    @Test
+    public void testEscapeObjectNameFollowsQuotingStrategy() {
+        assertEquals("person", database.escapeObjectName("person", Table.class));
+
+        database.setObjectQuotingStrategy(ObjectQuotingStrategy.QUOTE_ALL_OBJECTS);
+        assertEquals("\"person\"", database.escapeObjectName("person", Table.class));
+
+        database.setObjectQuotingStrategy(ObjectQuotingStrategy.QUOTE_ONLY_RESERVED_WORDS);
+        assertEquals("person", database.escapeObjectName("person", Table.class));
+    }
+
+    @Test
+    public void testEscapeObjectNameIsPerDatabase() {
+        database.setObjectQuotingStrategy(ObjectQuotingStrategy.QUOTE_ALL_OBJECTS);
+        database.escapeObjectName("person", Table.class);
+
+        assertEquals("person", new IQDatabase().escapeObjectName("person", Table.class));
+    }
+
     @Test
     public void defaultCatalogNameIsUpperCase() throws Exception {
         JdbcConnection mock = mock(JdbcConnection.class);
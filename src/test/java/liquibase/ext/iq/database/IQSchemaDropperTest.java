@@ -0,0 +1,148 @@
+package liquibase.ext.iq.database;
+
+import liquibase.CatalogAndSchema;
+import liquibase.Scope;
+import liquibase.changelog.ChangeLogHistoryServiceFactory;
+import liquibase.database.DatabaseConnection;
+import liquibase.database.jvm.JdbcConnection;
+import liquibase.exception.DatabaseException;
+import liquibase.executor.ExecutorService;
+import liquibase.executor.jvm.JdbcExecutor;
+import liquibase.ext.iq.changelog.IQChangeLogHistoryService;
+import liquibase.ext.iq.helpers.ResultSets;
+import liquibase.ext.iq.lockservice.IQLockService;
+import liquibase.lockservice.LockServiceFactory;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class IQSchemaDropperTest {
+
+    private static final String[] COLUMNS = {"OBJECT_TYPE", "OWNER", "TABLE_NAME", "OBJECT_NAME"};
+
+    IQDatabase database;
+    PreparedStatement query;
+    Statement drops;
+
+    @Before
+    public void setup() throws Exception {
+        query = mock(PreparedStatement.class);
+        when(query.executeQuery()).thenAnswer(invocation -> ResultSets.of(COLUMNS,
+                new Object[] {"VIEW", "APP", null, "V_ORDERS"},
+                new Object[] {"FOREIGN KEY", "APP", "ORDER_LINES", "FK_LINES_ORDERS"},
+                new Object[] {"FOREIGN KEY", "REPORTS", "SUMMARY", "FK_SUMMARY_ORDERS"},
+                new Object[] {"TABLE", "APP", null, "ORDER_LINES"},
+                new Object[] {"TABLE", "APP", null, "ORDERS"},
+                new Object[] {"TABLE", "APP", null, "DATABASECHANGELOG"},
+                new Object[] {"SEQUENCE", "APP", null, "SEQ_ORDERS"}));
+        drops = mock(Statement.class);
+        final JdbcConnection connection = mock(JdbcConnection.class);
+        when(connection.prepareStatement(anyString())).thenReturn(query);
+        when(connection.createStatement()).thenReturn(drops);
+        database = new IQDatabase() {
+            @Override
+            public DatabaseConnection getConnection() {
+                return connection;
+            }
+        };
+        Scope.getCurrentScope().getSingleton(ExecutorService.class).setExecutor("jdbc", database,
+                mock(JdbcExecutor.class));
+        ChangeLogHistoryServiceFactory.getInstance().register(new RecordingHistoryService());
+        LockServiceFactory.getInstance().register(new RecordingLockService());
+        RecordingHistoryService.destroyed = false;
+        RecordingLockService.destroyed = false;
+    }
+
+    @After
+    public void tearDown() {
+        Scope.getCurrentScope().getSingleton(ExecutorService.class).reset();
+        ChangeLogHistoryServiceFactory.reset();
+        LockServiceFactory.reset();
+    }
+
+    @Test
+    public void testForeignKeysAreDroppedBeforeTables() throws Exception {
+        assertEquals(6, IQSchemaDropper.dropAll(database, "APP"));
+
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        verify(drops, times(6)).addBatch(sql.capture());
+        List<String> statements = sql.getAllValues();
+        assertEquals(Arrays.asList(
+                "DROP VIEW APP.V_ORDERS",
+                "ALTER TABLE APP.ORDER_LINES DROP FOREIGN KEY FK_LINES_ORDERS",
+                "ALTER TABLE REPORTS.SUMMARY DROP FOREIGN KEY FK_SUMMARY_ORDERS",
+                "DROP TABLE APP.ORDER_LINES",
+                "DROP TABLE APP.ORDERS",
+                "DROP SEQUENCE APP.SEQ_ORDERS"), statements);
+        for (int i = 1; i <= 6; i++) {
+            verify(query).setString(i, "APP");
+        }
+    }
+
+    @Test
+    public void testServicesAreDestroyedAfterDrop() throws Exception {
+        database.dropDatabaseObjects(new CatalogAndSchema(null, "APP"));
+
+        assertTrue(RecordingHistoryService.destroyed);
+        assertTrue(RecordingLockService.destroyed);
+    }
+
+    @Test
+    public void testServicesAreKeptWhenDropFails() throws Exception {
+        when(drops.executeBatch()).thenThrow(new SQLException("table is referenced"));
+
+        try {
+            database.dropDatabaseObjects(new CatalogAndSchema(null, "APP"));
+            fail("Expected a DatabaseException");
+        } catch (DatabaseException e) {
+            assertTrue(e.getMessage().contains("table is referenced"));
+        }
+        assertFalse(RecordingHistoryService.destroyed);
+        assertFalse(RecordingLockService.destroyed);
+    }
+
+    public static class RecordingHistoryService extends IQChangeLogHistoryService {
+        static boolean destroyed;
+
+        @Override
+        public int getPriority() {
+            return super.getPriority() + 1;
+        }
+
+        @Override
+        public void destroy() {
+            destroyed = true;
+        }
+    }
+
+    public static class RecordingLockService extends IQLockService {
+        static boolean destroyed;
+
+        @Override
+        public int getPriority() {
+            return super.getPriority() + 1;
+        }
+
+        @Override
+        public void destroy() {
+            destroyed = true;
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package liquibase.ext.iq.database;
+
+import liquibase.database.jvm.JdbcConnection;
+import liquibase.exception.DatabaseException;
+import liquibase.ext.iq.helpers.ResultSets;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class IQSessionInfoTest {
+
+    private static final String[] COLUMNS = {"SCHEMA", "USER", "VERSION", "ROLE", "allow_read_client_file",
+            "quoted_identifier", "chained", "isolation_level", "blocking", "timestamp_format"};
+
+    JdbcConnection connection;
+    Statement statement;
+
+    @Before
+    public void setup() throws Exception {
+        statement = mock(Statement.class);
+        connection = mock(JdbcConnection.class);
+        when(connection.createStatement()).thenReturn(statement);
+    }
+
+    @Test
+    public void testReadsEverythingInOneQuery() throws Exception {
+        when(statement.executeQuery(anyString())).thenAnswer(invocation -> ResultSets.of(COLUMNS,
+                new Object[] {"app", "dba", "16.1.040", "coordinator", "On", "On", "Off", "0", "On", "yyyy-mm-dd"}));
+
+        IQSessionInfo info = IQSessionInfo.read(connection);
+
+        assertEquals("app", info.getCurrentSchema());
+        assertEquals("dba", info.getCurrentUser());
+        assertEquals("16.1.040", info.getServerVersion());
+        assertEquals("coordinator", info.getMultiplexRole());
+        assertEquals("On", info.getOption("allow_read_client_file"));
+        assertEquals(IQSessionInfo.OPTIONS.length, info.getOptions().size());
+        verify(statement, times(1)).executeQuery(anyString());
+    }
+
+    @Test
+    public void testFallsBackToCurrentSchemaWhenCombinedQueryFails() throws Exception {
+        when(statement.executeQuery(startsWith("SELECT CURRENT_SCHEMA(), "))).thenThrow(new SQLException("no DB_PROPERTY"));
+        when(statement.executeQuery("SELECT CURRENT_SCHEMA()"))
+                .thenAnswer(invocation -> ResultSets.of(new String[] {"SCHEMA"}, new Object[] {"app"}));
+
+        IQSessionInfo info = IQSessionInfo.read(connection);
+
+        assertEquals("app", info.getCurrentSchema());
+        assertNull(info.getCurrentUser());
+        assertNull(info.getOption("allow_read_client_file"));
+        assertTrue(info.getOptions().isEmpty());
+    }
+
+    @Test
+    public void testFallbackErrorsAreReported() throws Exception {
+        SQLException error = new SQLException("connection closed");
+        when(statement.executeQuery(anyString())).thenThrow(error);
+
+        try {
+            IQSessionInfo.read(connection);
+        } catch (DatabaseException e) {
+            assertSame(error, e.getCause());
+            return;
+        }
+        throw new AssertionError("Expected a DatabaseException");
+    }
+
+    @Test
+    public void testDatabaseUsesFallbackSchema() throws Exception {
+        when(statement.executeQuery(startsWith("SELECT CURRENT_SCHEMA(), "))).thenThrow(new SQLException("no DB_PROPERTY"));
+        when(statement.executeQuery("SELECT CURRENT_SCHEMA()"))
+                .thenAnswer(invocation -> ResultSets.of(new String[] {"SCHEMA"}, new Object[] {"app"}));
+        IQDatabase database = new IQDatabase();
+        database.setConnection(connection);
+
+        assertEquals("APP", database.getDefaultSchemaName());
+        assertEquals(false, database.isClientFileLoadAllowed());
+    }
+}
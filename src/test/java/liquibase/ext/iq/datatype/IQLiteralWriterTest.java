@@ -0,0 +1,79 @@
+package liquibase.ext.iq.datatype;
+
+import liquibase.database.core.H2Database;
+import liquibase.datatype.DataTypeFactory;
+import liquibase.ext.iq.database.IQDatabase;
+import liquibase.statement.DatabaseFunction;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.util.UUID;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class IQLiteralWriterTest {
+
+    IQDatabase database;
+
+    @Before
+    public void setup() {
+        database = new IQDatabase();
+    }
+
+    @Test
+    public void testLiterals() {
+        assertEquals("NULL", IQLiteralWriter.toLiteral(null));
+        assertEquals("'it''s'", IQLiteralWriter.quote("it's"));
+        assertEquals("1", IQLiteralWriter.toLiteral(Boolean.TRUE));
+        assertEquals("0.00001", IQLiteralWriter.toLiteral(new BigDecimal("1E-5")));
+        assertEquals("42", IQLiteralWriter.toLiteral(42L));
+        assertEquals("0x00FF10", IQLiteralWriter.toLiteral(new byte[] {0, -1, 16}));
+        assertEquals("'2020-01-02'", IQLiteralWriter.toLiteral(Date.valueOf("2020-01-02")));
+        assertEquals("'03:04:05'", IQLiteralWriter.toLiteral(Time.valueOf("03:04:05")));
+        assertEquals("'2020-01-02 03:04:05.123456'",
+                IQLiteralWriter.toLiteral(Timestamp.valueOf("2020-01-02 03:04:05.123456789")));
+    }
+
+    @Test
+    public void testUuidIsWrittenAsBinary() {
+        UUID uuid = UUID.fromString("00112233-4455-6677-8899-aabbccddeeff");
+
+        assertEquals("0x00112233445566778899AABBCCDDEEFF", IQLiteralWriter.toLiteral(uuid));
+    }
+
+    @Test
+    public void testWriterAppendsToGivenBuffer() {
+        StringBuilder buffer = new StringBuilder("VALUES (");
+
+        new IQLiteralWriter(buffer).value(1).raw(", ").value("a").raw(")");
+
+        assertEquals("VALUES (1, 'a')", buffer.toString());
+    }
+
+    @Test
+    public void testDateTypeIsRegisteredForIQ() {
+        assertTrue(DataTypeFactory.getInstance().fromDescription("date", database) instanceof DateTypeIQ);
+        assertFalse(DataTypeFactory.getInstance().fromDescription("date", new H2Database()) instanceof DateTypeIQ);
+
+        DateTypeIQ type = new DateTypeIQ();
+        assertEquals("'2020-01-02'", type.objectToSql(Date.valueOf("2020-01-02"), database));
+        assertEquals("'it''s'", type.objectToSql("it's", database));
+        assertEquals("CURRENT_TIMESTAMP", type.objectToSql(new DatabaseFunction("CURRENT_TIMESTAMP"), database));
+    }
+
+    @Test
+    public void testUuidTypeIsRegisteredForIQ() {
+        assertTrue(DataTypeFactory.getInstance().fromDescription("uuid", database) instanceof UUIDTypeIQ);
+        assertTrue(DataTypeFactory.getInstance().fromDescription("uniqueidentifier", database) instanceof UUIDTypeIQ);
+
+        UUIDTypeIQ type = new UUIDTypeIQ();
+        assertEquals("UNIQUEIDENTIFIER", type.toDatabaseDataType(database).toSql());
+        assertEquals("0x00000000000000010000000000000002", type.objectToSql(new UUID(1, 2), database));
+    }
+}
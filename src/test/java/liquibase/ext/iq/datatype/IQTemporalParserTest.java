@@ -0,0 +1,88 @@
+package liquibase.ext.iq.datatype;
+
+import org.junit.Test;
+
+import java.sql.Date;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class IQTemporalParserTest {
+
+    @Test
+    public void testParseDate() {
+        assertEquals(Date.valueOf("2020-02-29"), IQTemporalParser.parseDate(" 2020-02-29 "));
+        assertNull(IQTemporalParser.parseDate("2021-02-29"));
+        assertNull(IQTemporalParser.parseDate("2020-13-01"));
+        assertNull(IQTemporalParser.parseDate("2020-01-01 10:00"));
+        assertNull(IQTemporalParser.parseDate("today"));
+    }
+
+    @Test
+    public void testParseTime() {
+        assertEquals(Time.valueOf("10:15:00"), IQTemporalParser.parseTime("10:15"));
+        assertEquals(Time.valueOf("23:59:59"), IQTemporalParser.parseTime("23:59:59"));
+        assertNull(IQTemporalParser.parseTime("24:00:00"));
+        assertNull(IQTemporalParser.parseTime("10-15"));
+    }
+
+    @Test
+    public void testParseTimestamp() {
+        assertEquals(Timestamp.valueOf("2020-01-02 03:04:05"), IQTemporalParser.parseTimestamp("2020-01-02 03:04:05"));
+        assertEquals(Timestamp.valueOf("2020-01-02 03:04:05.123456789"),
+                IQTemporalParser.parseTimestamp("2020-01-02T03:04:05.123456789"));
+        assertEquals(Timestamp.valueOf("2020-01-02 03:04:05.5"), IQTemporalParser.parseTimestamp("2020-01-02 03:04:05.5"));
+        assertNull(IQTemporalParser.parseTimestamp("2020-01-02 03:04:05.1234567890"));
+        assertNull(IQTemporalParser.parseTimestamp("not a timestamp"));
+    }
+
+    @Test
+    public void testParseTimestampWithOffset() {
+        assertEquals(Timestamp.from(Instant.parse("2020-01-02T01:04:05Z")),
+                IQTemporalParser.parseTimestamp("2020-01-02T03:04:05+02:00"));
+        assertEquals(Timestamp.from(Instant.parse("2020-01-02T03:04:05.250Z")),
+                IQTemporalParser.parseTimestamp("2020-01-02 03:04:05.25Z"));
+    }
+
+    @Test
+    public void testParseDateOrTimestamp() {
+        assertEquals(Date.class, IQTemporalParser.parseDateOrTimestamp("2020-01-02").getClass());
+        assertEquals(Timestamp.class, IQTemporalParser.parseDateOrTimestamp("2020-01-02 00:00:00").getClass());
+    }
+
+    @Test
+    public void testIsZeroTime() {
+        assertTrue(IQTemporalParser.isZeroTime("0000-00-00 00:00:00"));
+        assertFalse(IQTemporalParser.isZeroTime("2020-00-00"));
+    }
+
+    @Test
+    public void testParsersAreSafeToShare() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Callable<Timestamp>> tasks = new ArrayList<>();
+            for (int i = 0; i < 200; i++) {
+                final String value = String.format("2020-01-%02d 10:00:00+01:00", i % 28 + 1);
+                tasks.add(() -> IQTemporalParser.parseTimestamp(value));
+            }
+            List<Future<Timestamp>> results = executor.invokeAll(tasks);
+            for (int i = 0; i < results.size(); i++) {
+                assertEquals(Timestamp.from(Instant.parse(String.format("2020-01-%02dT09:00:00Z", i % 28 + 1))),
+                        results.get(i).get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package liquibase.ext.iq.datatype;
+
+import liquibase.database.core.H2Database;
+import liquibase.datatype.DataTypeFactory;
+import liquibase.datatype.DatabaseDataType;
+import liquibase.datatype.LiquibaseDataType;
+import liquibase.ext.iq.database.IQDatabase;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class IQTemporalTypesTest {
+
+    IQDatabase database;
+
+    @Before
+    public void setup() {
+        database = new IQDatabase();
+    }
+
+    @Test
+    public void testTemporalTypesAreRegisteredForIQ() {
+        assertTrue(DataTypeFactory.getInstance().fromDescription("datetime", database) instanceof DateTimeTypeIQ);
+        assertTrue(DataTypeFactory.getInstance().fromDescription("time", database) instanceof TimeTypeIQ);
+        assertFalse(DataTypeFactory.getInstance().fromDescription("datetime", new H2Database()) instanceof DateTimeTypeIQ);
+        assertFalse(DataTypeFactory.getInstance().fromDescription("time", new H2Database()) instanceof TimeTypeIQ);
+    }
+
+    @Test
+    public void testSameDefinitionResolvesToSharedInstance() {
+        LiquibaseDataType first = DataTypeFactory.getInstance().fromDescription("datetime", database);
+        LiquibaseDataType second = DataTypeFactory.getInstance().fromDescription("datetime", database);
+
+        DatabaseDataType type = first.toDatabaseDataType(database);
+
+        assertEquals("datetime", type.toSql());
+        assertSame(type, second.toDatabaseDataType(database));
+        assertNotSame(type, DataTypeFactory.getInstance().fromDescription("time", database).toDatabaseDataType(database));
+    }
+
+    @Test
+    public void testPrecisionIsNotWritten() {
+        DatabaseDataType plain = DataTypeFactory.getInstance().fromDescription("datetime", database)
+                .toDatabaseDataType(database);
+        DatabaseDataType withPrecision = DataTypeFactory.getInstance().fromDescription("datetime(6)", database)
+                .toDatabaseDataType(database);
+
+        assertSame(plain, withPrecision);
+        assertEquals("time", DataTypeFactory.getInstance().fromDescription("time", database)
+                .toDatabaseDataType(database).toSql());
+    }
+
+    @Test
+    public void testTemporalLiterals() {
+        assertEquals("'2020-01-02 03:04:05.000000'",
+                new DateTimeTypeIQ().objectToSql(Timestamp.valueOf("2020-01-02 03:04:05"), database));
+        assertEquals("'03:04:05'", new TimeTypeIQ().objectToSql(Time.valueOf("03:04:05"), database));
+        assertEquals(Timestamp.valueOf("2020-01-02 03:04:05"),
+                new DateTimeTypeIQ().sqlToObject("2020-01-02 03:04:05", database));
+        assertEquals(Time.valueOf("03:04:05"), new TimeTypeIQ().sqlToObject("03:04:05", database));
+    }
+
+    @Test
+    public void testOtherValuesAreQuotedAsText() {
+        assertEquals("'2020-01-02'", new DateTypeIQ().objectToSql(LocalDate.of(2020, 1, 2), database));
+        assertEquals("'03:04:05'", new TimeTypeIQ().objectToSql(LocalTime.of(3, 4, 5), database));
+        assertEquals("'it''s'", new DateTimeTypeIQ().objectToSql("it's", database));
+    }
+}
@@ -0,0 +1,111 @@
+package liquibase.ext.iq.executor;
+
+import liquibase.Scope;
+import liquibase.database.DatabaseConnection;
+import liquibase.database.core.H2Database;
+import liquibase.database.jvm.JdbcConnection;
+import liquibase.executor.ExecutorService;
+import liquibase.executor.jvm.JdbcExecutor;
+import liquibase.ext.iq.database.IQDatabase;
+import liquibase.statement.SqlStatement;
+import liquibase.statement.core.CreateDatabaseChangeLogLockTableStatement;
+import liquibase.statement.core.RawSqlStatement;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class IQJdbcExecutorTest {
+
+    IQDatabase database;
+    Statement statement;
+    List<SqlStatement> invalidated = new ArrayList<>();
+
+    @Before
+    public void setup() throws Exception {
+        statement = mock(Statement.class);
+        when(statement.getUpdateCount()).thenReturn(-1);
+        Connection connection = mock(Connection.class);
+        when(connection.createStatement()).thenReturn(statement);
+        final JdbcConnection jdbcConnection = mock(JdbcConnection.class);
+        when(jdbcConnection.getUnderlyingConnection()).thenReturn(connection);
+        when(jdbcConnection.createStatement()).thenReturn(statement);
+        database = new IQDatabase() {
+            @Override
+            public DatabaseConnection getConnection() {
+                return jdbcConnection;
+            }
+
+            @Override
+            public void invalidateCatalog(SqlStatement statement) {
+                invalidated.add(statement);
+            }
+        };
+    }
+
+    @After
+    public void tearDown() {
+        Scope.getCurrentScope().getSingleton(ExecutorService.class).reset();
+    }
+
+    @Test
+    public void testReplacesTheJdbcExecutor() {
+        ExecutorService executorService = Scope.getCurrentScope().getSingleton(ExecutorService.class);
+
+        assertTrue(executorService.getExecutor("jdbc", database) instanceof IQJdbcExecutor);
+        assertTrue(new IQJdbcExecutor().getPriority() > new JdbcExecutor().getPriority());
+    }
+
+    @Test
+    public void testStatementsRunDirectlyInvalidateTheCatalog() throws Exception {
+        IQJdbcExecutor executor = new IQJdbcExecutor();
+        executor.setDatabase(database);
+        SqlStatement create = new CreateDatabaseChangeLogLockTableStatement();
+
+        executor.execute(create);
+
+        verify(statement).execute(anyString());
+        assertEquals(1, invalidated.size());
+        assertSame(create, invalidated.get(0));
+    }
+
+    @Test
+    public void testChangeSetStatementsAreInvalidatedOnce() throws Exception {
+        SqlStatement create = new RawSqlStatement("CREATE TABLE T1 (ID INT)");
+
+        database.execute(new SqlStatement[] {create}, null);
+
+        assertEquals(1, invalidated.size());
+        assertSame(create, invalidated.get(0));
+    }
+
+    @Test
+    public void testOtherDatabasesAreLeftAlone() throws Exception {
+        IQJdbcExecutor executor = new IQJdbcExecutor();
+        H2Database h2 = new H2Database();
+        JdbcConnection jdbcConnection = mock(JdbcConnection.class);
+        when(jdbcConnection.createStatement()).thenReturn(statement);
+        Connection connection = mock(Connection.class);
+        when(connection.createStatement()).thenReturn(statement);
+        when(jdbcConnection.getUnderlyingConnection()).thenReturn(connection);
+        h2.setConnection(jdbcConnection);
+        executor.setDatabase(h2);
+
+        executor.execute(new CreateDatabaseChangeLogLockTableStatement());
+
+        verify(statement).execute(anyString());
+        assertTrue(invalidated.isEmpty());
+    }
+}
@@ -0,0 +1,46 @@
+package liquibase.ext.iq.helpers;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class ResultSets {
+
+    /**
+     * A mocked result set returning the given rows, one value per column label.
+     */
+    public static ResultSet of(String[] columns, Object[]... rows) throws SQLException {
+        final List<String> labels = Arrays.asList(columns);
+        final int[] position = {-1};
+        ResultSetMetaData metaData = mock(ResultSetMetaData.class);
+        when(metaData.getColumnCount()).thenReturn(columns.length);
+        when(metaData.getColumnLabel(anyInt())).thenAnswer(invocation -> columns[(Integer) invocation.getArgument(0) - 1]);
+        when(metaData.getColumnName(anyInt())).thenAnswer(invocation -> columns[(Integer) invocation.getArgument(0) - 1]);
+
+        ResultSet resultSet = mock(ResultSet.class);
+        when(resultSet.getMetaData()).thenReturn(metaData);
+        when(resultSet.next()).thenAnswer(invocation -> ++position[0] < rows.length);
+        when(resultSet.getObject(anyInt())).thenAnswer(invocation -> rows[position[0]][(Integer) invocation.getArgument(0) - 1]);
+        when(resultSet.getObject(anyString())).thenAnswer(invocation -> rows[position[0]][labels.indexOf(invocation.<String>getArgument(0))]);
+        when(resultSet.getString(anyInt())).thenAnswer(invocation -> toString(rows[position[0]][(Integer) invocation.getArgument(0) - 1]));
+        when(resultSet.getString(anyString())).thenAnswer(invocation -> toString(rows[position[0]][labels.indexOf(invocation.<String>getArgument(0))]));
+        when(resultSet.getInt(anyInt())).thenAnswer(invocation -> toInt(rows[position[0]][(Integer) invocation.getArgument(0) - 1]));
+        when(resultSet.getInt(anyString())).thenAnswer(invocation -> toInt(rows[position[0]][labels.indexOf(invocation.<String>getArgument(0))]));
+        return resultSet;
+    }
+
+    private static String toString(Object value) {
+        return value == null ? null : value.toString();
+    }
+
+    private static int toInt(Object value) {
+        return value == null ? 0 : ((Number) value).intValue();
+    }
+}
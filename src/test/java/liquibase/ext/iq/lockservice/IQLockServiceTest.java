@@ -0,0 +1,214 @@
+package liquibase.ext.iq.lockservice;
+
+import liquibase.Scope;
+import liquibase.database.DatabaseConnection;
+import liquibase.exception.DatabaseException;
+import liquibase.exception.LockException;
+import liquibase.executor.Executor;
+import liquibase.executor.ExecutorService;
+import liquibase.ext.iq.configuration.IQConfiguration;
+import liquibase.ext.iq.database.IQConnectionFactory;
+import liquibase.ext.iq.database.IQDatabase;
+import liquibase.statement.SqlStatement;
+import liquibase.statement.core.RawSqlStatement;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class IQLockServiceTest {
+
+    IQDatabase database;
+    Executor executor;
+    PreparedStatement renewal;
+    IQLockService lockService;
+
+    @Before
+    public void setup() throws Exception {
+        IQConfiguration.getInstance().setValue(IQConfiguration.LOCK_LEASE_SECONDS, 1);
+        renewal = mock(PreparedStatement.class);
+        Connection heartbeatConnection = mock(Connection.class);
+        when(heartbeatConnection.prepareStatement(anyString())).thenReturn(renewal);
+
+        database = new IQDatabase();
+        database.setConnection(mock(DatabaseConnection.class));
+        database.setConnectionFactory(new IQConnectionFactory() {
+            @Override
+            public Connection openConnection(IQDatabase database) {
+                return heartbeatConnection;
+            }
+        });
+        executor = mock(Executor.class);
+        when(executor.update(any(SqlStatement.class))).thenReturn(1);
+        Scope.getCurrentScope().getSingleton(ExecutorService.class).setExecutor("jdbc", database, executor);
+
+        lockService = new IQLockService() {
+            @Override
+            public void init() {
+            }
+
+            @Override
+            public boolean hasDatabaseChangeLogLockTable() {
+                return true;
+            }
+        };
+        lockService.setDatabase(database);
+    }
+
+    @After
+    public void tearDown() {
+        lockService.reset();
+        IQConfiguration.getInstance().setValue(IQConfiguration.LOCK_LEASE_SECONDS, 300);
+        IQConfiguration.getInstance().setValue(IQConfiguration.LOCK_SCOPE, IQConfiguration.LockScope.GLOBAL.name());
+        IQConfiguration.getInstance().setValue(IQConfiguration.LOCK_KEY, null);
+        Scope.getCurrentScope().getSingleton(ExecutorService.class).reset();
+    }
+
+    @Test
+    public void testLockIsTakenWithOneConditionalUpdate() throws Exception {
+        assertTrue(lockService.acquireLock());
+
+        ArgumentCaptor<SqlStatement> statement = ArgumentCaptor.forClass(SqlStatement.class);
+        verify(executor).update(statement.capture());
+        String sql = ((RawSqlStatement) statement.getValue()).getSql();
+        assertTrue(sql, sql.startsWith("UPDATE DATABASECHANGELOGLOCK SET LOCKED = 1"));
+        assertTrue(sql, sql.contains("WHERE ID = 1 AND (LOCKED = 0 OR LOCKED IS NULL OR (LOCKEDBY LIKE '%lease#%'"));
+        assertTrue(lockService.hasChangeLogLock());
+    }
+
+    @Test
+    public void testLeaseWithoutAdditionalConnectionFails() throws Exception {
+        database.setConnectionFactory(new IQConnectionFactory() {
+            @Override
+            public Connection openConnection(IQDatabase database) throws SQLException {
+                throw new SQLException("password required");
+            }
+        });
+
+        try {
+            lockService.acquireLock();
+            fail("Expected a LockException");
+        } catch (LockException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("liquibase.iq.additionalConnectionPassword"));
+        }
+        verify(executor, never()).update(any(SqlStatement.class));
+        assertFalse(lockService.hasChangeLogLock());
+    }
+
+    @Test
+    public void testNoLeaseWithoutAdditionalConnection() throws Exception {
+        IQConfiguration.getInstance().setValue(IQConfiguration.LOCK_LEASE_SECONDS, 0);
+        database.setConnectionFactory(new IQConnectionFactory() {
+            @Override
+            public Connection openConnection(IQDatabase database) {
+                return null;
+            }
+        });
+
+        assertTrue(lockService.acquireLock());
+
+        ArgumentCaptor<SqlStatement> statement = ArgumentCaptor.forClass(SqlStatement.class);
+        verify(executor).update(statement.capture());
+        assertFalse(((RawSqlStatement) statement.getValue()).getSql().contains("lease#"));
+    }
+
+    @Test
+    public void testLeaseTakenOverFailsFast() throws Exception {
+        when(renewal.executeUpdate()).thenReturn(0);
+
+        assertTrue(lockService.acquireLock());
+        waitForLostLease();
+
+        try {
+            database.execute(new SqlStatement[] {new RawSqlStatement("DROP TABLE T1")}, null);
+            fail("Expected a LockException");
+        } catch (LockException e) {
+            assertTrue(e.getMessage().contains("no longer held"));
+        }
+        verify(renewal, timeout(1000).times(1)).executeUpdate();
+    }
+
+    @Test
+    public void testFailedRenewalsLoseTheLeaseAfterItExpires() throws Exception {
+        when(renewal.executeUpdate()).thenThrow(new SQLException("connection reset"));
+
+        assertTrue(lockService.acquireLock());
+        verify(renewal, timeout(1000)).executeUpdate();
+        assertTrue(lockService.hasChangeLogLock());
+
+        waitForLostLease();
+        verify(renewal, atLeastOnce()).executeUpdate();
+    }
+
+    @Test
+    public void testReleaseClearsLostLease() throws Exception {
+        when(renewal.executeUpdate()).thenReturn(0);
+        assertTrue(lockService.acquireLock());
+        waitForLostLease();
+
+        lockService.releaseLock();
+
+        database.execute(new SqlStatement[0], null);
+        assertFalse(lockService.hasChangeLogLock());
+    }
+
+    @Test
+    public void testKeyedLockUsesTheKeyAsRowIdentifier() throws Exception {
+        IQConfiguration.getInstance().setValue(IQConfiguration.LOCK_SCOPE, IQConfiguration.LockScope.SCHEMA.name());
+        IQConfiguration.getInstance().setValue(IQConfiguration.LOCK_KEY, "sales");
+
+        assertTrue(lockService.acquireLock());
+
+        ArgumentCaptor<SqlStatement> executed = ArgumentCaptor.forClass(SqlStatement.class);
+        verify(executor).queryForList(executed.capture());
+        verify(executor, atLeastOnce()).execute(executed.capture());
+        verify(executor).update(executed.capture());
+        assertEquals("SELECT LOCKKEY FROM DATABASECHANGELOGLOCK WHERE 1 = 0", sql(executed.getAllValues().get(0)));
+        assertEquals("INSERT INTO DATABASECHANGELOGLOCK (ID, LOCKED, LOCKKEY) SELECT (SELECT COALESCE(MAX(ID), 1) + 1 "
+                + "FROM DATABASECHANGELOGLOCK), 0, 'SALES' FROM SYS.DUMMY WHERE NOT EXISTS "
+                + "(SELECT 1 FROM DATABASECHANGELOGLOCK WHERE LOCKKEY = 'SALES')", sql(executed.getAllValues().get(1)));
+        assertTrue(sql(executed.getAllValues().get(2)).contains(" WHERE LOCKKEY = 'SALES' AND (LOCKED = 0"));
+    }
+
+    @Test
+    public void testMissingLockKeyColumnIsAdded() throws Exception {
+        IQConfiguration.getInstance().setValue(IQConfiguration.LOCK_SCOPE, IQConfiguration.LockScope.SCHEMA.name());
+        IQConfiguration.getInstance().setValue(IQConfiguration.LOCK_KEY, "sales");
+        when(executor.queryForList(any(SqlStatement.class))).thenThrow(new DatabaseException("no LOCKKEY"));
+
+        assertTrue(lockService.acquireLock());
+
+        ArgumentCaptor<SqlStatement> executed = ArgumentCaptor.forClass(SqlStatement.class);
+        verify(executor, atLeastOnce()).execute(executed.capture());
+        assertEquals("ALTER TABLE DATABASECHANGELOGLOCK ADD LOCKKEY VARCHAR(255) NULL", sql(executed.getAllValues().get(0)));
+    }
+
+    private static String sql(SqlStatement statement) {
+        return ((RawSqlStatement) statement).getSql();
+    }
+
+    private void waitForLostLease() throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (lockService.hasChangeLogLock() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertFalse(lockService.hasChangeLogLock());
+    }
+}
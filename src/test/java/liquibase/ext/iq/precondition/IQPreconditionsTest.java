@@ -0,0 +1,69 @@
+package liquibase.ext.iq.precondition;
+
+import liquibase.database.jvm.JdbcConnection;
+import liquibase.ext.iq.database.IQDatabase;
+import liquibase.precondition.PreconditionFactory;
+import liquibase.precondition.core.ColumnExistsPrecondition;
+import liquibase.precondition.core.ForeignKeyExistsPrecondition;
+import liquibase.precondition.core.IndexExistsPrecondition;
+import liquibase.precondition.core.TableExistsPrecondition;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class IQPreconditionsTest {
+
+    PreconditionFactory factory;
+
+    @Before
+    public void setup() {
+        PreconditionFactory.reset();
+        factory = PreconditionFactory.getInstance();
+        factory.register(new TableExistsPrecondition());
+        factory.register(new ColumnExistsPrecondition());
+        factory.register(new IndexExistsPrecondition());
+        factory.register(new ForeignKeyExistsPrecondition());
+    }
+
+    @After
+    public void tearDown() {
+        PreconditionFactory.reset();
+    }
+
+    @Test
+    public void testOverridesWinOverCoreRegisteredLater() {
+        IQPreconditions.register();
+
+        assertEquals(IQTableExistsPrecondition.class, factory.getPreconditions().get("tableExists"));
+        assertEquals(IQColumnExistsPrecondition.class, factory.getPreconditions().get("columnExists"));
+        assertEquals(IQIndexExistsPrecondition.class, factory.getPreconditions().get("indexExists"));
+        assertEquals(IQForeignKeyExistsPrecondition.class,
+                factory.getPreconditions().get("foreignKeyConstraintExists"));
+    }
+
+    @Test
+    public void testRegisteredWhenAnIQConnectionIsSet() throws Exception {
+        Connection underlying = mock(Connection.class);
+        when(underlying.createStatement()).thenThrow(new SQLException("no session"));
+        JdbcConnection connection = mock(JdbcConnection.class);
+        when(connection.getUnderlyingConnection()).thenReturn(underlying);
+
+        new IQDatabase().setConnection(connection);
+
+        assertEquals(IQTableExistsPrecondition.class, factory.getPreconditions().get("tableExists"));
+    }
+
+    @Test
+    public void testNotRegisteredWithoutConnection() {
+        new IQDatabase();
+
+        assertEquals(TableExistsPrecondition.class, factory.getPreconditions().get("tableExists"));
+    }
+}
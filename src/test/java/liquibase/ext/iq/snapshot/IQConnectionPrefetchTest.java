@@ -0,0 +1,122 @@
+package liquibase.ext.iq.snapshot;
+
+import liquibase.database.DatabaseConnection;
+import liquibase.database.jvm.JdbcConnection;
+import liquibase.ext.iq.configuration.IQConfiguration;
+import liquibase.ext.iq.database.IQConnectionFactory;
+import liquibase.ext.iq.database.IQDatabase;
+import liquibase.ext.iq.helpers.ResultSets;
+import liquibase.snapshot.DatabaseSnapshot;
+import liquibase.snapshot.SnapshotControl;
+import liquibase.statement.core.InsertStatement;
+import liquibase.statement.core.RawSqlStatement;
+import liquibase.structure.core.Schema;
+import liquibase.structure.core.Table;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class IQConnectionPrefetchTest {
+
+    private static final String[] COLUMNS = {"TABLE_CAT", "TABLE_SCHEM", "TABLE_NAME", "TABLE_TYPE", "REMARKS"};
+    private static final String[] SESSION_COLUMNS = {"SCHEMA", "USER", "VERSION", "ROLE", "allow_read_client_file",
+            "quoted_identifier", "chained", "isolation_level", "blocking", "timestamp_format"};
+
+    IQDatabase database;
+    Schema schema = new Schema((String) null, "APP");
+
+    @Before
+    public void setup() throws Exception {
+        IQConfiguration.getInstance().setValue(IQConfiguration.CONNECTION_PREFETCH, true);
+        Statement sessionStatement = mock(Statement.class);
+        when(sessionStatement.executeQuery(anyString())).thenAnswer(invocation -> ResultSets.of(SESSION_COLUMNS,
+                new Object[] {"APP", "dba", "16.1.040", null, "On", "On", "Off", "0", "On", "yyyy-mm-dd"}));
+        Statement mainStatement = mock(Statement.class);
+        when(mainStatement.executeQuery(anyString())).thenAnswer(invocation -> tables("MAIN_TABLE"));
+        Connection mainConnection = mock(Connection.class);
+        when(mainConnection.createStatement()).thenReturn(mainStatement);
+        when(mainConnection.getMetaData()).thenReturn(mock(DatabaseMetaData.class));
+        final JdbcConnection jdbcConnection = mock(JdbcConnection.class);
+        when(jdbcConnection.createStatement()).thenReturn(sessionStatement);
+        when(jdbcConnection.getUnderlyingConnection()).thenReturn(mainConnection);
+
+        Statement additionalStatement = mock(Statement.class);
+        when(additionalStatement.executeQuery(anyString())).thenAnswer(invocation -> tables("PREFETCHED_TABLE"));
+        Connection additionalConnection = mock(Connection.class);
+        when(additionalConnection.createStatement()).thenReturn(additionalStatement);
+
+        database = new IQDatabase() {
+            @Override
+            public DatabaseConnection getConnection() {
+                return jdbcConnection;
+            }
+        };
+        database.setConnectionFactory(new IQConnectionFactory() {
+            @Override
+            public Connection openConnection(IQDatabase database) {
+                return additionalConnection;
+            }
+        });
+        database.setConnection(jdbcConnection);
+    }
+
+    @After
+    public void tearDown() {
+        IQConfiguration.getInstance().setValue(IQConfiguration.CONNECTION_PREFETCH, false);
+    }
+
+    @Test
+    public void testEachSnapshotTakesOnlyItsQueries() throws Exception {
+        Schema first = new Schema((String) null, "APP");
+        new IQTableSnapshotGenerator().addTo(first, snapshot());
+
+        assertEquals("PREFETCHED_TABLE", first.getDatabaseObjects(Table.class).get(0).getName());
+        assertNotNull(database.getConnectionCache());
+        assertEquals("PREFETCHED_TABLE", new IQColumnSnapshotGenerator.ColumnsExtractor(database, schema, null, null)
+                .bulkFetch().get(0).getString("TABLE_NAME"));
+
+        Schema second = new Schema((String) null, "APP");
+        new IQTableSnapshotGenerator().addTo(second, snapshot());
+        assertEquals("MAIN_TABLE", second.getDatabaseObjects(Table.class).get(0).getName());
+    }
+
+    @Test
+    public void testRowWritesKeepThePrefetchedRows() {
+        database.invalidateCatalog(new InsertStatement(null, "APP", "ORDERS").addColumnValue("ID", 1));
+
+        assertNotNull(database.getConnectionCache());
+    }
+
+    @Test
+    public void testCatalogChangesDiscardThePrefetchedRows() throws Exception {
+        database.invalidateCatalog(new RawSqlStatement("ALTER TABLE APP.ORDERS ADD NOTE VARCHAR(10)"));
+
+        assertNull(database.getConnectionCache());
+        assertEquals("MAIN_TABLE", new IQIndexSnapshotGenerator.IndexesExtractor(database, schema, null, null)
+                .bulkFetch().get(0).getString("TABLE_NAME"));
+    }
+
+    private DatabaseSnapshot snapshot() {
+        DatabaseSnapshot snapshot = mock(DatabaseSnapshot.class);
+        when(snapshot.getDatabase()).thenReturn(database);
+        when(snapshot.getSnapshotControl()).thenReturn(new SnapshotControl(database, Table.class));
+        return snapshot;
+    }
+
+    private static ResultSet tables(String tableName) throws SQLException {
+        return ResultSets.of(COLUMNS, new Object[] {null, "APP", tableName, "TABLE", null});
+    }
+}
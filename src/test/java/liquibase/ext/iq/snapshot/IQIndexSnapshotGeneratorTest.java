@@ -0,0 +1,90 @@
+package liquibase.ext.iq.snapshot;
+
+import liquibase.database.DatabaseConnection;
+import liquibase.database.jvm.JdbcConnection;
+import liquibase.ext.iq.database.IQDatabase;
+import liquibase.ext.iq.helpers.ResultSets;
+import liquibase.snapshot.DatabaseSnapshot;
+import liquibase.snapshot.SnapshotControl;
+import liquibase.structure.core.Column;
+import liquibase.structure.core.Index;
+import liquibase.structure.core.Table;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.sql.Connection;
+import java.sql.Statement;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class IQIndexSnapshotGeneratorTest {
+
+    private static final String[] COLUMNS = {"TABLE_SCHEM", "TABLE_NAME", "INDEX_NAME", "INDEX_TYPE", "NON_UNIQUE",
+            "COLUMN_NAME", "ORDINAL_POSITION", "ASC_OR_DESC"};
+
+    IQDatabase database;
+    Statement statement;
+    DatabaseSnapshot snapshot;
+    IQIndexSnapshotGenerator generator = new IQIndexSnapshotGenerator();
+
+    @Before
+    public void setup() throws Exception {
+        statement = mock(Statement.class);
+        when(statement.executeQuery(anyString())).thenAnswer(invocation -> ResultSets.of(COLUMNS,
+                new Object[] {"APP", "ORDERS", "IX_ORDER_DATE", "DATE", 1, "ORDER_DATE", 1, "A"},
+                new Object[] {"APP", "ORDERS", "IX_ORDER_REF", "HG", 0, "CUSTOMER_ID", 1, "A"},
+                new Object[] {"APP", "ORDERS", "IX_ORDER_REF", "HG", 0, "REFERENCE", 2, "D"},
+                new Object[] {"APP", "ORDER_LINES", "IX_LINE_ORDER", "HG", 1, "ORDER_ID", 1, "A"}));
+        Connection connection = mock(Connection.class);
+        when(connection.createStatement()).thenReturn(statement);
+        final JdbcConnection jdbcConnection = mock(JdbcConnection.class);
+        when(jdbcConnection.getUnderlyingConnection()).thenReturn(connection);
+        database = new IQDatabase() {
+            @Override
+            public DatabaseConnection getConnection() {
+                return jdbcConnection;
+            }
+        };
+        snapshot = mock(DatabaseSnapshot.class);
+        when(snapshot.getDatabase()).thenReturn(database);
+        when(snapshot.getSnapshotControl()).thenReturn(new SnapshotControl(database));
+    }
+
+    @Test
+    public void testIndexesOfTableKeepTheirType() throws Exception {
+        Table table = new Table(null, "APP", "ORDERS");
+
+        generator.addTo(table, snapshot);
+
+        assertEquals(2, table.getIndexes().size());
+        Index dateIndex = table.getIndexes().get(0);
+        assertEquals("DATE", dateIndex.getAttribute(IQIndexSnapshotGenerator.INDEX_TYPE_ATTRIBUTE, String.class));
+        assertFalse(dateIndex.isUnique());
+        Index referenceIndex = table.getIndexes().get(1);
+        assertEquals("HG", referenceIndex.getAttribute(IQIndexSnapshotGenerator.INDEX_TYPE_ATTRIBUTE, String.class));
+        assertTrue(referenceIndex.isUnique());
+        assertEquals(2, referenceIndex.getColumns().size());
+        assertTrue(referenceIndex.getColumns().get(1).getDescending());
+    }
+
+    @Test
+    public void testIndexFoundByColumnsWithoutName() throws Exception {
+        Table table = new Table(null, "APP", "ORDERS");
+        Index example = new Index().setRelation(table);
+        example.addColumn(new Column("CUSTOMER_ID").setRelation(table));
+        example.addColumn(new Column("REFERENCE").setRelation(table));
+
+        Index index = (Index) generator.snapshotObject(example, snapshot);
+        generator.addTo(new Table(null, "APP", "ORDER_LINES"), snapshot);
+
+        assertEquals("IX_ORDER_REF", index.getName());
+        verify(statement, times(1)).executeQuery(anyString());
+    }
+}
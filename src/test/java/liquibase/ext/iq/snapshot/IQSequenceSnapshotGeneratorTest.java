@@ -0,0 +1,79 @@
+package liquibase.ext.iq.snapshot;
+
+import liquibase.database.DatabaseConnection;
+import liquibase.database.jvm.JdbcConnection;
+import liquibase.ext.iq.database.IQDatabase;
+import liquibase.ext.iq.helpers.ResultSets;
+import liquibase.snapshot.DatabaseSnapshot;
+import liquibase.snapshot.SnapshotControl;
+import liquibase.structure.core.Schema;
+import liquibase.structure.core.Sequence;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.math.BigInteger;
+import java.sql.Connection;
+import java.sql.Statement;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class IQSequenceSnapshotGeneratorTest {
+
+    private static final String[] COLUMNS = {"SEQUENCE_SCHEM", "SEQUENCE_NAME", "START_VALUE", "INCREMENT_BY",
+            "MIN_VALUE", "MAX_VALUE", "CACHE_SIZE", "WILL_CYCLE"};
+
+    IQDatabase database;
+    Statement statement;
+    DatabaseSnapshot snapshot;
+    IQSequenceSnapshotGenerator generator = new IQSequenceSnapshotGenerator();
+
+    @Before
+    public void setup() throws Exception {
+        statement = mock(Statement.class);
+        when(statement.executeQuery(anyString())).thenAnswer(invocation -> ResultSets.of(COLUMNS,
+                new Object[] {"APP", "SEQ_ORDER", 1L, 1L, 1L, 9999999L, 100, 0},
+                new Object[] {"APP", "SEQ_LINE", 10L, 5L, 10L, 99999L, 0, 1}));
+        Connection connection = mock(Connection.class);
+        when(connection.createStatement()).thenReturn(statement);
+        final JdbcConnection jdbcConnection = mock(JdbcConnection.class);
+        when(jdbcConnection.getUnderlyingConnection()).thenReturn(connection);
+        database = new IQDatabase() {
+            @Override
+            public DatabaseConnection getConnection() {
+                return jdbcConnection;
+            }
+        };
+        snapshot = mock(DatabaseSnapshot.class);
+        when(snapshot.getDatabase()).thenReturn(database);
+        when(snapshot.getSnapshotControl()).thenReturn(new SnapshotControl(database));
+    }
+
+    @Test
+    public void testSequencesOfSchema() throws Exception {
+        Schema schema = new Schema((String) null, "APP");
+
+        generator.addTo(schema, snapshot);
+
+        assertEquals(2, schema.getDatabaseObjects(Sequence.class).size());
+        verify(statement, times(1)).executeQuery(anyString());
+    }
+
+    @Test
+    public void testSingleSequence() throws Exception {
+        Sequence sequence = (Sequence) generator.snapshotObject(new Sequence(null, "APP", "SEQ_LINE"), snapshot);
+        Sequence missing = (Sequence) generator.snapshotObject(new Sequence(null, "APP", "SEQ_NONE"), snapshot);
+
+        assertEquals(BigInteger.valueOf(10), sequence.getStartValue());
+        assertEquals(BigInteger.valueOf(5), sequence.getIncrementBy());
+        assertTrue(sequence.getWillCycle());
+        assertNull(missing);
+        verify(statement, times(1)).executeQuery(anyString());
+    }
+}
@@ -0,0 +1,121 @@
+package liquibase.ext.iq.snapshot;
+
+import liquibase.database.DatabaseConnection;
+import liquibase.database.jvm.JdbcConnection;
+import liquibase.exception.DatabaseException;
+import liquibase.ext.iq.database.IQConnectionFactory;
+import liquibase.ext.iq.database.IQDatabase;
+import liquibase.ext.iq.helpers.ResultSets;
+import liquibase.snapshot.DatabaseSnapshot;
+import liquibase.snapshot.IQResultSetCache;
+import liquibase.snapshot.SnapshotControl;
+import liquibase.structure.core.Schema;
+import liquibase.structure.core.Table;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.after;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class IQSnapshotPrefetcherTest {
+
+    private static final String[] COLUMNS = {"TABLE_CAT", "TABLE_SCHEM", "TABLE_NAME", "TABLE_TYPE", "REMARKS"};
+
+    IQDatabase database;
+    Statement mainStatement;
+    Statement additionalStatement;
+    Connection additionalConnection;
+    DatabaseSnapshot snapshot;
+
+    @Before
+    public void setup() throws Exception {
+        mainStatement = mock(Statement.class);
+        when(mainStatement.executeQuery(anyString())).thenThrow(new SQLException("main connection is busy"));
+        Connection mainConnection = mock(Connection.class);
+        when(mainConnection.createStatement()).thenReturn(mainStatement);
+        final JdbcConnection jdbcConnection = mock(JdbcConnection.class);
+        when(jdbcConnection.getUnderlyingConnection()).thenReturn(mainConnection);
+
+        additionalStatement = mock(Statement.class);
+        when(additionalStatement.executeQuery(anyString())).thenAnswer(invocation -> tables(invocation.getArgument(0)));
+        additionalConnection = mock(Connection.class);
+        when(additionalConnection.createStatement()).thenReturn(additionalStatement);
+
+        database = new IQDatabase() {
+            @Override
+            public DatabaseConnection getConnection() {
+                return jdbcConnection;
+            }
+        };
+        database.setConnectionFactory(new IQConnectionFactory() {
+            @Override
+            public Connection openConnection(IQDatabase database) {
+                return additionalConnection;
+            }
+        });
+        snapshot = mock(DatabaseSnapshot.class);
+        when(snapshot.getDatabase()).thenReturn(database);
+        when(snapshot.getSnapshotControl()).thenReturn(new SnapshotControl(database, Table.class));
+    }
+
+    @Test
+    public void testSchemasAreReadOnAdditionalConnections() throws Exception {
+        Schema app = new Schema((String) null, "APP");
+        Schema audit = new Schema((String) null, "AUDIT");
+
+        IQSnapshotPrefetcher.prefetch(snapshot, Arrays.asList(app, audit), 2);
+        IQTableSnapshotGenerator generator = new IQTableSnapshotGenerator();
+        generator.addTo(app, snapshot);
+        generator.addTo(audit, snapshot);
+
+        assertEquals(1, app.getDatabaseObjects(Table.class).size());
+        assertEquals("APP_TABLE", app.getDatabaseObjects(Table.class).get(0).getName());
+        assertEquals("AUDIT_TABLE", audit.getDatabaseObjects(Table.class).get(0).getName());
+        verify(mainStatement, never()).executeQuery(anyString());
+        verify(additionalConnection, timeout(5000).times(2)).close();
+    }
+
+    @Test
+    public void testConnectionsStayOpenUntilCancelledQueriesFinish() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(additionalStatement.executeQuery(anyString())).thenAnswer(invocation -> {
+            started.countDown();
+            release.await();
+            return tables(invocation.getArgument(0));
+        });
+
+        IQSnapshotPrefetcher.prefetch(snapshot, Arrays.asList(new Schema((String) null, "APP")), 1);
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        IQResultSetCache.forSnapshot(snapshot).discardPrefetches();
+
+        verify(additionalConnection, after(200).never()).close();
+        release.countDown();
+        verify(additionalConnection, timeout(5000)).close();
+    }
+
+    @Test(expected = DatabaseException.class)
+    public void testQueryErrorsAreReportedAsDatabaseException() throws Exception {
+        new IQTableSnapshotGenerator().addTo(new Schema((String) null, "APP"), snapshot);
+    }
+
+    private static ResultSet tables(String sql) throws SQLException {
+        String schemaName = sql.contains("'AUDIT'") ? "AUDIT" : "APP";
+        return ResultSets.of(COLUMNS, new Object[] {null, schemaName, schemaName + "_TABLE", "TABLE", null});
+    }
+}
@@ -0,0 +1,105 @@
+package liquibase.ext.iq.snapshot;
+
+import liquibase.database.DatabaseConnection;
+import liquibase.database.jvm.JdbcConnection;
+import liquibase.ext.iq.configuration.IQConfiguration;
+import liquibase.ext.iq.database.IQDatabase;
+import liquibase.ext.iq.helpers.ResultSets;
+import liquibase.snapshot.DatabaseSnapshot;
+import liquibase.snapshot.SnapshotControl;
+import liquibase.snapshot.jvm.TableSnapshotGenerator;
+import liquibase.structure.core.Schema;
+import liquibase.structure.core.Table;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.sql.Connection;
+import java.sql.Statement;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class IQTableSnapshotGeneratorTest {
+
+    private static final String[] COLUMNS = {"TABLE_CAT", "TABLE_SCHEM", "TABLE_NAME", "TABLE_TYPE", "REMARKS"};
+
+    IQDatabase database;
+    Statement statement;
+    DatabaseSnapshot snapshot;
+    IQTableSnapshotGenerator generator = new IQTableSnapshotGenerator();
+
+    @After
+    public void tearDown() {
+        IQConfiguration.getInstance().setValue(IQConfiguration.SNAPSHOT_INCLUDE_OBJECTS, null);
+    }
+
+    @Before
+    public void setup() throws Exception {
+        statement = mock(Statement.class);
+        when(statement.executeQuery(anyString())).thenAnswer(invocation -> ResultSets.of(COLUMNS,
+                new Object[] {null, "APP", "ORDERS", "TABLE", "order headers"},
+                new Object[] {null, "APP", "ORDER_LINES", "TABLE", null},
+                new Object[] {null, "APP", "DATABASECHANGELOG", "TABLE", null}));
+        Connection connection = mock(Connection.class);
+        when(connection.createStatement()).thenReturn(statement);
+        final JdbcConnection jdbcConnection = mock(JdbcConnection.class);
+        when(jdbcConnection.getUnderlyingConnection()).thenReturn(connection);
+        database = new IQDatabase() {
+            @Override
+            public DatabaseConnection getConnection() {
+                return jdbcConnection;
+            }
+        };
+        snapshot = mock(DatabaseSnapshot.class);
+        when(snapshot.getDatabase()).thenReturn(database);
+        when(snapshot.getSnapshotControl()).thenReturn(new SnapshotControl(database));
+    }
+
+    @Test
+    public void testReplacesCoreGenerator() {
+        assertArrayEquals(new Class<?>[] {TableSnapshotGenerator.class}, generator.replaces());
+        assertTrue(generator.getPriority(Table.class, database)
+                > new TableSnapshotGenerator().getPriority(Table.class, database));
+    }
+
+    @Test
+    public void testSchemaTablesAndLookupsShareOneQuery() throws Exception {
+        Schema schema = new Schema((String) null, "APP");
+
+        generator.addTo(schema, snapshot);
+        Table orders = (Table) generator.snapshotObject(new Table(null, "APP", "ORDERS"), snapshot);
+        Table missing = (Table) generator.snapshotObject(new Table(null, "APP", "CUSTOMERS"), snapshot);
+
+        assertEquals(3, schema.getDatabaseObjects(Table.class).size());
+        assertNotNull(orders);
+        assertEquals("order headers", orders.getRemarks());
+        assertNull(missing);
+        verify(statement, times(1)).executeQuery(anyString());
+    }
+
+    @Test
+    public void testObjectFilterOnlyAppliesToSchemaReads() throws Exception {
+        IQConfiguration.getInstance().setValue(IQConfiguration.SNAPSHOT_INCLUDE_OBJECTS, "table:ORDER_.*");
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+
+        Table changeLog = (Table) generator.snapshotObject(new Table(null, "APP", "DATABASECHANGELOG"), snapshot);
+        generator.addTo(new Schema((String) null, "APP"), snapshot);
+
+        assertNotNull(changeLog);
+        verify(statement, times(2)).executeQuery(sql.capture());
+        assertFalse(sql.getAllValues().get(0).contains("LIKE"));
+        assertTrue(sql.getAllValues().get(1).contains(" AND (UPPER(t.table_name) IN ('DATABASECHANGELOG', "
+                + "'DATABASECHANGELOGLOCK') OR (1 = 1 AND (UPPER(t.table_name) LIKE 'ORDER!_%' ESCAPE '!') )) "));
+    }
+}
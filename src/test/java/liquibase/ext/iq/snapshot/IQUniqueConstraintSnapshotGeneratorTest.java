@@ -0,0 +1,76 @@
+package liquibase.ext.iq.snapshot;
+
+import liquibase.database.DatabaseConnection;
+import liquibase.database.jvm.JdbcConnection;
+import liquibase.ext.iq.database.IQDatabase;
+import liquibase.ext.iq.helpers.ResultSets;
+import liquibase.snapshot.CachedRow;
+import liquibase.snapshot.DatabaseSnapshot;
+import liquibase.structure.core.Schema;
+import liquibase.structure.core.Table;
+import liquibase.structure.core.UniqueConstraint;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class IQUniqueConstraintSnapshotGeneratorTest {
+
+    private static final String[] COLUMNS = {"TABLE_SCHEM", "TABLE_NAME", "CONSTRAINT_NAME", "COLUMN_NAME",
+            "ORDINAL_POSITION", "ASC_OR_DESC"};
+
+    IQDatabase database;
+    Statement statement;
+    DatabaseSnapshot snapshot;
+    IQUniqueConstraintSnapshotGenerator generator = new IQUniqueConstraintSnapshotGenerator();
+
+    @Before
+    public void setup() throws Exception {
+        statement = mock(Statement.class);
+        when(statement.executeQuery(anyString())).thenAnswer(invocation -> ResultSets.of(COLUMNS,
+                new Object[] {"APP", "ORDERS", "UQ_ORDER_NO", "ORDER_NO", 1, "A"},
+                new Object[] {"APP", "ORDERS", "UQ_ORDER_REF", "CUSTOMER_ID", 1, "A"},
+                new Object[] {"APP", "ORDERS", "UQ_ORDER_REF", "REFERENCE", 2, "A"},
+                new Object[] {"APP", "ORDER_LINES", "UQ_LINE", "LINE_NO", 1, "A"}));
+        Connection connection = mock(Connection.class);
+        when(connection.createStatement()).thenReturn(statement);
+        final JdbcConnection jdbcConnection = mock(JdbcConnection.class);
+        when(jdbcConnection.getUnderlyingConnection()).thenReturn(connection);
+        database = new IQDatabase() {
+            @Override
+            public DatabaseConnection getConnection() {
+                return jdbcConnection;
+            }
+        };
+        snapshot = mock(DatabaseSnapshot.class);
+        when(snapshot.getDatabase()).thenReturn(database);
+    }
+
+    @Test
+    public void testConstraintsAndColumnsShareOneQuery() throws Exception {
+        Schema schema = new Schema((String) null, "APP");
+        Table table = new Table(null, "APP", "ORDERS");
+        UniqueConstraint example = new UniqueConstraint("UQ_ORDER_REF", null, "APP", "ORDERS");
+        example.setRelation(table);
+
+        List<CachedRow> constraints = generator.listConstraints(table, snapshot, schema);
+        List<Map<String, ?>> columns = generator.listColumns(example, database, snapshot);
+
+        assertEquals(2, constraints.size());
+        assertEquals("UQ_ORDER_NO", constraints.get(0).getString("CONSTRAINT_NAME"));
+        assertEquals(2, columns.size());
+        assertEquals("CUSTOMER_ID", columns.get(0).get("COLUMN_NAME"));
+        assertEquals("REFERENCE", columns.get(1).get("COLUMN_NAME"));
+        verify(statement, times(1)).executeQuery(anyString());
+    }
+}
@@ -0,0 +1,88 @@
+package liquibase.ext.iq.statement;
+
+import liquibase.changelog.ChangeLogHistoryService;
+import liquibase.changelog.ChangeSet;
+import liquibase.exception.DatabaseException;
+import liquibase.exception.LiquibaseException;
+import liquibase.ext.iq.database.IQDatabase;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.sql.PreparedStatement;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class IQMarkChangeSetRanStatementTest {
+
+    IQDatabase database;
+    ChangeLogHistoryService historyService;
+    ChangeSet changeSet;
+
+    @Before
+    public void setup() throws Exception {
+        database = new IQDatabase();
+        historyService = mock(ChangeLogHistoryService.class);
+        when(historyService.getNextSequenceValue()).thenReturn(7);
+        when(historyService.getDeploymentId()).thenReturn("1234567890");
+        changeSet = new ChangeSet("1", "author", false, false, "changelog.xml", null, null, null);
+    }
+
+    @Test
+    public void testInsertForNewChangeSet() throws Exception {
+        IQMarkChangeSetRanStatement statement = new IQMarkChangeSetRanStatement(changeSet,
+                ChangeSet.ExecType.EXECUTED, database, historyService);
+
+        String sql = statement.getSql();
+
+        assertTrue(sql.startsWith("INSERT INTO DATABASECHANGELOG (DATEEXECUTED, ID, AUTHOR, FILENAME, ORDEREXECUTED"));
+        assertTrue(sql.contains("VALUES (CURRENT_TIMESTAMP, ?"));
+        PreparedStatement stmt = mock(PreparedStatement.class);
+        statement.setParameters(stmt);
+        verify(stmt).setObject(1, "1");
+        verify(stmt).setObject(2, "author");
+        verify(stmt).setObject(3, "changelog.xml");
+        verify(stmt).setObject(4, 7);
+    }
+
+    @Test
+    public void testUpdateForChangeSetThatRanBefore() throws Exception {
+        IQMarkChangeSetRanStatement statement = new IQMarkChangeSetRanStatement(changeSet,
+                ChangeSet.ExecType.RERAN, database, historyService);
+
+        String sql = statement.getSql();
+
+        assertTrue(sql.startsWith("UPDATE DATABASECHANGELOG SET DATEEXECUTED = CURRENT_TIMESTAMP, ORDEREXECUTED = ?"));
+        assertTrue(sql.endsWith(" WHERE ID = ? AND AUTHOR = ? AND FILENAME = ?"));
+    }
+
+    @Test
+    public void testFailedChangeSetIsNotRecorded() {
+        assertFalse(new IQMarkChangeSetRanStatement(changeSet, ChangeSet.ExecType.FAILED, database, historyService)
+                .isRecorded());
+        assertTrue(new IQMarkChangeSetRanStatement(changeSet, ChangeSet.ExecType.EXECUTED, database, historyService)
+                .isRecorded());
+    }
+
+    @Test
+    public void testSequenceErrorIsReportedAsDatabaseException() throws Exception {
+        LiquibaseException error = new LiquibaseException("no sequence");
+        when(historyService.getNextSequenceValue()).thenThrow(error);
+        IQMarkChangeSetRanStatement statement = new IQMarkChangeSetRanStatement(changeSet,
+                ChangeSet.ExecType.EXECUTED, database, historyService);
+
+        try {
+            statement.getSql();
+            fail("Expected a DatabaseException");
+        } catch (DatabaseException e) {
+            assertSame(error, e.getCause());
+        }
+        assertEquals("1234567890", historyService.getDeploymentId());
+    }
+}
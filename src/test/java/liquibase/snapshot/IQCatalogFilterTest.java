@@ -0,0 +1,82 @@
+package liquibase.snapshot;
+
+import liquibase.ext.iq.configuration.IQConfiguration;
+import org.junit.After;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class IQCatalogFilterTest {
+
+    @After
+    public void tearDown() {
+        IQConfiguration.getInstance().setValue(IQConfiguration.SNAPSHOT_INCLUDE_OBJECTS, null);
+        IQConfiguration.getInstance().setValue(IQConfiguration.SNAPSHOT_EXCLUDE_OBJECTS, null);
+    }
+
+    @Test
+    public void testToLike() {
+        assertEquals("ORDER%", IQCatalogFilter.toLike("order.*"));
+        assertEquals("ORDER_", IQCatalogFilter.toLike("^order.$"));
+        assertEquals("ORDER!_LINES", IQCatalogFilter.toLike("order_lines"));
+        assertEquals("50!%.O''K", IQCatalogFilter.toLike("50%\\.o'k"));
+        assertNull(IQCatalogFilter.toLike("order[0-9]"));
+        assertNull(IQCatalogFilter.toLike("orders|lines"));
+        assertNull(IQCatalogFilter.toLike("order\\d"));
+    }
+
+    @Test
+    public void testNoFilter() {
+        IQCatalogFilter filter = IQCatalogFilter.fromConfiguration();
+
+        assertEquals("", filter.getKey());
+        assertEquals("", filter.condition("table", "t.table_name"));
+        assertTrue(filter.accepts("table", "ORDERS"));
+    }
+
+    @Test
+    public void testConditionsPerObjectType() {
+        IQConfiguration.getInstance().setValue(IQConfiguration.SNAPSHOT_INCLUDE_OBJECTS,
+                "order.*, table:customer, schema:app");
+        IQConfiguration.getInstance().setValue(IQConfiguration.SNAPSHOT_EXCLUDE_OBJECTS, "sequence:tmp_.*");
+
+        IQCatalogFilter filter = IQCatalogFilter.fromConfiguration();
+
+        assertEquals("include=order.*, table:customer, schema:app;exclude=sequence:tmp_.*", filter.getKey());
+        assertEquals(" AND (UPPER(t.table_name) LIKE 'ORDER%' ESCAPE '!' OR UPPER(t.table_name) LIKE 'CUSTOMER' "
+                + "ESCAPE '!') ", filter.condition("table", "t.table_name"));
+        assertEquals(" AND (UPPER(s.sequence_name) LIKE 'ORDER%' ESCAPE '!') AND NOT UPPER(s.sequence_name) LIKE "
+                + "'TMP!_%' ESCAPE '!' ", filter.condition("sequence", "s.sequence_name"));
+        assertEquals(" AND (UPPER(u.user_name) LIKE 'APP' ESCAPE '!') ", filter.condition("schema", "u.user_name"));
+    }
+
+    @Test
+    public void testIncludesThatCannotBeTranslatedReadAllObjects() {
+        IQConfiguration.getInstance().setValue(IQConfiguration.SNAPSHOT_INCLUDE_OBJECTS, "orders, order_[0-9]+");
+
+        IQCatalogFilter filter = IQCatalogFilter.fromConfiguration();
+
+        assertEquals("", filter.condition("table", "t.table_name"));
+        assertTrue(filter.accepts("table", "ORDER_12"));
+        assertFalse(filter.accepts("table", "ORDER_X"));
+    }
+
+    @Test
+    public void testAccepts() {
+        IQConfiguration.getInstance().setValue(IQConfiguration.SNAPSHOT_INCLUDE_OBJECTS, "table:order.*");
+        IQConfiguration.getInstance().setValue(IQConfiguration.SNAPSHOT_EXCLUDE_OBJECTS, "order_tmp, schema:audit");
+
+        IQCatalogFilter filter = IQCatalogFilter.fromConfiguration();
+
+        assertTrue(filter.accepts("table", "Orders"));
+        assertFalse(filter.accepts("table", "ORDER_TMP"));
+        assertFalse(filter.accepts("table", "CUSTOMERS"));
+        assertTrue(filter.accepts("sequence", "CUSTOMER_SEQ"));
+        assertFalse(filter.accepts("schema", "AUDIT"));
+        assertTrue(filter.accepts("schema", "APP"));
+        assertTrue(filter.accepts("table", null));
+    }
+}
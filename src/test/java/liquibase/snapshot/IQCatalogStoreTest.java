@@ -0,0 +1,105 @@
+package liquibase.snapshot;
+
+import liquibase.ext.iq.database.IQDatabase;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.sql.Timestamp;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class IQCatalogStoreTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    IQCatalogStore store;
+    IQCatalogStore.Entry entry;
+
+    @Before
+    public void setup() {
+        store = new IQCatalogStore(folder.getRoot().toPath(), "jdbc:sybase:Tds:iq:2638|dba|");
+        List<String> columns = Arrays.asList("TABLE_SCHEM", "TABLE_NAME", "COLUMN_SIZE", "DECIMAL_DIGITS",
+                "NUM_PREC_RADIX", "IS_NULLABLE", "CREATED", "RATIO", "ROW_COUNT");
+        Map<String, String> stamps = new HashMap<>();
+        stamps.put("APP.ORDERS", "2020-01-02 03:04:05.0");
+        entry = new IQCatalogStore.Entry(columns, stamps, new IQColumnarRows.Builder(columns)
+                .add(new Object[] {"APP", "ORDERS", 10, (short) 2, new BigDecimal("10.5"), true,
+                        Timestamp.valueOf("2020-01-02 03:04:05.123456789"), 0.25, 12345678901L})
+                .add(new Object[] {"APP", "ORDER_LINES", null, null, null, false, null, null, null})
+                .build());
+    }
+
+    @Test
+    public void testEntryIsReadBackWithItsTypes() {
+        store.write("columns", entry);
+
+        IQCatalogStore.Entry read = store.read("columns");
+
+        assertEquals(entry.columns, read.columns);
+        assertEquals(entry.stamps, read.stamps);
+        assertEquals(2, read.rows.size());
+        CachedRow orders = read.rows.get(0);
+        assertEquals("ORDERS", orders.get("TABLE_NAME"));
+        assertEquals(10, orders.get("COLUMN_SIZE"));
+        assertEquals((short) 2, orders.get("DECIMAL_DIGITS"));
+        assertEquals(new BigDecimal("10.5"), orders.get("NUM_PREC_RADIX"));
+        assertEquals(true, orders.get("IS_NULLABLE"));
+        assertEquals(Timestamp.valueOf("2020-01-02 03:04:05.123456789"), orders.get("CREATED"));
+        assertEquals(0.25, orders.get("RATIO"));
+        assertEquals(12345678901L, orders.get("ROW_COUNT"));
+        assertNull(read.rows.get(1).get("COLUMN_SIZE"));
+        assertSame(orders.get("TABLE_SCHEM"), read.rows.get(1).get("TABLE_SCHEM"));
+    }
+
+    @Test
+    public void testMissingEntryIsNull() {
+        store.write("columns", entry);
+
+        assertNull(store.read("tables"));
+        assertNull(new IQCatalogStore(folder.getRoot().toPath(), "jdbc:sybase:Tds:other:2638|dba|").read("columns"));
+    }
+
+    @Test
+    public void testUnreadableFileIsIgnoredAndReplaced() throws Exception {
+        store.write("columns", entry);
+        File[] files = folder.getRoot().listFiles();
+        assertEquals(1, files.length);
+        Files.write(files[0].toPath(), new byte[] {1, 2, 3});
+
+        assertNull(store.read("columns"));
+
+        store.write("columns", entry);
+        assertEquals(2, store.read("columns").rows.size());
+        assertEquals(1, folder.getRoot().listFiles().length);
+    }
+
+    @Test
+    public void testEmptyEntry() {
+        List<String> columns = Collections.singletonList("TABLE_NAME");
+        store.write("tables", new IQCatalogStore.Entry(columns, Collections.emptyMap(),
+                new IQColumnarRows.Builder(columns).build()));
+
+        IQCatalogStore.Entry read = store.read("tables");
+
+        assertEquals(columns, read.columns);
+        assertEquals(0, read.rows.size());
+    }
+
+    @Test
+    public void testNoStoreWithoutDirectoryOrConnection() {
+        assertNull(IQCatalogStore.forDatabase(new IQDatabase()));
+    }
+}
@@ -0,0 +1,101 @@
+package liquibase.snapshot;
+
+import liquibase.ext.iq.helpers.ResultSets;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class IQColumnarRowsTest {
+
+    private static final String[] COLUMNS = {"TABLE_NAME", "COLUMN_SIZE", "DECIMAL_DIGITS", "ROW_COUNT", "NULLABLE"};
+
+    IQColumnarRows rows;
+
+    @Before
+    public void setup() throws Exception {
+        rows = IQColumnarRows.read(ResultSets.of(COLUMNS,
+                new Object[] {"ORDERS", 10, (short) 2, 12345678901L, 1},
+                new Object[] {"ORDERS", null, null, null, 0},
+                new Object[] {new String("ORDERS"), 20, (short) 0, 1L, null}));
+    }
+
+    @Test
+    public void testRowsAreReadFromTheResultSet() {
+        assertEquals(Arrays.asList(COLUMNS), rows.getColumns());
+        assertEquals(3, rows.size());
+        CachedRow first = rows.get(0);
+        assertEquals("ORDERS", first.getString("TABLE_NAME"));
+        assertEquals(Integer.valueOf(10), first.getInt("COLUMN_SIZE"));
+        assertEquals(Short.valueOf((short) 2), first.getShort("DECIMAL_DIGITS"));
+        assertEquals(12345678901L, first.get("ROW_COUNT"));
+        assertTrue(first.getBoolean("NULLABLE"));
+        assertFalse(rows.get(1).getBoolean("NULLABLE"));
+    }
+
+    @Test
+    public void testNullsAreKeptInPrimitiveColumns() {
+        CachedRow second = rows.get(1);
+        assertNull(second.getInt("COLUMN_SIZE"));
+        assertNull(second.getShort("DECIMAL_DIGITS"));
+        assertNull(second.get("ROW_COUNT"));
+        assertNull(rows.get(2).getBoolean("NULLABLE"));
+        assertEquals(Integer.valueOf(20), rows.get(2).getInt("COLUMN_SIZE"));
+    }
+
+    @Test
+    public void testEqualStringsAreStoredOnce() {
+        assertSame(rows.get(0).getString("TABLE_NAME"), rows.get(2).getString("TABLE_NAME"));
+    }
+
+    @Test
+    public void testColumnIsWidenedForMixedValues() {
+        IQColumnarRows mixed = new IQColumnarRows.Builder(Collections.singletonList("VALUE"))
+                .add(new Object[] {1})
+                .add(new Object[] {null})
+                .add(new Object[] {new BigDecimal("1.5")})
+                .add(new Object[] {"2"})
+                .build();
+
+        assertEquals(1, mixed.get(0).get("VALUE"));
+        assertNull(mixed.get(1).get("VALUE"));
+        assertEquals(new BigDecimal("1.5"), mixed.get(2).get("VALUE"));
+        assertEquals(Integer.valueOf(2), mixed.get(3).getInt("VALUE"));
+    }
+
+    @Test
+    public void testValuesSetOnARowAreKeptAside() {
+        CachedRow row = rows.get(1);
+        assertFalse(row.containsColumn("TABLE_SCHEM"));
+
+        row.set("TABLE_SCHEM", "APP");
+        row.set("COLUMN_SIZE", 5);
+
+        assertTrue(rows.get(1).containsColumn("TABLE_SCHEM"));
+        assertEquals("APP", rows.get(1).getString("TABLE_SCHEM"));
+        assertEquals(Integer.valueOf(5), rows.get(1).getInt("COLUMN_SIZE"));
+        assertFalse(rows.get(0).containsColumn("TABLE_SCHEM"));
+        assertEquals(Integer.valueOf(10), rows.get(0).getInt("COLUMN_SIZE"));
+    }
+
+    @Test
+    public void testBuilderCopiesRows() {
+        IQColumnarRows copy = new IQColumnarRows.Builder(rows.getColumns()).add(rows.get(0)).build();
+
+        assertEquals(1, copy.size());
+        assertEquals(12345678901L, copy.get(0).get("ROW_COUNT"));
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testIndexOutsideTheRows() {
+        rows.get(3);
+    }
+}